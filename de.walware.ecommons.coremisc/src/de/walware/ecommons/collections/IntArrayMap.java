@@ -12,6 +12,7 @@
 package de.walware.ecommons.collections;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -20,8 +21,10 @@ import java.util.Set;
 /**
  * An object that maps integer keys to values using the integer value as array index
  * <p>
- * Because it uses the integer value as array index, the map is only appropriate for lower
- * positive values.</p>
+ * Because it uses the integer value as array index, the map is only appropriate for
+ * non-negative values. As long as the keys are dense, the values are stored in a single array
+ * (direct indexing). If the keys become sparse, the map switches to a paged layout with pages of
+ * 4096 values allocated on demand.</p>
  * 
  * @param <V> type of the values
  * @since 1.0
@@ -29,8 +32,19 @@ import java.util.Set;
 public final class IntArrayMap<V> implements IntMap<V> {
 	
 	
+	private static final int PAGE_SHIFT = 12;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+	
+	private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+	
+	
+	/** Values in dense layout, <code>null</code> in paged layout */
 	private Object[] fArray;
 	
+	/** Pages of values in paged layout, <code>null</code> in dense layout */
+	private Object[][] fPages;
+	
 	private int fSize;
 	
 	
@@ -53,9 +67,24 @@ public final class IntArrayMap<V> implements IntMap<V> {
 		return fSize;
 	}
 	
+	private Object getValue(final int key) {
+		final Object[] array = fArray;
+		if (array != null) {
+			return (key < array.length) ? array[key] : null;
+		}
+		final int pageIdx = key >>> PAGE_SHIFT;
+		if (pageIdx < fPages.length) {
+			final Object[] page = fPages[pageIdx];
+			if (page != null) {
+				return page[key & PAGE_MASK];
+			}
+		}
+		return null;
+	}
+	
 	@Override
 	public boolean containsKey(final int key) {
-		return (key < fArray.length && fArray[key] != null);
+		return (getValue(key) != null);
 	}
 	
 	@Override
@@ -63,10 +92,22 @@ public final class IntArrayMap<V> implements IntMap<V> {
 		return ((key instanceof Integer) && containsKey(((Integer) key).intValue()));
 	}
 	
+	private static boolean contains(final Object[] array, final Object value) {
+		for (int i = array.length-1; i >= 0; i--) {
+			if (array[i] != null && array[i].equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	@Override
 	public boolean containsValue(final Object value) {
-		for (int i = fArray.length-1; i >= 0; i--) {
-			if (fArray[i] != null && fArray[i].equals(value)) {
+		if (fArray != null) {
+			return contains(fArray, value);
+		}
+		for (int pageIdx = fPages.length-1; pageIdx >= 0; pageIdx--) {
+			if (fPages[pageIdx] != null && contains(fPages[pageIdx], value)) {
 				return true;
 			}
 		}
@@ -75,10 +116,7 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	
 	@Override
 	public V get(final int key) {
-		if (key < fArray.length) {
-			return (V) fArray[key];
-		}
-		return null;
+		return (V) getValue(key);
 	}
 	
 	@Override
@@ -87,19 +125,76 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	}
 	
 	
-	private void increase(final int min) {
-		final Object[] newArray = new Object[min+16];
-		System.arraycopy(fArray, 0, newArray, 0, fArray.length);
-		fArray = newArray;
+	private void increase(final int key) {
+		// grow geometrically
+		long newLength = fArray.length + (fArray.length >> 1) + 16;
+		if (newLength <= key) {
+			newLength = key + 16L;
+		}
+		if (newLength > MAX_ARRAY_LENGTH
+				|| (key >= PAGE_SIZE && newLength > 4L * (fSize + 1)) ) {
+			// less than 1/4 of the values would be used
+			toPages();
+			return;
+		}
+		fArray = Arrays.copyOf(fArray, (int) newLength);
+	}
+	
+	private void toPages() {
+		final Object[] array = fArray;
+		final Object[][] pages = new Object[(array.length + PAGE_MASK) >>> PAGE_SHIFT][];
+		for (int pageIdx = 0; pageIdx < pages.length; pageIdx++) {
+			final int begin = pageIdx << PAGE_SHIFT;
+			final int end = Math.min(begin + PAGE_SIZE, array.length);
+			for (int i = begin; i < end; i++) {
+				if (array[i] != null) {
+					final Object[] page = new Object[PAGE_SIZE];
+					System.arraycopy(array, begin, page, 0, end - begin);
+					pages[pageIdx] = page;
+					break;
+				}
+			}
+		}
+		fPages = pages;
+		fArray = null;
+	}
+	
+	private Object[] getPage(final int pageIdx) {
+		if (pageIdx >= fPages.length) {
+			fPages = Arrays.copyOf(fPages, Math.max(pageIdx + 1, fPages.length + (fPages.length >> 1)));
+		}
+		Object[] page = fPages[pageIdx];
+		if (page == null) {
+			page = new Object[PAGE_SIZE];
+			fPages[pageIdx] = page;
+		}
+		return page;
 	}
 	
 	@Override
 	public V put(final int key, final V value) {
-		if (key >= fArray.length) {
+		if (key < 0) {
+			throw new IllegalArgumentException("key: " + key); //$NON-NLS-1$
+		}
+		if (fArray != null && key >= fArray.length) {
 			increase(key);
 		}
-		final V oldValue = (V) fArray[key];
-		fArray[key] = value;
+		final V oldValue;
+		if (fArray != null) {
+			oldValue = (V) fArray[key];
+			fArray[key] = value;
+		}
+		else {
+			final Object[] page = getPage(key >>> PAGE_SHIFT);
+			oldValue = (V) page[key & PAGE_MASK];
+			page[key & PAGE_MASK] = value;
+		}
+		if (value == null) {
+			if (oldValue != null) {
+				fSize--;
+			}
+			return oldValue;
+		}
 		if (oldValue != null) {
 			return oldValue;
 		}
@@ -122,10 +217,21 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	}
 	
 	public V remove(final int key) {
-		if (key < fArray.length) {
-			final V oldValue = (V) fArray[key];
+		final Object[] array;
+		final int idx;
+		if (fArray != null) {
+			array = fArray;
+			idx = key;
+		}
+		else {
+			final int pageIdx = key >>> PAGE_SHIFT;
+			array = (pageIdx < fPages.length) ? fPages[pageIdx] : null;
+			idx = key & PAGE_MASK;
+		}
+		if (array != null && idx < array.length) {
+			final V oldValue = (V) array[idx];
 			if (oldValue != null) {
-				fArray[key] = null;
+				array[idx] = null;
 				fSize--;
 				return oldValue;
 			}
@@ -140,10 +246,13 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	
 	@Override
 	public void clear() {
-		if (fSize > 0) {
-			for (int i = fArray.length-1; i >= 0; i--) {
-				fArray[i] = null;
-			}
+		if (fArray == null) {
+			fArray = new Object[16];
+			fPages = null;
+			fSize = 0;
+		}
+		else if (fSize > 0) {
+			Arrays.fill(fArray, null);
 			fSize = 0;
 		}
 	}
@@ -165,11 +274,26 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	}
 	
 	
+	private static int getMaxIdx(final Object[] array) {
+		for (int i = array.length-1; i >= 0; i--) {
+			if (array[i] != null) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
 	public int getMaxKey() {
 		if (fSize > 0) {
-			for (int i = fArray.length-1; i >= 0; i--) {
-				if (fArray[i] != null) {
-					return i;
+			if (fArray != null) {
+				return getMaxIdx(fArray);
+			}
+			for (int pageIdx = fPages.length-1; pageIdx >= 0; pageIdx--) {
+				if (fPages[pageIdx] != null) {
+					final int idx = getMaxIdx(fPages[pageIdx]);
+					if (idx >= 0) {
+						return (pageIdx << PAGE_SHIFT) + idx;
+					}
 				}
 			}
 		}
@@ -179,7 +303,16 @@ public final class IntArrayMap<V> implements IntMap<V> {
 	public V[] toArray(final Class<? super V> type) {
 		final int length = getMaxKey() + 1;
 		final V[] array = (V[]) Array.newInstance(type, length);
-		System.arraycopy(fArray, 0, array, 0, length);
+		if (fArray != null) {
+			System.arraycopy(fArray, 0, array, 0, length);
+		}
+		else {
+			for (int pageIdx = 0, begin = 0; begin < length; pageIdx++, begin += PAGE_SIZE) {
+				if (fPages[pageIdx] != null) {
+					System.arraycopy(fPages[pageIdx], 0, array, begin, Math.min(PAGE_SIZE, length - begin));
+				}
+			}
+		}
 		return array;
 	}
 	
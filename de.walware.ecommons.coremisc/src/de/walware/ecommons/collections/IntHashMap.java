@@ -11,7 +11,6 @@
 
 package de.walware.ecommons.collections;
 
-import java.nio.channels.UnsupportedAddressTypeException;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
@@ -21,7 +20,11 @@ import java.util.Set;
 
 
 /**
- * An object that maps integer keys to values using the integer value itself as hash value.
+ * An object that maps integer keys to values using a hash table with open addressing.
+ * <p>
+ * The keys and values are stored in parallel arrays (linear probing, power-of-two sizing),
+ * so the map doesn't allocate any objects per entry. The entries can be iterated without
+ * allocation using a {@link #cursor() cursor}.</p>
  * 
  * @param <V> type of the values
  * @since 1.0
@@ -29,18 +32,27 @@ import java.util.Set;
 public final class IntHashMap<V> implements IntMap<V> {
 	
 	
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final float DEFAULT_LOAD_FACTOR= 0.75f;
+	private static final float MAX_LOAD_FACTOR= 0.9f;
 	
-	private static class Entry<V> implements java.util.Map.Entry<Integer, V>, IntEntry<V> {
+	private static final int MAX_CAPACITY= 1 << 30;
+	
+	/** Marker for <code>null</code> values (<code>null</code> marks free slots) */
+	private static final Object NULL= new Object();
+	
+	
+	private static final class Entry<V> implements IntEntry<V>, Map.Entry<Integer, V> {
+		
+		private final IntHashMap<V> map;
 		
-		final int key;
-		V value;
-		Entry<V> next;
+		private final int key;
+		private V value;
 		
-		public Entry(final int key, final V value, final Entry<V> next) {
-			this.key = key;
-			this.value = value;
-			this.next = next;
+		
+		public Entry(final IntHashMap<V> map, final int key, final V value) {
+			this.map= map;
+			this.key= key;
+			this.value= value;
 		}
 		
 		
@@ -61,8 +73,9 @@ public final class IntHashMap<V> implements IntMap<V> {
 		
 		@Override
 		public V setValue(final V value) {
-			final V oldValue = this.value;
-			this.value = value;
+			final V oldValue= this.value;
+			this.value= value;
+			this.map.put(this.key, value);
 			return oldValue;
 		}
 		
@@ -79,75 +92,165 @@ public final class IntHashMap<V> implements IntMap<V> {
 			if (!(obj instanceof IntEntry)) {
 				return false;
 			}
-			final IntEntry<?> other = (de.walware.ecommons.collections.IntMap.IntEntry<?>) obj;
+			final IntEntry<?> other= (IntEntry<?>) obj;
 			return (this.key == other.getIntKey()
 					&& ((this.value != null) ? this.value.equals(other.getValue()) : null == other.getValue()) );
 		}
 		
 	}
 	
-	private class IntEntryIterator implements Iterator<IntEntry<V>> {
+	/**
+	 * Cursor iterating the entries of the map without allocating entry objects.
+	 * <p>
+	 * The cursor itself provides the key and value of the current entry. Removing the current
+	 * entry by {@link #remove()} is supported; other modifications of the map during iteration
+	 * are not allowed.</p>
+	 * 
+	 * @since 1.7
+	 */
+	public final class EntryCursor implements IntEntry<V> {
+		
+		
+		/** Free slot the iteration begins after */
+		private final int startIdx;
+		/** Number of the slots already visited */
+		private int count;
 		
-		private Entry<V> fCurrentEntry;
-		private Entry<V> fNextEntry;
-		private int fNextEntryIdx;
+		private int currentIdx;
 		
-		public IntEntryIterator() {
-			for (int idx = 0; idx < fEntries.length; idx++) {
-				if (fEntries[idx] != null) {
-					fNextEntry = fEntries[fNextEntryIdx = idx];
-					break;
+		
+		private EntryCursor() {
+			this.startIdx= findFreeIdx();
+			this.currentIdx= -1;
+		}
+		
+		
+		/**
+		 * Moves the cursor to the next entry.
+		 * 
+		 * @return <code>true</code> if the cursor is at an entry, <code>false</code> if there are
+		 *     no more entries
+		 */
+		public boolean next() {
+			final Object[] values= IntHashMap.this.values;
+			final int mask= values.length - 1;
+			while (this.count < mask) {
+				final int idx= (this.startIdx + 1 + this.count++) & mask;
+				if (values[idx] != null) {
+					this.currentIdx= idx;
+					return true;
 				}
 			}
+			this.currentIdx= -1;
+			return false;
+		}
+		
+		private void checkCurrent() {
+			if (this.currentIdx < 0) {
+				throw new IllegalStateException();
+			}
+		}
+		
+		@Override
+		public int getIntKey() {
+			checkCurrent();
+			return IntHashMap.this.keys[this.currentIdx];
 		}
 		
+		@Override
+		public V getValue() {
+			checkCurrent();
+			return unmask(IntHashMap.this.values[this.currentIdx]);
+		}
+		
+		/**
+		 * Replaces the value of the current entry.
+		 * 
+		 * @param value the new value
+		 * @return the previous value
+		 */
+		public V setValue(final V value) {
+			checkCurrent();
+			final V oldValue= unmask(IntHashMap.this.values[this.currentIdx]);
+			IntHashMap.this.values[this.currentIdx]= mask(value);
+			return oldValue;
+		}
+		
+		/**
+		 * Removes the current entry from the map.
+		 */
+		public void remove() {
+			checkCurrent();
+			removeAt(this.currentIdx);
+		}
+		
+		private void removeAt(final int idx) {
+			removeIdx(idx);
+			// entries are shifted only towards the free slot the iteration began after,
+			// so an entry not yet visited may have been moved into the slot: visit it again
+			this.count= (idx - this.startIdx - 1) & (IntHashMap.this.values.length - 1);
+			this.currentIdx= -1;
+		}
+		
+	}
+	
+	private final class EntryIterator implements Iterator<IntEntry<V>> {
+		
+		
+		private final EntryCursor cursor= new EntryCursor();
+		
+		private boolean isNextChecked;
+		private boolean hasNext;
+		
+		private int lastIdx= -1;
+		
+		
+		public EntryIterator() {
+		}
+		
+		
 		@Override
 		public boolean hasNext() {
-			return (fNextEntry != null);
+			if (!this.isNextChecked) {
+				this.hasNext= this.cursor.next();
+				this.isNextChecked= true;
+			}
+			return this.hasNext;
 		}
 		
 		@Override
-		public Entry<V> next() {
-			fCurrentEntry = fNextEntry;
-			if (fCurrentEntry == null) {
+		public IntEntry<V> next() {
+			if (!hasNext()) {
 				throw new NoSuchElementException();
 			}
-			if (fCurrentEntry.next != null) {
-				fNextEntry = fCurrentEntry.next;
-			}
-			else {
-				fNextEntry = null;
-				for (int idx = fNextEntryIdx+1; idx < fEntries.length; idx++) {
-					if (fEntries[idx] != null) {
-						fNextEntry = fEntries[fNextEntryIdx = idx];
-						break;
-					}
-				}
-			}
-			return fCurrentEntry;
+			this.isNextChecked= false;
+			this.lastIdx= this.cursor.currentIdx;
+			return new Entry<>(IntHashMap.this, this.cursor.getIntKey(), this.cursor.getValue());
 		}
 		
 		@Override
 		public void remove() {
-			if (fCurrentEntry == null) {
+			if (this.lastIdx < 0) {
 				throw new IllegalStateException();
 			}
-			IntHashMap.this.remove(fCurrentEntry.key);
-			fCurrentEntry = null;
+			this.cursor.removeAt(this.lastIdx);
+			this.lastIdx= -1;
+			this.isNextChecked= false;
 		}
 		
 	}
 	
 	
-	private Entry<V> fEntries[];
+	private int[] keys;
+	private Object[] values;
 	
-	private int fSize;
+	private int size;
 	
-	private int fThreshold;
+	private int threshold;
 	
-	private final float fLoadFactor;
+	private final float loadFactor;
 	
-	private volatile Set<IntEntry<V>> fEntryIntSet;
+	private volatile Set<IntEntry<V>> entryIntSet;
 	
 	
 	public IntHashMap() {
@@ -158,46 +261,91 @@ public final class IntHashMap<V> implements IntMap<V> {
 		this(initialCapacity, DEFAULT_LOAD_FACTOR);
 	}
 	
-	public IntHashMap(int initialCapacity, final float loadFactor) {
+	/**
+	 * Creates a new empty map.
+	 * 
+	 * @param initialCapacity the initial capacity
+	 * @param loadFactor the load factor; values greater than 0.9 are reduced to 0.9
+	 */
+	public IntHashMap(final int initialCapacity, final float loadFactor) {
 		if (initialCapacity < 0) {
-			throw new IllegalArgumentException("initialCapacity: " + initialCapacity);
+			throw new IllegalArgumentException("initialCapacity: " + initialCapacity); //$NON-NLS-1$
 		}
-		if (loadFactor <= 0) {
-			throw new IllegalArgumentException("loadFactor: " + loadFactor);
-		}
-		if (initialCapacity == 0) {
-			initialCapacity = 1;
+		if (loadFactor <= 0 || Float.isNaN(loadFactor)) {
+			throw new IllegalArgumentException("loadFactor: " + loadFactor); //$NON-NLS-1$
 		}
 		
-		fLoadFactor = loadFactor;
-		fThreshold = (int) (initialCapacity * fLoadFactor);
-		fEntries = new Entry[initialCapacity];
+		this.loadFactor= Math.min(loadFactor, MAX_LOAD_FACTOR);
+		init(tableSizeFor((int) Math.min(initialCapacity / this.loadFactor + 1, MAX_CAPACITY)));
+	}
+	
+	
+	private static int tableSizeFor(final int capacity) {
+		return (capacity <= 2) ? 2 : Integer.highestOneBit(capacity - 1) << 1;
 	}
 	
+	private static int hash(final int key) {
+		final int h= key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	private static Object mask(final Object value) {
+		return (value != null) ? value : NULL;
+	}
 	
-	private int idxFor(final int key) {
-		final int compr = key ^ (key >>> 23) ^ (key >>> 11);
-		return ((compr ^ (compr >>> 7)) & 0x7fffffff) % fEntries.length;
+	@SuppressWarnings("unchecked")
+	private static <V> V unmask(final Object value) {
+		return (value != NULL) ? (V) value : null;
+	}
+	
+	private void init(final int capacity) {
+		this.keys= new int[capacity];
+		this.values= new Object[capacity];
+		this.threshold= Math.min((int) (capacity * this.loadFactor), capacity - 1);
+	}
+	
+	/**
+	 * Returns the slot of the key.
+	 * 
+	 * @return the index of the slot or <code>-(insertion point + 1)</code>
+	 */
+	private int idxOf(final int key) {
+		final int[] keys= this.keys;
+		final Object[] values= this.values;
+		final int mask= values.length - 1;
+		int idx= hash(key) & mask;
+		while (values[idx] != null) {
+			if (keys[idx] == key) {
+				return idx;
+			}
+			idx= (idx + 1) & mask;
+		}
+		return -(idx + 1);
+	}
+	
+	private int findFreeIdx() {
+		final Object[] values= this.values;
+		for (int idx= 0; idx < values.length; idx++) {
+			if (values[idx] == null) {
+				return idx;
+			}
+		}
+		throw new IllegalStateException();
 	}
 	
 	@Override
 	public boolean isEmpty() {
-		return (fSize == 0);
+		return (this.size == 0);
 	}
 	
 	@Override
 	public int size() {
-		return fSize;
+		return this.size;
 	}
 	
 	@Override
 	public boolean containsKey(final int key) {
-		for (Entry<V> e = fEntries[idxFor(key)]; e != null; e = e.next) {
-			if (e.key == key) {
-				return true;
-			}
-		}
-		return false;
+		return (idxOf(key) >= 0);
 	}
 	
 	@Override
@@ -208,11 +356,11 @@ public final class IntHashMap<V> implements IntMap<V> {
 	
 	@Override
 	public boolean containsValue(final Object value) {
-		for (int i = fEntries.length-1; i >= 0; i--) {
-			for (Entry<V> e = fEntries[i]; e != null; e = e.next) {
-				if (e.value.equals(value)) {
-					return true;
-				}
+		final Object[] values= this.values;
+		final Object masked= mask(value);
+		for (int idx= values.length - 1; idx >= 0; idx--) {
+			if (values[idx] != null && values[idx].equals(masked)) {
+				return true;
 			}
 		}
 		return false;
@@ -220,12 +368,8 @@ public final class IntHashMap<V> implements IntMap<V> {
 	
 	@Override
 	public V get(final int key) {
-		for (Entry<V> e = fEntries[idxFor(key)]; e != null; e = e.next) {
-			if (e.key == key) {
-				return e.value;
-			}
-		}
-		return null;
+		final int idx= idxOf(key);
+		return (idx >= 0) ? IntHashMap.<V>unmask(this.values[idx]) : null;
 	}
 	
 	@Override
@@ -235,38 +379,46 @@ public final class IntHashMap<V> implements IntMap<V> {
 	
 	
 	private void increase() {
-		final Entry<V>[] oldEntries = fEntries;
-		fEntries = new Entry[oldEntries.length * 2 + 1];
-		for (int i = oldEntries.length-1; i >= 0; i--) {
-			for (Entry<V> next = oldEntries[i]; next != null;) {
-				final Entry<V> e = next;
-				next = next.next;
-				
-				final int idx = idxFor(e.key);
-				e.next = fEntries[idx];
-				fEntries[idx] = e;
+		final int[] oldKeys= this.keys;
+		final Object[] oldValues= this.values;
+		if (oldValues.length >= MAX_CAPACITY) {
+			throw new IllegalStateException("capacity"); //$NON-NLS-1$
+		}
+		init(oldValues.length << 1);
+		final int[] keys= this.keys;
+		final Object[] values= this.values;
+		final int mask= values.length - 1;
+		for (int oldIdx= 0; oldIdx < oldValues.length; oldIdx++) {
+			final Object value= oldValues[oldIdx];
+			if (value != null) {
+				final int key= oldKeys[oldIdx];
+				int idx= hash(key) & mask;
+				while (values[idx] != null) {
+					idx= (idx + 1) & mask;
+				}
+				keys[idx]= key;
+				values[idx]= value;
 			}
 		}
-		fThreshold = (int) (fEntries.length * fLoadFactor);
 	}
 	
 	@Override
 	public V put(final int key, final V value) {
-		for (Entry<V> e = fEntries[idxFor(key)]; e != null; e = e.next) {
-			if (e.key == key) {
-				final V old = e.value;
-				e.value = value;
-				return old;
-			}
+		int idx= idxOf(key);
+		if (idx >= 0) {
+			final V oldValue= unmask(this.values[idx]);
+			this.values[idx]= mask(value);
+			return oldValue;
 		}
-		if (fSize >= fThreshold) {
+		if (this.size >= this.threshold) {
 			increase();
+			idx= idxOf(key);
 		}
-		{	final int idx = idxFor(key);
-			fEntries[idx] = new Entry<>(key, value, fEntries[idx]);
-			fSize++;
-			return null;
-		}
+		idx= -(idx + 1);
+		this.keys[idx]= key;
+		this.values[idx]= mask(value);
+		this.size++;
+		return null;
 	}
 	
 	@Override
@@ -276,27 +428,44 @@ public final class IntHashMap<V> implements IntMap<V> {
 	
 	@Override
 	public void putAll(final Map<? extends Integer, ? extends V> t) {
-		for (final java.util.Map.Entry<? extends Integer, ? extends V> entry : t.entrySet()) {
+		for (final Map.Entry<? extends Integer, ? extends V> entry : t.entrySet()) {
 			put(entry.getKey().intValue(), entry.getValue());
 		}
 	}
 	
-	public V remove(final int key) {
-		final int idx = idxFor(key);
-		for (Entry<V> e = fEntries[idx], prev = null; e != null; prev = e, e = e.next) {
-			if (e.key == key) {
-				if (prev == null) {
-					fEntries[idx] = e.next;
-				}
-				else {
-					prev.next = e.next;
-				}
-				fSize--;
-				final V oldValue = e.value;
-				e.value = null;
-				return oldValue;
+	/**
+	 * Removes the entry in the specified slot, shifting following entries of the same
+	 * cluster backward (no tombstones).
+	 */
+	private void removeIdx(int idx) {
+		final int[] keys= this.keys;
+		final Object[] values= this.values;
+		final int mask= values.length - 1;
+		int nextIdx= idx;
+		while (true) {
+			nextIdx= (nextIdx + 1) & mask;
+			final Object value= values[nextIdx];
+			if (value == null) {
+				break;
+			}
+			final int homeIdx= hash(keys[nextIdx]) & mask;
+			if (((nextIdx - homeIdx) & mask) >= ((nextIdx - idx) & mask)) {
+				keys[idx]= keys[nextIdx];
+				values[idx]= value;
+				idx= nextIdx;
 			}
 		}
+		values[idx]= null;
+		this.size--;
+	}
+	
+	public V remove(final int key) {
+		final int idx= idxOf(key);
+		if (idx >= 0) {
+			final V oldValue= unmask(this.values[idx]);
+			removeIdx(idx);
+			return oldValue;
+		}
 		return null;
 	}
 	
@@ -307,28 +476,48 @@ public final class IntHashMap<V> implements IntMap<V> {
 	
 	@Override
 	public void clear() {
-		for (int i = fEntries.length-1; i >= 0; i--) {
-			fEntries[i] = null;
+		if (this.size > 0) {
+			final Object[] values= this.values;
+			for (int idx= values.length - 1; idx >= 0; idx--) {
+				values[idx]= null;
+			}
+			this.size= 0;
 		}
-		fSize = 0;
 	}
 	
 	
+	/**
+	 * Returns a new cursor to iterate the entries of the map without allocating entry objects.
+	 * 
+	 * @return a new cursor, positioned before the first entry
+	 * @since 1.7
+	 */
+	public EntryCursor cursor() {
+		return new EntryCursor();
+	}
+	
 	public Set<IntEntry<V>> entryIntSet() {
-		final Set<IntEntry<V>> entries = fEntryIntSet;
-		return (entries != null) ? entries : (fEntryIntSet = new AbstractSet<IntEntry<V>>() {
+		final Set<IntEntry<V>> entries= this.entryIntSet;
+		return (entries != null) ? entries : (this.entryIntSet= new AbstractSet<IntEntry<V>>() {
 			@Override
 			public int size() {
-				return fSize;
+				return IntHashMap.this.size;
 			}
 			@Override
 			public boolean contains(final Object o) {
-				return (o instanceof IntEntry
-						&& o.equals(IntHashMap.this.get(((IntEntry<?>) o).getIntKey())));
+				if (o instanceof IntEntry) {
+					final IntEntry<?> entry= (IntEntry<?>) o;
+					final int idx= idxOf(entry.getIntKey());
+					if (idx >= 0) {
+						final Object value= unmask(IntHashMap.this.values[idx]);
+						return ((value != null) ? value.equals(entry.getValue()) : null == entry.getValue());
+					}
+				}
+				return false;
 			}
 			@Override
 			public Iterator<IntEntry<V>> iterator() {
-				return new IntEntryIterator();
+				return new EntryIterator();
 			}
 			@Override
 			public void clear() {
@@ -348,8 +537,8 @@ public final class IntHashMap<V> implements IntMap<V> {
 	}
 	
 	@Override
-	public Set<java.util.Map.Entry<Integer, V>> entrySet() {
-		throw new UnsupportedAddressTypeException();
+	public Set<Map.Entry<Integer, V>> entrySet() {
+		throw new UnsupportedOperationException();
 	}
 	
 }
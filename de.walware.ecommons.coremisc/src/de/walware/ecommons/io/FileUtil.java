@@ -23,6 +23,7 @@ import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.CharBuffer;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
@@ -404,12 +405,59 @@ public abstract class FileUtil {
 		
 	}
 	
+	/**
+	 * Action processing the complete text content of a file at once.
+	 * 
+	 * @since 1.7
+	 */
+	public static interface TextAction {
+		
+		/**
+		 * @param text the text content, ready to be read (position 0, limit at the end)
+		 * @param monitor a progress monitor for progress and cancellation report
+		 */
+		void run(CharBuffer text, IProgressMonitor monitor) throws IOException, CoreException;
+		
+	}
+	
+	/**
+	 * Returns a reader action reading the content completely and passing it to the text action.
+	 * 
+	 * @since 1.7
+	 */
+	protected static ReaderAction toReaderAction(final TextAction action) {
+		return new ReaderAction() {
+			@Override
+			public void run(final BufferedReader reader, final IProgressMonitor monitor) throws IOException, CoreException {
+				CharBuffer text = CharBuffer.allocate(0x2000);
+				while (reader.read(text) >= 0) {
+					if (!text.hasRemaining()) {
+						final CharBuffer newText = CharBuffer.allocate(text.capacity() * 2);
+						text.flip();
+						newText.put(text);
+						text = newText;
+					}
+				}
+				text.flip();
+				action.run(text, monitor);
+			}
+		};
+	}
+	
 	protected static class FileInput implements Closeable {
 		
 		private String fEncoding;
 		private String fDefaultEncoding;
 		private InputStream fStream;
 		
+		/**
+		 * Creates an input for subclasses providing the reader by themselves.
+		 * 
+		 * @since 1.7
+		 */
+		protected FileInput() {
+		}
+		
 		public FileInput(final InputStream input, final String expliciteCharsetHint) throws IOException, CoreException {
 			fStream = input;
 			if (expliciteCharsetHint != null) {
@@ -593,8 +641,34 @@ public abstract class FileUtil {
 	 */
 	public abstract URI getURI();
 	
+	/**
+	 * Returns the charset specified by the byte order mark (BOM) of the file.
+	 * <p>
+	 * Files in the workspace answer from their content description, which is cached by the
+	 * workspace. The default implementation returns <code>null</code>.</p>
+	 * 
+	 * @param monitor a progress monitor for progress and cancellation report
+	 * @return the charset or <code>null</code>, if the file has no BOM or doesn't exist
+	 * @throws CoreException
+	 * @since 1.7
+	 */
+	public String getBomCharset(final IProgressMonitor monitor) throws CoreException {
+		return null;
+	}
+	
 	
 	public abstract ReadTextFileOperation createReadTextFileOp(ReaderAction action);
+	/**
+	 * Creates an operation reading the complete text content of the file.
+	 * <p>
+	 * The default implementation uses the reader of {@link #createReadTextFileOp(ReaderAction)};
+	 * implementations can provide a more direct access.</p>
+	 * 
+	 * @since 1.7
+	 */
+	public AbstractFileOperation createReadTextFileOp(final TextAction action) {
+		return createReadTextFileOp(toReaderAction(action));
+	}
 	public abstract WriteTextFileOperation createWriteTextFileOp(String content);
 	
 }
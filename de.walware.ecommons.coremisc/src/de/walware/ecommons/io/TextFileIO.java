@@ -0,0 +1,305 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reads and writes text files of the local file system using file channels.
+ * <p>
+ * The charset of a file is detected like in {@link FileUtil}: a byte order mark (BOM) for
+ * UTF-8 or UTF-16 overrides the specified charset, unless the charset is forced. A detected
+ * BOM is never part of the text. Malformed and unmappable input is replaced.</p>
+ * <p>
+ * Files are read into a single {@link CharBuffer} without intermediate streams or strings;
+ * large files are decoded directly from a memory mapped buffer. The direct byte buffer and
+ * the charset decoder and encoder are kept and reused by subsequent operations, so an
+ * instance must not be used concurrently by multiple threads.</p>
+ * 
+ * @since 1.7
+ */
+public class TextFileIO {
+	
+	
+	private static final int BUFFER_SIZE= 0x10000;
+	
+	private static final long MAP_THRESHOLD= 0x100000;
+	
+	private static final int MAX_BOM_LENGTH= 3;
+	
+	
+	private ByteBuffer byteBuffer;
+	
+	private CharsetDecoder decoder;
+	private CharsetEncoder encoder;
+	
+	
+	public TextFileIO() {
+	}
+	
+	
+	/**
+	 * Detects the charset of the file opened by the specified channel and positions the channel
+	 * behind the byte order mark, if present (also if the charset is forced).
+	 * <p>
+	 * The channel can be used afterwards to read the text content by other channel based
+	 * decoders.</p>
+	 * 
+	 * @param channel the channel of the file
+	 * @param charset the charset to use, if no BOM is found or the charset is forced;
+	 *     <code>null</code> for the default (UTF-8)
+	 * @param forceCharset if the specified charset overrides the BOM
+	 * @return the charset of the file
+	 * @throws IOException
+	 */
+	public Charset detectCharset(final FileChannel channel, final String charset,
+			final boolean forceCharset) throws IOException {
+		final long begin= channel.position();
+		final ByteBuffer bytes= ByteBuffer.allocate(MAX_BOM_LENGTH);
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes) < 0) {
+				break;
+			}
+		}
+		String bomCharset= null;
+		int bomLength= 0;
+		if (startsWith(bytes, FileUtil.BOM_UTF_8)) {
+			bomCharset= FileUtil.UTF_8;
+			bomLength= FileUtil.BOM_UTF_8.length;
+		}
+		else if (startsWith(bytes, FileUtil.BOM_UTF_16BE)) {
+			bomCharset= FileUtil.UTF_16_BE;
+			bomLength= FileUtil.BOM_UTF_16BE.length;
+		}
+		else if (startsWith(bytes, FileUtil.BOM_UTF_16LE)) {
+			bomCharset= FileUtil.UTF_16_LE;
+			bomLength= FileUtil.BOM_UTF_16LE.length;
+		}
+		
+		final boolean useBom= (bomCharset != null && !(forceCharset && charset != null));
+		final Charset result= Charset.forName((useBom) ? bomCharset :
+				((charset != null) ? charset : FileUtil.UTF_8) );
+		channel.position(begin + bomLength);
+		return result;
+	}
+	
+	private static boolean startsWith(final ByteBuffer bytes, final byte[] bom) {
+		if (bytes.position() < bom.length) {
+			return false;
+		}
+		for (int i= 0; i < bom.length; i++) {
+			if (bytes.get(i) != bom[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * Reads the text content of the specified file.
+	 * 
+	 * @param file the file
+	 * @param charset the charset to use, if no BOM is found or the charset is forced;
+	 *     <code>null</code> for the default (UTF-8)
+	 * @param forceCharset if the specified charset overrides the BOM
+	 * @return the text, ready to be read (position 0, limit at the end of the text)
+	 * @throws IOException
+	 */
+	public CharBuffer read(final Path file, final String charset, final boolean forceCharset)
+			throws IOException {
+		try (final FileChannel channel= FileChannel.open(file, StandardOpenOption.READ)) {
+			final Charset fileCharset= detectCharset(channel, charset, forceCharset);
+			final CharsetDecoder decoder= getDecoder(fileCharset);
+			final long length= channel.size() - channel.position();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("File too large: " + file); //$NON-NLS-1$
+			}
+			
+			CharBuffer out= CharBuffer.allocate(
+					(int) Math.min(Integer.MAX_VALUE, (long) (length * (double) decoder.averageCharsPerByte()) + 16) );
+			if (length >= MAP_THRESHOLD) {
+				final ByteBuffer in= channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), length);
+				out= decode(decoder, in, out, true);
+			}
+			else {
+				final ByteBuffer in= getByteBuffer();
+				boolean endOfInput= false;
+				while (!endOfInput) {
+					endOfInput= (channel.read(in) < 0);
+					in.flip();
+					out= decode(decoder, in, out, endOfInput);
+					in.compact();
+				}
+			}
+			out= flush(decoder, out);
+			out.flip();
+			return out;
+		}
+	}
+	
+	/**
+	 * Opens a reader decoding the text content of the file opened by the specified channel.
+	 * <p>
+	 * The reader reads the channel sequentially and doesn't use the buffers of this instance;
+	 * closing the reader closes the channel.</p>
+	 * 
+	 * @param channel the channel of the file
+	 * @param charset the charset to use, if no BOM is found or the charset is forced;
+	 *     <code>null</code> for the default (UTF-8)
+	 * @param forceCharset if the specified charset overrides the BOM
+	 * @return the reader
+	 * @throws IOException
+	 */
+	public Reader openReader(final FileChannel channel, final String charset,
+			final boolean forceCharset) throws IOException {
+		final Charset fileCharset= detectCharset(channel, charset, forceCharset);
+		return Channels.newReader(channel, newDecoder(fileCharset), -1);
+	}
+	
+	
+	private CharBuffer decode(final CharsetDecoder decoder, final ByteBuffer in, CharBuffer out,
+			final boolean endOfInput) throws CharacterCodingException {
+		while (true) {
+			final CoderResult result= decoder.decode(in, out, endOfInput);
+			if (result.isOverflow()) {
+				out= grow(out);
+				continue;
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+			return out;
+		}
+	}
+	
+	private CharBuffer flush(final CharsetDecoder decoder, CharBuffer out) {
+		while (decoder.flush(out).isOverflow()) {
+			out= grow(out);
+		}
+		return out;
+	}
+	
+	private static CharBuffer grow(final CharBuffer out) {
+		final int capacity= out.capacity();
+		if (capacity == Integer.MAX_VALUE) {
+			throw new OutOfMemoryError();
+		}
+		final CharBuffer newOut= CharBuffer.allocate(
+				(int) Math.min(Integer.MAX_VALUE, capacity + (capacity >> 1) + 16L) );
+		out.flip();
+		newOut.put(out);
+		return newOut;
+	}
+	
+	
+	/**
+	 * Writes the specified text to the file.
+	 * <p>
+	 * If <code>append</code> is <code>true</code>, the text is appended to the existing
+	 * content of the file; otherwise the file is created or truncated.</p>
+	 * 
+	 * @param file the file
+	 * @param text the text to write
+	 * @param charset the charset to encode the text
+	 * @param append if the text is appended to the file
+	 * @throws IOException
+	 */
+	public void write(final Path file, final CharSequence text, final String charset,
+			final boolean append) throws IOException {
+		final CharsetEncoder encoder= getEncoder(Charset.forName(charset));
+		try (final FileChannel channel= (append) ?
+				FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND ) :
+				FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING )) {
+			final CharBuffer in= (text instanceof CharBuffer) ?
+					((CharBuffer) text).duplicate() : CharBuffer.wrap(text);
+			final ByteBuffer out= getByteBuffer();
+			while (true) {
+				final CoderResult result= encoder.encode(in, out, true);
+				if (result.isError()) {
+					result.throwException();
+				}
+				if (result.isUnderflow()) {
+					break;
+				}
+				writeBytes(channel, out);
+			}
+			while (encoder.flush(out).isOverflow()) {
+				writeBytes(channel, out);
+			}
+			writeBytes(channel, out);
+		}
+	}
+	
+	private static void writeBytes(final FileChannel channel, final ByteBuffer out)
+			throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+	
+	
+	private ByteBuffer getByteBuffer() {
+		if (this.byteBuffer == null) {
+			this.byteBuffer= ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+		this.byteBuffer.clear();
+		return this.byteBuffer;
+	}
+	
+	private static CharsetDecoder newDecoder(final Charset charset) {
+		return charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+	
+	private CharsetDecoder getDecoder(final Charset charset) {
+		if (this.decoder == null || !this.decoder.charset().equals(charset)) {
+			this.decoder= newDecoder(charset);
+		}
+		else {
+			this.decoder.reset();
+		}
+		return this.decoder;
+	}
+	
+	private CharsetEncoder getEncoder(final Charset charset) {
+		if (this.encoder == null || !this.encoder.charset().equals(charset)) {
+			this.encoder= charset.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		else {
+			this.encoder.reset();
+		}
+		return this.encoder;
+	}
+	
+}
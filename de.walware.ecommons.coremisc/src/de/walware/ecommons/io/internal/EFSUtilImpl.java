@@ -11,18 +11,30 @@
 
 package de.walware.ecommons.io.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.net.URI;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 
 import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.filesystem.IFileSystem;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.osgi.util.NLS;
@@ -30,16 +42,43 @@ import org.eclipse.osgi.util.NLS;
 import de.walware.ecommons.ECommons;
 import de.walware.ecommons.ICommonStatusConstants;
 import de.walware.ecommons.io.FileUtil;
+import de.walware.ecommons.io.TextFileIO;
 
 
 /**
  * impl for {@link EFS} / {@link IFileStore}
+ * 
+ * Files of the local file system are read and written by {@link TextFileIO} (file channels).
  */
 public class EFSUtilImpl extends FileUtil {
 	
 	
 	private static final String LABEL_2_LOCALFILE = "' ("+Messages.FileType_Local_name+")"; //$NON-NLS-1$ //$NON-NLS-2$
 	
+	/** Max number of idle {@link TextFileIO} instances (each with a direct buffer) kept for reuse */
+	private static final int TEXT_FILE_IO_POOL_SIZE = 4;
+	
+	private static final ArrayDeque<TextFileIO> TEXT_FILE_IO_POOL = new ArrayDeque<>(TEXT_FILE_IO_POOL_SIZE);
+	
+	
+	private static TextFileIO acquireTextFileIO() {
+		synchronized (TEXT_FILE_IO_POOL) {
+			final TextFileIO io = TEXT_FILE_IO_POOL.pollFirst();
+			if (io != null) {
+				return io;
+			}
+		}
+		return new TextFileIO();
+	}
+	
+	private static void releaseTextFileIO(final TextFileIO io) {
+		synchronized (TEXT_FILE_IO_POOL) {
+			if (TEXT_FILE_IO_POOL.size() < TEXT_FILE_IO_POOL_SIZE) {
+				TEXT_FILE_IO_POOL.addFirst(io);
+			}
+		}
+	}
+	
 	
 	private final IFileStore fFile;
 	
@@ -68,17 +107,161 @@ public class EFSUtilImpl extends FileUtil {
 		return fFile.fetchInfo(EFS.NONE, monitor).getLastModified();
 	}
 	
+	@Override
+	public String getBomCharset(final IProgressMonitor monitor) throws CoreException {
+		final IFileInfo info = fFile.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1));
+		if (!info.exists() || info.isDirectory()) {
+			monitor.done();
+			return null;
+		}
+		try {
+			return detectBomCharset(monitor);
+		}
+		catch (final IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ECommons.PLUGIN_ID, ICommonStatusConstants.IO_ERROR,
+					"Error while reading the file.", e));
+		}
+	}
+	
+	/**
+	 * Detects the charset by the BOM of the existing file.
+	 * 
+	 * @return the charset or <code>null</code>
+	 */
+	private String detectBomCharset(final IProgressMonitor monitor) throws CoreException, IOException {
+		try {
+			final InputStream raw = fFile.openInputStream(EFS.NONE, monitor);
+			final FileInput fi = new FileInput(raw, null);
+			fi.close();
+			return fi.getDefaultCharset();
+		}
+		finally {
+			monitor.done();
+		}
+	}
+	
+	/**
+	 * Returns the path of the file, if it is in the local file system.
+	 * 
+	 * @return the local path or <code>null</code>
+	 */
+	private Path getLocalPath() {
+		if (fFile.getFileSystem().equals(EFS.getLocalFileSystem())) {
+			try {
+				final File file = fFile.toLocalFile(EFS.NONE, null);
+				if (file != null) {
+					return file.toPath();
+				}
+			}
+			catch (final CoreException e) {}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Input of a local file read by a channel reader of {@link TextFileIO}.
+	 * <p>
+	 * The charset is detected and applied when the input is created.</p>
+	 */
+	private static class LocalFileInput extends FileInput {
+		
+		private final FileChannel fChannel;
+		private final Reader fReader;
+		
+		public LocalFileInput(final Path path, final String charset, final boolean forceCharset) throws IOException {
+			fChannel = FileChannel.open(path, StandardOpenOption.READ);
+			try {
+				fReader = new TextFileIO().openReader(fChannel, charset, forceCharset);
+			}
+			catch (final IOException | RuntimeException e) {
+				saveClose(fChannel);
+				throw e;
+			}
+		}
+		
+		@Override
+		public void setEncoding(final String encoding, final boolean force) {
+		}
+		
+		@Override
+		public Reader getReader() {
+			return fReader;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			fChannel.close();
+		}
+		
+	}
+	
+	/**
+	 * Operation reading the complete text content of a local file by {@link TextFileIO}.
+	 */
+	private class LocalReadTextOperation extends AbstractFileOperation {
+		
+		private final Path fPath;
+		private final TextAction fAction;
+		
+		public LocalReadTextOperation(final Path path, final TextAction action) {
+			fPath = path;
+			fAction = action;
+		}
+		
+		@Override
+		protected void runInEnv(final IProgressMonitor monitor) throws CoreException {
+			try {
+				monitor.beginTask(null, 100);
+				monitor.subTask("Reading "+getLabel()+"...");
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				
+				final CharBuffer text;
+				final TextFileIO io = acquireTextFileIO();
+				try {
+					text = io.read(fPath, fCharset, fForceCharset);
+				}
+				finally {
+					releaseTextFileIO(io);
+				}
+				monitor.worked(20);
+				fAction.run(text, new SubProgressMonitor(monitor, 80));
+			}
+			catch (final UnsupportedCharsetException | IllegalCharsetNameException e) {
+				throw new CoreException(new Status(IStatus.ERROR, ECommons.PLUGIN_ID, ICommonStatusConstants.IO_ERROR,
+						"The selected charset is unsupported on your system.", e));
+			}
+			catch (final IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, ECommons.PLUGIN_ID, ICommonStatusConstants.IO_ERROR,
+						"Error while reading the file.", e));
+			}
+			finally {
+				monitor.done();
+			}
+		}
+		
+	}
+	
 	
 	@Override
 	public ReadTextFileOperation createReadTextFileOp(final ReaderAction action) {
+		final Path path = getLocalPath();
 		return new ReadTextFileOperation() {
 			
 			@Override
 			protected FileInput getInput(final IProgressMonitor monitor) throws CoreException, IOException {
 				try {
+					if (path != null) {
+						return new LocalFileInput(path, fCharset, fForceCharset);
+					}
 					final InputStream raw = fFile.openInputStream(EFS.NONE, monitor);
 					return new FileInput(raw, null);
 				}
+				catch (final UnsupportedCharsetException | IllegalCharsetNameException e) {
+					throw new UnsupportedEncodingException(fCharset);
+				}
 				finally {
 					monitor.done();
 				}
@@ -92,36 +275,43 @@ public class EFSUtilImpl extends FileUtil {
 		};
 	}
 	
+	@Override
+	public AbstractFileOperation createReadTextFileOp(final TextAction action) {
+		final Path path = getLocalPath();
+		if (path == null) {
+			return super.createReadTextFileOp(action);
+		}
+		return new LocalReadTextOperation(path, action);
+	}
+	
 	@Override
 	public WriteTextFileOperation createWriteTextFileOp(final String content) {
+		final Path path = getLocalPath();
 		return new WriteTextFileOperation() {
 			
 			@Override
 			protected void writeImpl(final IProgressMonitor monitor) throws CoreException, IOException {
+				if (path != null) {
+					writeLocal(monitor);
+					return;
+				}
 				Writer out = null;
 				try {
-					final boolean exists = fFile.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 5)).exists();
+					final IFileInfo info = fFile.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 5));
+					final boolean exists = info.exists();
 					if (exists && (fMode & (EFS.OVERWRITE | EFS.APPEND)) == 0) {
 						throw new CoreException(new Status(IStatus.ERROR, ECommons.PLUGIN_ID, ICommonStatusConstants.IO_ERROR,
 								NLS.bind(Messages.Resource_error_AlreadyExists_message, " "+getLabel()+" "), null)); //$NON-NLS-1$ //$NON-NLS-2$
 					}
-					if (exists && (fMode & EFS.APPEND) != 0 && !fForceCharset) {
-						try {
-							final InputStream raw = fFile.openInputStream(EFS.NONE, new SubProgressMonitor(monitor, 5));
-							final FileInput fi = new FileInput(raw, null);
-							fi.close();
-							final String defaultCharset = fi.getDefaultCharset();
-							if (defaultCharset != null) {
-								fCharset = defaultCharset;
-							}
-						}
-						catch (final IOException e) { }
-						finally {
-							monitor.worked(5);
+					final boolean append = (exists && (fMode & EFS.APPEND) != 0);
+					if (append && !fForceCharset) {
+						final String bomCharset = detectBomCharset(new SubProgressMonitor(monitor, 5));
+						if (bomCharset != null) {
+							fCharset = bomCharset;
 						}
 					}
 					else {
-						monitor.worked(10);
+						monitor.worked(5);
 					}
 					out = new OutputStreamWriter(fFile.openOutputStream(fMode, new SubProgressMonitor(monitor, 5)), fCharset);
 					
@@ -134,6 +324,36 @@ public class EFSUtilImpl extends FileUtil {
 				}
 			}
 			
+			private void writeLocal(final IProgressMonitor monitor) throws CoreException, IOException {
+				final IFileInfo info = fFile.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 5));
+				final boolean exists = info.exists();
+				if (exists && (fMode & (EFS.OVERWRITE | EFS.APPEND)) == 0) {
+					throw new CoreException(new Status(IStatus.ERROR, ECommons.PLUGIN_ID, ICommonStatusConstants.IO_ERROR,
+							NLS.bind(Messages.Resource_error_AlreadyExists_message, " "+getLabel()+" "), null)); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				final boolean append = (exists && (fMode & EFS.APPEND) != 0);
+				if (append && !fForceCharset) {
+					final String bomCharset = detectBomCharset(new SubProgressMonitor(monitor, 5));
+					if (bomCharset != null) {
+						fCharset = bomCharset;
+					}
+				}
+				else {
+					monitor.worked(5);
+				}
+				final TextFileIO io = acquireTextFileIO();
+				try {
+					io.write(path, content, fCharset, append);
+					monitor.worked(80);
+				}
+				catch (final UnsupportedCharsetException | IllegalCharsetNameException e) {
+					throw new UnsupportedEncodingException(fCharset);
+				}
+				finally {
+					releaseTextFileIO(io);
+				}
+			}
+			
 		};
 	}
 	
@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.content.IContentDescription;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 import de.walware.ecommons.io.FileUtil;
@@ -63,6 +64,32 @@ public class WorkspaceUtilImpl extends FileUtil {
 		return stamp;
 	}
 	
+	@Override
+	public String getBomCharset(final IProgressMonitor monitor) throws CoreException {
+		try {
+			if (!fFile.exists()) {
+				return null;
+			}
+			// the content description is cached by the workspace
+			final IContentDescription description = fFile.getContentDescription();
+			final byte[] bom = (description != null) ?
+					(byte[]) description.getProperty(IContentDescription.BYTE_ORDER_MARK) : null;
+			if (bom == IContentDescription.BOM_UTF_8) {
+				return UTF_8;
+			}
+			if (bom == IContentDescription.BOM_UTF_16BE) {
+				return UTF_16_BE;
+			}
+			if (bom == IContentDescription.BOM_UTF_16LE) {
+				return UTF_16_LE;
+			}
+			return null;
+		}
+		finally {
+			monitor.done();
+		}
+	}
+	
 	
 	@Override
 	public ReadTextFileOperation createReadTextFileOp(final ReaderAction action) {
@@ -0,0 +1,245 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.preferences.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.core.runtime.preferences.IScopeContext;
+
+import de.walware.jcommons.collections.ImList;
+import de.walware.jcommons.collections.ImSet;
+
+import de.walware.ecommons.preferences.core.IPreferenceAccess;
+import de.walware.ecommons.preferences.core.IPreferenceSetService;
+import de.walware.ecommons.preferences.core.Preference;
+
+
+/**
+ * Preference access caching the usage values of the preferences.
+ * <p>
+ * The value of a preference is converted once by {@link Preference#store2Usage(String)} and
+ * cached until the key changes in the node of any of the scope contexts; the cache listens
+ * directly to the preference nodes, so repeated lookups of unchanged preferences are a map
+ * lookup. Values are cached by qualifier and key; different preference instances of the same
+ * type share the cached value.</p>
+ * <p>
+ * The cached values are shared by all callers, so the returned values (e.g. arrays or sets)
+ * must not be modified. If a preference node is removed and recreated, the cache must be
+ * cleared by {@link #clear()}.</p>
+ * <p>
+ * The access must be disposed if it is no longer used, to remove the listeners from the
+ * preference nodes.</p>
+ * 
+ * @since 1.7
+ */
+public class CachedPreferenceAccess implements IPreferenceAccess {
+	
+	
+	private static final class Entry {
+		
+		private final Preference<?> pref;
+		
+		private final Object value;
+		
+		
+		public Entry(final Preference<?> pref, final Object value) {
+			this.pref= pref;
+			this.value= value;
+		}
+		
+		
+		/**
+		 * Returns if the cached value is valid for the specified preference with the same key.
+		 */
+		public boolean matches(final Preference<?> pref) {
+			return (this.pref == pref
+					|| (this.pref.getClass() == pref.getClass()
+							&& this.pref.getUsageType() == pref.getUsageType() ));
+		}
+		
+	}
+	
+	private final class NodeCache implements IPreferenceChangeListener {
+		
+		
+		private final String qualifier;
+		
+		private final ConcurrentHashMap<String, Entry> entries= new ConcurrentHashMap<>();
+		
+		private final List<IEclipsePreferences> nodes= new ArrayList<>();
+		
+		private volatile int stamp;
+		
+		
+		public NodeCache(final String qualifier) {
+			this.qualifier= qualifier;
+		}
+		
+		
+		public void connect() {
+			// including default scope, default values can be changed too
+			for (int i= 0; i < CachedPreferenceAccess.this.contexts.size(); i++) {
+				final IScopeContext context= CachedPreferenceAccess.this.contexts.get(i);
+				try {
+					final IEclipsePreferences node= context.getNode(this.qualifier);
+					if (node != null) {
+						node.addPreferenceChangeListener(this);
+						this.nodes.add(node);
+					}
+				}
+				catch (final IllegalStateException e) {
+				}
+			}
+		}
+		
+		public void disconnect() {
+			for (final IEclipsePreferences node : this.nodes) {
+				try {
+					node.removePreferenceChangeListener(this);
+				}
+				catch (final IllegalStateException e) {
+				}
+			}
+			this.nodes.clear();
+		}
+		
+		@Override
+		public void preferenceChange(final PreferenceChangeEvent event) {
+			synchronized (this) {
+				this.stamp++;
+				this.entries.remove(event.getKey());
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		public <T> T get(final Preference<T> pref) {
+			final Entry entry= this.entries.get(pref.getKey());
+			if (entry != null && entry.matches(pref)) {
+				return (T) entry.value;
+			}
+			
+			final int stamp= this.stamp;
+			final T value= PreferenceUtils.getPrefValue(CachedPreferenceAccess.this.contexts, pref);
+			synchronized (this) {
+				if (this.stamp == stamp) {
+					this.entries.put(pref.getKey(), new Entry(pref, value));
+				}
+			}
+			return value;
+		}
+		
+	}
+	
+	
+	private final ImList<IScopeContext> contexts;
+	
+	/** Uncached access for the listeners */
+	private final IPreferenceAccess access;
+	
+	private final ConcurrentHashMap<String, NodeCache> nodeCaches= new ConcurrentHashMap<>();
+	
+	private volatile boolean isDisposed;
+	
+	
+	public CachedPreferenceAccess(final ImList<IScopeContext> contexts) {
+		if (contexts == null) {
+			throw new NullPointerException("contexts"); //$NON-NLS-1$
+		}
+		this.contexts= contexts;
+		this.access= PreferenceUtils.createAccess(contexts);
+	}
+	
+	
+	/**
+	 * Removes all cached values.
+	 */
+	public void clear() {
+		synchronized (this.nodeCaches) {
+			for (final NodeCache nodeCache : this.nodeCaches.values()) {
+				nodeCache.disconnect();
+			}
+			this.nodeCaches.clear();
+		}
+	}
+	
+	public void dispose() {
+		synchronized (this.nodeCaches) {
+			this.isDisposed= true;
+			clear();
+		}
+	}
+	
+	public final boolean isDisposed() {
+		return this.isDisposed;
+	}
+	
+	
+	private NodeCache getNodeCache(final String qualifier) {
+		NodeCache nodeCache= this.nodeCaches.get(qualifier);
+		if (nodeCache == null) {
+			synchronized (this.nodeCaches) {
+				if (this.isDisposed) {
+					return null;
+				}
+				nodeCache= this.nodeCaches.get(qualifier);
+				if (nodeCache == null) {
+					nodeCache= new NodeCache(qualifier);
+					nodeCache.connect();
+					this.nodeCaches.put(qualifier, nodeCache);
+				}
+			}
+		}
+		return nodeCache;
+	}
+	
+	
+	@Override
+	public ImList<IScopeContext> getPreferenceContexts() {
+		return this.contexts;
+	}
+	
+	@Override
+	public <T> T getPreferenceValue(final Preference<T> pref) {
+		final NodeCache nodeCache= getNodeCache(pref.getQualifier());
+		if (nodeCache == null) {
+			return PreferenceUtils.getPrefValue(this.contexts, pref);
+		}
+		return nodeCache.get(pref);
+	}
+	
+	@Override
+	public void addPreferenceNodeListener(final String nodeQualifier, final IPreferenceChangeListener listener) {
+		this.access.addPreferenceNodeListener(nodeQualifier, listener);
+	}
+	
+	@Override
+	public void removePreferenceNodeListener(final String nodeQualifier, final IPreferenceChangeListener listener) {
+		this.access.removePreferenceNodeListener(nodeQualifier, listener);
+	}
+	
+	@Override
+	public void addPreferenceSetListener(final IPreferenceSetService.IChangeListener listener,
+			final ImSet<String> qualifiers) {
+		this.access.addPreferenceSetListener(listener, qualifiers);
+	}
+	
+	@Override
+	public void removePreferenceSetListener(final IPreferenceSetService.IChangeListener listener) {
+		this.access.removePreferenceSetListener(listener);
+	}
+	
+}
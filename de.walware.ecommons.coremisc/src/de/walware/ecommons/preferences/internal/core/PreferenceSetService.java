@@ -12,6 +12,8 @@
 package de.walware.ecommons.preferences.internal.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -50,6 +52,9 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 	private static final int MS_NS= 1000 * 1000;
 	
 	private static final int MIN_WAIT_NS= 50 * MS_NS;
+	/** Wait for the first change after a quiet period. */
+	private static final int FIRST_WAIT_NS= 2 * MS_NS;
+	/** Max wait for changes in a burst; the wait doubles with each change until this value. */
 	private static final int AUTO_WAIT_NS= 200 * MS_NS;
 	private static final int TOLERANCE_NS= MIN_WAIT_NS / 2;
 	
@@ -88,6 +93,159 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 		
 	}
 	
+	/**
+	 * Immutable index of the listeners by context and qualifier.
+	 */
+	private static final class ListenerIndex {
+		
+		
+		private static final int[] NO_LISTENERS= new int[0];
+		
+		
+		private final ImList<ChangeListenerItem> items;
+		
+		private final Map<IScopeContext, Map<String, int[]>> contextQualifierItems= new HashMap<>();
+		
+		
+		public ListenerIndex(final ImList<ChangeListenerItem> items) {
+			this.items= items;
+			
+			for (int i= 0; i < items.size(); i++) {
+				final ChangeListenerItem item= items.get(i);
+				for (final IScopeContext context : item.getContexts()) {
+					Map<String, int[]> qualifierItems= this.contextQualifierItems.get(context);
+					if (qualifierItems == null) {
+						qualifierItems= new HashMap<>();
+						this.contextQualifierItems.put(context, qualifierItems);
+					}
+					for (final String qualifier : item.getQualifiers()) {
+						int[] itemIdxs= qualifierItems.get(qualifier);
+						if (itemIdxs == null) {
+							itemIdxs= NO_LISTENERS;
+						}
+						else if (itemIdxs[itemIdxs.length - 1] == i) {
+							continue;
+						}
+						itemIdxs= Arrays.copyOf(itemIdxs, itemIdxs.length + 1);
+						itemIdxs[itemIdxs.length - 1]= i;
+						qualifierItems.put(qualifier, itemIdxs);
+					}
+				}
+			}
+		}
+		
+		
+		public ImList<ChangeListenerItem> getItems() {
+			return this.items;
+		}
+		
+		/**
+		 * Marks the indexes of all listener items interested in the specified node.
+		 */
+		public void mark(final IScopeContext context, final String qualifier, final BitSet itemIdxs) {
+			final Map<String, int[]> qualifierItems= this.contextQualifierItems.get(context);
+			if (qualifierItems != null) {
+				final int[] idxs= qualifierItems.get(qualifier);
+				if (idxs != null) {
+					for (int i= 0; i < idxs.length; i++) {
+						itemIdxs.set(idxs[i]);
+					}
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * Statistics of the notifications.
+	 * <p>
+	 * The latency of a notification is the time from the first preference change of the batch
+	 * until all listeners are notified; the batch size is the number of changed keys.</p>
+	 */
+	public static final class Statistics {
+		
+		
+		private long notificationCount;
+		
+		private long totalLatencyNanos;
+		private long maxLatencyNanos;
+		
+		private long totalBatchSize;
+		private int maxBatchSize;
+		
+		private long listenerCallCount;
+		
+		
+		private Statistics() {
+		}
+		
+		
+		private synchronized void add(final long latencyNanos, final int batchSize,
+				final int listenerCalls) {
+			this.notificationCount++;
+			this.totalLatencyNanos+= latencyNanos;
+			if (latencyNanos > this.maxLatencyNanos) {
+				this.maxLatencyNanos= latencyNanos;
+			}
+			this.totalBatchSize+= batchSize;
+			if (batchSize > this.maxBatchSize) {
+				this.maxBatchSize= batchSize;
+			}
+			this.listenerCallCount+= listenerCalls;
+		}
+		
+		public synchronized long getNotificationCount() {
+			return this.notificationCount;
+		}
+		
+		public synchronized long getTotalLatencyNanos() {
+			return this.totalLatencyNanos;
+		}
+		
+		public synchronized long getMaxLatencyNanos() {
+			return this.maxLatencyNanos;
+		}
+		
+		public synchronized long getTotalBatchSize() {
+			return this.totalBatchSize;
+		}
+		
+		public synchronized int getMaxBatchSize() {
+			return this.maxBatchSize;
+		}
+		
+		public synchronized long getListenerCallCount() {
+			return this.listenerCallCount;
+		}
+		
+		public synchronized void reset() {
+			this.notificationCount= 0;
+			this.totalLatencyNanos= 0;
+			this.maxLatencyNanos= 0;
+			this.totalBatchSize= 0;
+			this.maxBatchSize= 0;
+			this.listenerCallCount= 0;
+		}
+		
+		@Override
+		public synchronized String toString() {
+			final StringBuilder sb= new StringBuilder("PreferenceSetService.Statistics"); //$NON-NLS-1$
+			sb.append("\n\tnotifications= ").append(this.notificationCount); //$NON-NLS-1$
+			if (this.notificationCount > 0) {
+				sb.append("\n\tlatency (avg/max)= ") //$NON-NLS-1$
+						.append((this.totalLatencyNanos / this.notificationCount) / MS_NS).append(" ms / ") //$NON-NLS-1$
+						.append(this.maxLatencyNanos / MS_NS).append(" ms"); //$NON-NLS-1$
+				sb.append("\n\tbatch size (avg/max)= ") //$NON-NLS-1$
+						.append(this.totalBatchSize / this.notificationCount).append(" / ") //$NON-NLS-1$
+						.append(this.maxBatchSize);
+				sb.append("\n\tlistener calls= ").append(this.listenerCallCount); //$NON-NLS-1$
+			}
+			return sb.toString();
+		}
+		
+	}
+	
+	
 	private class ContextItem {
 		
 		private final IScopeContext context;
@@ -280,6 +438,7 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 	private final Set<String> pauseIds= new HashSet<>();
 	
 	private CopyOnWriteList<ChangeListenerItem> listeners= new CopyOnWriteList<>();
+	private volatile ListenerIndex listenerIndex;
 	
 	private final Map<IScopeContext, ContextItem> contexts= new HashMap<>();
 	private ImList<ContextItem> contextList;
@@ -288,12 +447,20 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 	private volatile long minStamp;
 	private volatile long scheduledStamp;
 	
+	private long lastChangeStamp;
+	private int autoWaitNanos= FIRST_WAIT_NS;
+	private long batchBeginStamp;
+	
 	private final Map<IScopeContext, ImList<NodeItem>> processMap= new HashMap<>();
 	private final ImListBuilder<?> processListBuilder= new ImListBuilder<>();
 	private final Event processEvent= new Event();
+	private final BitSet processListenerIdxs= new BitSet();
+	
+	private final Statistics statistics= new Statistics();
 	
 	
 	public PreferenceSetService() {
+		this.lastChangeStamp= System.nanoTime() - 2L * AUTO_WAIT_NS;
 	}
 	
 	
@@ -323,34 +490,60 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 		}
 	}
 	
+	public Statistics getStatistics() {
+		return this.statistics;
+	}
+	
 	private synchronized void onPreferenceChange() {
+		final long now= System.nanoTime();
+		if (now - this.lastChangeStamp > AUTO_WAIT_NS) {
+			this.autoWaitNanos= FIRST_WAIT_NS;
+		}
+		else if (this.autoWaitNanos < AUTO_WAIT_NS) {
+			this.autoWaitNanos= Math.min(this.autoWaitNanos * 2, AUTO_WAIT_NS);
+		}
+		this.lastChangeStamp= now;
+		if (this.batchBeginStamp == 0) {
+			this.batchBeginStamp= now;
+		}
+		
 		if (!this.pauseIds.isEmpty()) {
-			final long time= System.nanoTime() + MIN_WAIT_NS;
+			final long time= now + MIN_WAIT_NS;
 			if (time > this.minStamp) {
 				this.minStamp= time;
 			}
 			return;
 		}
 		else {
-			final long time= System.nanoTime() + AUTO_WAIT_NS;
+			final long time= now + this.autoWaitNanos;
 			if (time > this.minStamp) {
 				this.minStamp= time;
 			}
-			if (time > this.scheduledStamp + TOLERANCE_NS) {
+			if (time > this.scheduledStamp + Math.min(TOLERANCE_NS, this.autoWaitNanos)) {
 				this.defaultJob.cancel();
 				this.scheduledStamp= time;
-				this.defaultJob.schedule((AUTO_WAIT_NS + TOLERANCE_NS) / MS_NS);
+				this.defaultJob.schedule(toDelayMillis(this.autoWaitNanos));
 			}
 		}
 	}
 	
+	private static long toDelayMillis(final long nanos) {
+		return (nanos + MS_NS - 1) / MS_NS;
+	}
+	
+	private synchronized long takeBatchBeginStamp(final long time) {
+		final long stamp= this.batchBeginStamp;
+		this.batchBeginStamp= 0;
+		return (stamp != 0) ? stamp : time;
+	}
+	
 	private synchronized boolean isOkToRun(final long time) {
 		if (!this.pauseIds.isEmpty()) {
 			return false;
 		}
 		else if (time < this.minStamp) {
 			this.scheduledStamp= this.minStamp;
-			this.defaultJob.schedule((this.minStamp - System.nanoTime() + TOLERANCE_NS) / MS_NS);
+			this.defaultJob.schedule(toDelayMillis(this.minStamp - System.nanoTime()));
 			return false;
 		}
 		else {
@@ -419,10 +612,12 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 				final ChangeListenerItem iItem= l.get(i);
 				if (iItem.getListener() == listener) {
 					this.listeners.set(i, item);
+					this.listenerIndex= null;
 					break LISTENER;
 				}
 			}
 			this.listeners.add(item);
+			this.listenerIndex= null;
 		}
 		
 		for (final IScopeContext context : contexts) {
@@ -440,12 +635,27 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 			for (int i= 0; i < l.size(); i++) {
 				if (l.get(i).getListener() == listener) {
 					this.listeners.remove(i);
+					this.listenerIndex= null;
 					break LISTENER;
 				}
 			}
 		}
 	}
 	
+	private ListenerIndex getListenerIndex() {
+		ListenerIndex index= this.listenerIndex;
+		if (index == null) {
+			synchronized (this.listeners) {
+				index= this.listenerIndex;
+				if (index == null) {
+					index= new ListenerIndex(this.listeners.toList());
+					this.listenerIndex= index;
+				}
+			}
+		}
+		return index;
+	}
+	
 	
 	private void process(final IProgressMonitor monitor) {
 		final Map<IScopeContext, ImList<NodeItem>> map= this.processMap;
@@ -479,10 +689,29 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 			}
 		}
 		
+		// reset the stamp also if the signal produced no changes
+		final long batchBegin= takeBatchBeginStamp(time);
+		if (map.isEmpty()) {
+			return;
+		}
+		
 		try {
+			final ListenerIndex index= getListenerIndex();
+			final BitSet listenerIdxs= this.processListenerIdxs;
+			listenerIdxs.clear();
+			int batchSize= 0;
+			for (final Map.Entry<IScopeContext, ImList<NodeItem>> entry : map.entrySet()) {
+				for (final NodeItem nodeItem : entry.getValue()) {
+					batchSize+= nodeItem.getChangedKeys().size();
+					index.mark(entry.getKey(), nodeItem.getQualifier(), listenerIdxs);
+				}
+			}
+			
 			final Event event= this.processEvent;
-			final ImList<ChangeListenerItem> listeners= this.listeners.toList();
-			for (final ChangeListenerItem listener : listeners) {
+			final ImList<ChangeListenerItem> listeners= index.getItems();
+			int listenerCalls= 0;
+			for (int i= listenerIdxs.nextSetBit(0); i >= 0; i= listenerIdxs.nextSetBit(i + 1)) {
+				final ChangeListenerItem listener= listeners.get(i);
 				for (final IScopeContext context : listener.getContexts()) {
 					final ImList<NodeItem> list= map.get(context);
 					if (list != null) {
@@ -496,10 +725,13 @@ public final class PreferenceSetService implements IPreferenceSetService, ISched
 				
 				if (!event.isEmpty()) {
 					listener.getListener().preferenceChanged(event);
+					listenerCalls++;
 					
 					event.reset();
 				}
 			}
+			
+			this.statistics.add(System.nanoTime() - batchBegin, batchSize, listenerCalls);
 		}
 		finally {
 			map.clear();
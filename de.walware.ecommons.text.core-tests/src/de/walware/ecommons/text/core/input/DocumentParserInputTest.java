@@ -13,6 +13,7 @@ package de.walware.ecommons.text.core.input;
 
 import static de.walware.ecommons.text.core.input.StringParserInputTest.COUNTER_STRING;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.jface.text.Document;
@@ -22,6 +23,8 @@ import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.internal.ArrayComparisonFailure;
 
+import de.walware.ecommons.text.core.util.ImmutableDocument;
+
 
 @FixMethodOrder
 public class DocumentParserInputTest {
@@ -154,6 +157,36 @@ public class DocumentParserInputTest {
 		assertTrue(0x1000 >= this.input.getBuffer().length);
 	}
 	
+	@Test
+	public void combinedTextStoreDocument() {
+		final String s= COUNTER_STRING;
+		this.input= new DocumentParserInput();
+		this.input.reset(new ImmutableDocument(s, 0));
+		this.input.init();
+		
+		readConsume(s, 0, s.length(), 2351);
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+	}
+	
+	@Test
+	public void resetReuseBuffer() {
+		final String s= COUNTER_STRING;
+		this.input= new DocumentParserInput();
+		this.input.reset(this.doc);
+		this.doc.set(s);
+		this.input.init();
+		
+		readConsume(s, 0, 1000, 100);
+		final char[] buffer= this.input.getBuffer();
+		
+		this.input.reset(new ImmutableDocument(s, 0));
+		this.input.init(1000, s.length());
+		
+		readConsume(s, 1000, s.length(), 100);
+		assertSame(buffer, this.input.getBuffer());
+	}
+	
 	@Test
 	public void empty() {
 		final String s= "";
@@ -146,6 +146,34 @@ public class HtmlStripParserInputTest {
 		assertEquals(TextParserInput.EOF, this.input.get(s.length()));
 	}
 	
+	@Test
+	public void decodeEntityWithDigits() {
+		final String s= COUNTER_STRING;
+		final StringBuilder sb= new StringBuilder(s);
+		final int entityIdx= replaceByEntity(sb, HtmlUtils.getNamedEntity("frac12"));
+		
+		this.input= new HtmlStripParserInput(sb.toString());
+		this.input.init();
+		
+		assertChars(s);
+		assertEquals(entityIdx, this.input.getLengthInSource(entityIdx));
+		assertEquals(entityIdx + 8, this.input.getLengthInSource(entityIdx + 1));
+		
+		assertEquals(TextParserInput.EOF, this.input.get(s.length()));
+	}
+	
+	@Test
+	public void decodeNumericEntity() {
+		final String s= "a&#65;b&#x42;c&#X1F600;d&#1114112;e&#x;f";
+		
+		this.input= new HtmlStripParserInput(s);
+		this.input.init();
+		
+		assertChars("aAbBc\uD83D\uDE00d&#1114112;e&#x;f");
+		assertEquals(6, this.input.getLengthInSource(2));
+		assertEquals(23, this.input.getLengthInSource(7));
+	}
+	
 	
 	protected void readConsume(final String expected, final int[] indexes, int begin, final int end, final int consume) {
 		while (begin < end) {
@@ -0,0 +1,171 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import static de.walware.ecommons.text.core.input.StringParserInputTest.COUNTER_STRING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.internal.ArrayComparisonFailure;
+
+
+@FixMethodOrder
+public class StreamParserInputTest {
+	
+	
+	private static final String SUPPLEMENTARY_STRING;
+	static {
+		final StringBuilder sb= new StringBuilder();
+		for (int i= 0; i < 0x1000; i++) {
+			sb.append((char) ('a' + (i % 26)));
+			sb.appendCodePoint(0x1F600 + (i % 0x50));
+		}
+		SUPPLEMENTARY_STRING= sb.toString();
+	}
+	
+	
+	private TextParserInput input;
+	
+	
+	@Test
+	public void readerInit() {
+		final String s= COUNTER_STRING.substring(0, 800);
+		this.input= new ReaderParserInput().reset(new StringReader(s));
+		this.input.init();
+		
+		assertEquals(0, this.input.getStartIndex());
+		assertChars(s);
+		assertEquals(TextParserInput.EOF, this.input.get(s.length()));
+		assertEquals(s.length(), this.input.getStopIndex());
+	}
+	
+	@Test
+	public void readerRegion() {
+		final String s= COUNTER_STRING;
+		this.input= new ReaderParserInput().reset(new StringReader(s));
+		this.input.init(5000, 9000);
+		
+		assertEquals(5000, this.input.getIndex());
+		readConsume(s, 5000, 9000, 100);
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+	}
+	
+	@Test
+	public void readerCombined() {
+		final String s= COUNTER_STRING;
+		this.input= new ReaderParserInput().reset(new StringReader(s));
+		this.input.init();
+		
+		readConsume(s, 0, s.length(), 2351);
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+		assertEquals(s.length(), this.input.getStopIndex());
+		
+		assertTrue(0x1000 >= this.input.getBuffer().length);
+	}
+	
+	@Test
+	public void readerEmpty() {
+		this.input= new ReaderParserInput().reset(new StringReader(""));
+		this.input.init();
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+		assertEquals(0, this.input.getStopIndex());
+	}
+	
+	@Test
+	public void channelCombined() {
+		final String s= COUNTER_STRING;
+		this.input= new ByteChannelParserInput(StandardCharsets.UTF_8).reset(Channels.newChannel(
+				new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)) ));
+		this.input.init();
+		
+		readConsume(s, 0, s.length(), 2351);
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+		assertEquals(s.length(), this.input.getStopIndex());
+	}
+	
+	@Test
+	public void channelSupplementary() {
+		final String s= SUPPLEMENTARY_STRING;
+		this.input= new ByteChannelParserInput(StandardCharsets.UTF_8, 0x41).reset(Channels.newChannel(
+				new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)) ));
+		this.input.init(101, Integer.MIN_VALUE);
+		
+		readConsume(s, 101, s.length(), 1);
+		
+		assertEquals(TextParserInput.EOF, this.input.get(0));
+	}
+	
+	@Test
+	public void mappedFileCombined() throws IOException {
+		final String s= SUPPLEMENTARY_STRING + COUNTER_STRING;
+		final Path file= Files.createTempFile("StreamParserInputTest", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			Files.write(file, s.getBytes(StandardCharsets.UTF_8));
+			try (final FileChannel channel= FileChannel.open(file)) {
+				this.input= new MappedFileParserInput(StandardCharsets.UTF_8).reset(channel);
+				this.input.init();
+				
+				readConsume(s, 0, s.length(), 2351);
+				
+				assertEquals(TextParserInput.EOF, this.input.get(0));
+				assertEquals(s.length(), this.input.getStopIndex());
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+	
+	
+	protected void readConsume(final String expected, int begin, final int end, final int consume) {
+		while (begin < end) {
+			final int l= Math.min(end - begin, consume);
+			assertEquals(begin, this.input.getIndex());
+			assertChars(expected, begin, begin + l);
+			this.input.consume(l);
+			begin+= l;
+		}
+	}
+	
+	protected void assertChars(final String expected) {
+		assertChars(expected, 0, expected.length());
+	}
+	
+	protected void assertChars(final String expected, final int begin, final int end) {
+		for (int n= 0, index= begin; index < end; n++, index++) {
+			final char eChar= expected.charAt(index);
+			final int actual= this.input.get(n);
+			try {
+				assertEquals(eChar, actual);
+			}
+			catch (final AssertionError e) {
+				throw new ArrayComparisonFailure("char ", e, index);
+			}
+		}
+	}
+	
+}
@@ -16,11 +16,22 @@ import static de.walware.ecommons.text.core.treepartitioner.TestPartitionNodeTyp
 import static de.walware.ecommons.text.core.treepartitioner.TestPartitionNodeType.T2;
 import static de.walware.ecommons.text.core.treepartitioner.TestPartitionNodeType.T3;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentPartitioningChangedEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentPartitioningListenerExtension2;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.TypedRegion;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -239,6 +250,129 @@ public class TreePartitionerTest {
 		assertGetPartition(this.TEST_START_TYPE.zeroLengthPartitions, true);
 	}
 	
+	
+	@Test
+	public void computePartitioning_AfterChanges() throws BadLocationException {
+		this.doc.set(this.TEST_NESTED.content + "\n" + this.TEST_1.content);
+		
+		this.doc.replace(20, 1, "{");
+		assertPartitioningOfNewPartitioner();
+		this.doc.replace(13, 1, "[");
+		assertPartitioningOfNewPartitioner();
+		this.doc.replace(this.doc.getLength() - 4, 0, "[x]");
+		assertPartitioningOfNewPartitioner();
+		this.doc.replace(0, 0, "()");
+		assertPartitioningOfNewPartitioner();
+		this.doc.replace(30, 10, "");
+		assertPartitioningOfNewPartitioner();
+	}
+	
+	@Test
+	public void computePartitioning_Long() throws BadLocationException {
+		final StringBuilder sb= new StringBuilder();
+		for (int i= 0; i < 150; i++) {
+			sb.append("ab{cdefghijklmnopqrstuvwxyz[0123456789]");
+			for (int j= 0; j < i % 7; j++) {
+				sb.append("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+			}
+			sb.append("}(x)\n");
+		}
+		this.doc.set(sb.toString());
+		assertTrue(this.doc.getLength() > 0x2000);
+		
+		// index the document in several chunks
+		assertTypedRegions(getPartitionsByPosition(0, 100),
+				this.partitioner.computePartitioning(0, 100) );
+		assertTypedRegions(getPartitionsByPosition(5000, 200),
+				this.partitioner.computePartitioning(5000, 200) );
+		assertTypedRegions(getPartitionsByPosition(0, this.doc.getLength()),
+				this.partitioner.computePartitioning(0, this.doc.getLength()) );
+		
+		this.doc.replace(4000, 0, "(y)");
+		assertTypedRegions(getPartitionsByPosition(0, 100),
+				this.partitioner.computePartitioning(0, 100) );
+		assertTypedRegions(getPartitionsByPosition(0, this.doc.getLength()),
+				this.partitioner.computePartitioning(0, this.doc.getLength()) );
+	}
+	
+	/**
+	 * Computes the partitioning by {@link TreePartitioner#getPartition(int)}, which doesn't
+	 * use the partition index.
+	 */
+	private ITypedRegion[] getPartitionsByPosition(final int offset, final int length) {
+		final List<ITypedRegion> partitions= new ArrayList<>();
+		final int endOffset= offset + length;
+		int partitionOffset= offset;
+		while (partitionOffset < endOffset) {
+			final ITypedRegion partition= this.partitioner.getPartition(partitionOffset);
+			final int partitionEndOffset= Math.min(partition.getOffset() + partition.getLength(), endOffset);
+			partitions.add(new TypedRegion(partitionOffset, partitionEndOffset - partitionOffset,
+					partition.getType() ));
+			partitionOffset= partitionEndOffset;
+		}
+		return partitions.toArray(new ITypedRegion[partitions.size()]);
+	}
+	
+	private void assertPartitioningOfNewPartitioner() {
+		final IDocument expectedDoc= new Document(this.doc.get());
+		final TreePartitioner expectedPartitioner= new TreePartitioner("default",
+				new TestPartitionNodeScanner(),
+				TestPartitionNodeType.CONTENT_TYPES_IDS );
+		expectedDoc.setDocumentPartitioner(expectedPartitioner);
+		expectedPartitioner.connect(expectedDoc);
+		
+		assertTypedRegions(expectedPartitioner.computePartitioning(0, expectedDoc.getLength(), false),
+				this.partitioner.computePartitioning(0, this.doc.getLength(), false) );
+		assertTypedRegions(expectedPartitioner.computePartitioning(5, 30, false),
+				this.partitioner.computePartitioning(5, 30, false) );
+		for (int offset= 0; offset <= expectedDoc.getLength(); offset++) {
+			assertEquals(expectedPartitioner.getContentType(offset), this.partitioner.getContentType(offset));
+		}
+	}
+	
+	@Test
+	public void updateBudget() throws BadLocationException, BadPositionCategoryException {
+		final StringBuilder sb= new StringBuilder("(");
+		for (int i= 0; i < 100; i++) {
+			sb.append("ab{c}d\n");
+		}
+		sb.append(")");
+		this.doc.set(sb.toString());
+		this.partitioner.setUpdateBudget(50, 0);
+		final List<IRegion> completedRegions= new ArrayList<>();
+		this.partitioner.addCompletedUpdateListener(new IDocumentPartitioningListenerExtension2() {
+			@Override
+			public void documentPartitioningChanged(final DocumentPartitioningChangedEvent event) {
+				completedRegions.add(event.getChangedRegion("default")); //$NON-NLS-1$
+			}
+		});
+		
+		this.doc.replace(0, 1, "[");
+		assertTrue(this.partitioner.hasPendingUpdate());
+		// the not yet updated partitions are removed
+		for (final Position position : this.doc.getPositions(this.partitioner.getManagingPositionCategories()[0])) {
+			assertTrue(position.getOffset() + position.getLength() < 200);
+		}
+		
+		final IDocument expectedDoc= new Document(this.doc.get());
+		final TreePartitioner expectedPartitioner= new TreePartitioner("default",
+				new TestPartitionNodeScanner(),
+				TestPartitionNodeType.CONTENT_TYPES_IDS );
+		expectedDoc.setDocumentPartitioner(expectedPartitioner);
+		expectedPartitioner.connect(expectedDoc);
+		
+		assertEquals(expectedPartitioner.getContentType(3), this.partitioner.getContentType(3));
+		assertTrue(this.partitioner.hasPendingUpdate());
+		
+		assertTypedRegion(expectedPartitioner.getPartition(400), this.partitioner.getPartition(400));
+		assertTypedRegions(expectedPartitioner.computePartitioning(0, expectedDoc.getLength(), false),
+				this.partitioner.computePartitioning(0, this.doc.getLength(), false) );
+		assertFalse(this.partitioner.hasPendingUpdate());
+		assertFalse(completedRegions.isEmpty());
+		assertEquals(this.doc.getLength(), completedRegions.get(completedRegions.size() - 1).getOffset()
+				+ completedRegions.get(completedRegions.size() - 1).getLength() );
+	}
+	
 	protected void assertGetPartition(final ExpectedPartition[] expected, final boolean zeroLength) {
 		for (int i= 0; i < expected.length; i++) {
 			final ExpectedPartition iPartition= expected[i];
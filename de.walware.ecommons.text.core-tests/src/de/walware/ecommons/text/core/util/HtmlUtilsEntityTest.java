@@ -30,4 +30,45 @@ public class HtmlUtilsEntityTest {
 		Assert.assertEquals("amp", HtmlUtils.getEntityReference("&amp"));
 	}
 	
+	@Test
+	public void getNamedEntity() {
+		Assert.assertEquals("\u00C1", HtmlUtils.getNamedEntity("Aacute").getString());
+		Assert.assertEquals("\u00E1", HtmlUtils.getNamedEntity("aacute").getString());
+		Assert.assertEquals("\u00BD", HtmlUtils.getNamedEntity("frac12").getString());
+		Assert.assertEquals("\u200C", HtmlUtils.getNamedEntity("zwnj").getString());
+		
+		Assert.assertNull(HtmlUtils.getNamedEntity(""));
+		Assert.assertNull(HtmlUtils.getNamedEntity("aacut"));
+		Assert.assertNull(HtmlUtils.getNamedEntity("aacutex"));
+	}
+	
+	@Test
+	public void getNamedEntity_fromChars() {
+		final char[] chars= "&amp;&frac12;".toCharArray();
+		Assert.assertEquals("&", HtmlUtils.getNamedEntity(chars, 1, 4).getString());
+		Assert.assertEquals("\u00BD", HtmlUtils.getNamedEntity(chars, 6, 12).getString());
+		
+		Assert.assertNull(HtmlUtils.getNamedEntity(chars, 1, 5));
+	}
+	
+	@Test
+	public void resolveEntity() {
+		Assert.assertEquals("&", HtmlUtils.resolveEntity("amp"));
+		Assert.assertEquals("A", HtmlUtils.resolveEntity("#65"));
+		Assert.assertEquals("A", HtmlUtils.resolveEntity("#x41"));
+		Assert.assertEquals("\uD83D\uDE00", HtmlUtils.resolveEntity("#X1F600"));
+		
+		Assert.assertNull(HtmlUtils.resolveEntity("unknown"));
+	}
+	
+	@Test (expected= IllegalArgumentException.class)
+	public void resolveEntity_illegalNumber() {
+		HtmlUtils.resolveEntity("#6x");
+	}
+	
+	@Test (expected= IllegalArgumentException.class)
+	public void resolveEntity_illegalCodePoint() {
+		HtmlUtils.resolveEntity("#x110000");
+	}
+	
 }
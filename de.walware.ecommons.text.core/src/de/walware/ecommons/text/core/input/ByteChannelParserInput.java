@@ -0,0 +1,91 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+
+/**
+ * Text parser input for source byte channel.
+ * <p>
+ * The channel must be in blocking mode. It is not closed by the input.</p>
+ * 
+ * @since de.walware.ecommons.text 1.1
+ */
+public final class ByteChannelParserInput extends ByteParserInput {
+	
+	
+	private static final int BYTE_BUFFER_SIZE= 0x2000;
+	
+	
+	private ReadableByteChannel channel;
+	
+	private ByteBuffer byteBuffer;
+	
+	
+	public ByteChannelParserInput(final Charset charset, final int defaultBufferSize) {
+		super(charset, defaultBufferSize);
+	}
+	
+	public ByteChannelParserInput(final Charset charset) {
+		this(charset, DEFAULT_BUFFER_SIZE);
+	}
+	
+	
+	public ByteChannelParserInput reset(final ReadableByteChannel channel) {
+		if (channel == null) {
+			throw new NullPointerException("channel"); //$NON-NLS-1$
+		}
+		this.channel= channel;
+		
+		super.reset();
+		
+		return this;
+	}
+	
+	@Override
+	public ByteChannelParserInput init() {
+		super.init();
+		
+		return this;
+	}
+	
+	@Override
+	public ByteChannelParserInput init(final int startIndex, final int stopIndex) {
+		super.init(startIndex, stopIndex);
+		
+		return this;
+	}
+	
+	
+	@Override
+	protected ByteBuffer readBytes(final ByteBuffer bytes) throws IOException {
+		ByteBuffer buffer= bytes;
+		if (buffer == null) {
+			if (this.byteBuffer == null) {
+				this.byteBuffer= ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+			}
+			buffer= this.byteBuffer;
+			buffer.clear();
+		}
+		else {
+			buffer.compact();
+		}
+		final int n= this.channel.read(buffer);
+		buffer.flip();
+		return (n >= 0) ? buffer : null;
+	}
+	
+}
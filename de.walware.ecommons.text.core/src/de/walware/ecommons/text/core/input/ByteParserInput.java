@@ -0,0 +1,125 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+
+/**
+ * Text parser input for sources read as bytes and decoded using a charset.
+ * <p>
+ * The bytes are decoded directly into the char buffer of the input without intermediate
+ * strings. Malformed and unmappable input is replaced by the replacement of the charset.</p>
+ * 
+ * @since de.walware.ecommons.text 1.1
+ */
+public abstract class ByteParserInput extends StreamParserInput {
+	
+	
+	private static final ByteBuffer NO_BYTES= ByteBuffer.allocate(0);
+	
+	
+	private final CharsetDecoder decoder;
+	
+	private ByteBuffer bytes;
+	private boolean isEndOfBytes;
+	private boolean isFlushed;
+	
+	
+	protected ByteParserInput(final Charset charset, final int defaultBufferSize) {
+		super(defaultBufferSize);
+		if (charset == null) {
+			throw new NullPointerException("charset"); //$NON-NLS-1$
+		}
+		
+		this.decoder= charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+	
+	
+	@Override
+	protected void reset() {
+		this.decoder.reset();
+		this.bytes= null;
+		this.isEndOfBytes= false;
+		this.isFlushed= false;
+		
+		super.reset();
+	}
+	
+	public final Charset getCharset() {
+		return this.decoder.charset();
+	}
+	
+	
+	/**
+	 * Reads the next bytes from the source.
+	 * <p>
+	 * The specified byte buffer contains the bytes not yet decoded (between its position and
+	 * limit); they must be kept at the begin of the returned buffer. If the end of the source
+	 * is reached, the method returns <code>null</code> and must not change the specified
+	 * buffer.</p>
+	 * 
+	 * @param bytes the current byte buffer or <code>null</code> at the begin
+	 * @return the byte buffer ready to decode or <code>null</code> if the end of the source is
+	 *     reached
+	 * @throws IOException
+	 */
+	protected abstract ByteBuffer readBytes(ByteBuffer bytes) throws IOException;
+	
+	@Override
+	protected final int read(final char[] buffer, final int offset, final int length)
+			throws IOException {
+		if (this.isFlushed) {
+			return -1;
+		}
+		final CharBuffer out= CharBuffer.wrap(buffer, offset, length);
+		while (out.hasRemaining()) {
+			if (this.bytes != null) {
+				final CoderResult result= this.decoder.decode(this.bytes, out, this.isEndOfBytes);
+				if (result.isOverflow()) {
+					break;
+				}
+				if (result.isError()) {
+					result.throwException();
+				}
+			}
+			if (this.isEndOfBytes) {
+				if (this.decoder.flush(out).isOverflow()) {
+					break;
+				}
+				this.isFlushed= true;
+				break;
+			}
+			final ByteBuffer bytes= readBytes(this.bytes);
+			if (bytes != null) {
+				this.bytes= bytes;
+			}
+			else {
+				this.isEndOfBytes= true;
+				if (this.bytes == null) {
+					this.bytes= NO_BYTES;
+				}
+			}
+		}
+		final int n= out.position() - offset;
+		return (n > 0 || !this.isFlushed) ? n : -1;
+	}
+	
+}
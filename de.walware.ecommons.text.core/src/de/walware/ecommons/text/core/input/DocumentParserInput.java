@@ -13,10 +13,17 @@ package de.walware.ecommons.text.core.input;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ISynchronizable;
+
+import de.walware.ecommons.text.internal.core.ITextStoreDocument;
 
 
 /**
  * Text parser input for JFace document.
+ * <p>
+ * The content of the documents of this bundle is copied directly from their text store into
+ * the buffer of the input without creating intermediate strings; other documents are read
+ * region by region. The buffer is reused if the input is {@link #reset(IDocument) reset}.</p>
  */
 public class DocumentParserInput extends TextParserInput {
 	
@@ -73,8 +80,16 @@ public class DocumentParserInput extends TextParserInput {
 			final int length= Math.min(recommendLength, getStopIndex() - index);
 			final int reused= copyBuffer0(buffer);
 			if (length > reused) {
-				final int l= length - reused;
-				this.document.get(index + reused, l).getChars(0, l, buffer, reused);
+				final Object lockObject= (this.document instanceof ISynchronizable) ?
+						((ISynchronizable) this.document).getLockObject() : null;
+				if (lockObject != null) {
+					synchronized (lockObject) {
+						copyChars(index + reused, buffer, reused, length);
+					}
+				}
+				else {
+					copyChars(index + reused, buffer, reused, length);
+				}
 			}
 			setBuffer(buffer, 0, length);
 		}
@@ -83,4 +98,14 @@ public class DocumentParserInput extends TextParserInput {
 		}
 	}
 	
+	private void copyChars(final int index, final char[] buffer, final int idx, final int endIdx)
+			throws BadLocationException {
+		if (this.document instanceof ITextStoreDocument) {
+			((ITextStoreDocument) this.document).getChars(index, endIdx - idx, buffer, idx);
+		}
+		else {
+			this.document.get(index, endIdx - idx).getChars(0, endIdx - idx, buffer, idx);
+		}
+	}
+	
 }
@@ -117,7 +117,8 @@ public abstract class FilterParserInput extends TextParserInput {
 				}
 				if (!updateBuffer(offset + 1)) {
 					checkOffset(offset);
-					int index= getStopIndex();
+					// stop index of streaming sources is set when the end is reached
+					int index= Math.min(getStopIndex(), this.source.getStopIndex());
 					if (index == Integer.MIN_VALUE) {
 						index= this.bufferBeginIndexes[getEndIdx()];
 					}
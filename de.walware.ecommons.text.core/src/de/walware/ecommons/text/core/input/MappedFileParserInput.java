@@ -0,0 +1,97 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+
+/**
+ * Text parser input for source file channel, reading the file using memory mapped windows.
+ * <p>
+ * The file is read from the position of the channel at {@link #reset(FileChannel)} to its end.
+ * The windows are mapped read-only one after the other, so even large files are read without
+ * copying the bytes into the Java heap. The channel is not closed by the input.</p>
+ * 
+ * @since de.walware.ecommons.text 1.1
+ */
+public final class MappedFileParserInput extends ByteParserInput {
+	
+	
+	/** Max size of a mapped window (64 MB) */
+	private static final long WINDOW_SIZE= 0x4000000;
+	
+	
+	private FileChannel channel;
+	
+	/** Position in the file of the current window */
+	private long windowPosition;
+	
+	
+	public MappedFileParserInput(final Charset charset, final int defaultBufferSize) {
+		super(charset, defaultBufferSize);
+	}
+	
+	public MappedFileParserInput(final Charset charset) {
+		this(charset, DEFAULT_BUFFER_SIZE);
+	}
+	
+	
+	public MappedFileParserInput reset(final FileChannel channel) throws IOException {
+		if (channel == null) {
+			throw new NullPointerException("channel"); //$NON-NLS-1$
+		}
+		this.channel= channel;
+		this.windowPosition= channel.position();
+		
+		super.reset();
+		
+		return this;
+	}
+	
+	@Override
+	public MappedFileParserInput init() {
+		super.init();
+		
+		return this;
+	}
+	
+	@Override
+	public MappedFileParserInput init(final int startIndex, final int stopIndex) {
+		super.init(startIndex, stopIndex);
+		
+		return this;
+	}
+	
+	
+	@Override
+	protected ByteBuffer readBytes(final ByteBuffer bytes) throws IOException {
+		final long size= this.channel.size();
+		long position= this.windowPosition;
+		if (bytes != null) {
+			if (position + bytes.limit() >= size) {
+				return null;
+			}
+			// continue with the bytes not yet decoded
+			position+= bytes.position();
+		}
+		if (position >= size) {
+			return null;
+		}
+		this.windowPosition= position;
+		return this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+				Math.min(WINDOW_SIZE, size - position) );
+	}
+	
+}
@@ -0,0 +1,71 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import java.io.IOException;
+import java.io.Reader;
+
+
+/**
+ * Text parser input for source reader.
+ * <p>
+ * The reader is not closed by the input.</p>
+ * 
+ * @since de.walware.ecommons.text 1.1
+ */
+public final class ReaderParserInput extends StreamParserInput {
+	
+	
+	private Reader reader;
+	
+	
+	public ReaderParserInput(final int defaultBufferSize) {
+		super(defaultBufferSize);
+	}
+	
+	public ReaderParserInput() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+	
+	
+	public ReaderParserInput reset(final Reader reader) {
+		if (reader == null) {
+			throw new NullPointerException("reader"); //$NON-NLS-1$
+		}
+		this.reader= reader;
+		
+		super.reset();
+		
+		return this;
+	}
+	
+	@Override
+	public ReaderParserInput init() {
+		super.init();
+		
+		return this;
+	}
+	
+	@Override
+	public ReaderParserInput init(final int startIndex, final int stopIndex) {
+		super.init(startIndex, stopIndex);
+		
+		return this;
+	}
+	
+	
+	@Override
+	protected int read(final char[] buffer, final int offset, final int length) throws IOException {
+		return this.reader.read(buffer, offset, length);
+	}
+	
+}
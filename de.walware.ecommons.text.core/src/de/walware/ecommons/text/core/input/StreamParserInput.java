@@ -0,0 +1,155 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.input;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+
+/**
+ * Text parser input for sources read sequentially as stream.
+ * <p>
+ * Only the current window of the source is kept in the buffer, so the memory usage doesn't
+ * depend on the length of the source. The length of the source is unknown in advance; the
+ * {@link #getStopIndex() stop index} is set when the end of the stream is reached.</p>
+ * <p>
+ * The input can be {@link #init(int, int) initialized} only at indexes in or after the current
+ * window. I/O errors are rethrown as {@link UncheckedIOException}.</p>
+ * 
+ * @since de.walware.ecommons.text 1.1
+ */
+public abstract class StreamParserInput extends TextParserInput {
+	
+	
+	/** Index of the first char in the buffer */
+	private int windowBeginIndex;
+	/** Index of the next char to read from the stream */
+	private int readIndex;
+	
+	private boolean isEndReached;
+	
+	
+	protected StreamParserInput(final int defaultBufferSize) {
+		super(defaultBufferSize);
+	}
+	
+	
+	@Override
+	protected void reset() {
+		this.windowBeginIndex= 0;
+		this.readIndex= 0;
+		this.isEndReached= false;
+		
+		super.reset();
+	}
+	
+	@Override
+	public StreamParserInput init() {
+		super.init();
+		
+		return this;
+	}
+	
+	@Override
+	public StreamParserInput init(final int startIndex, final int stopIndex) {
+		super.init(startIndex, stopIndex);
+		
+		return this;
+	}
+	
+	
+	/**
+	 * Reads the next chars from the stream.
+	 * 
+	 * @param buffer the char buffer to read into
+	 * @param offset index in the char buffer of the first char to read
+	 * @param length max number of chars to read
+	 * @return the number of chars read (<code>0</code> only if the next char doesn't fit into the
+	 *     specified length) or <code>-1</code> if the end of the stream is reached
+	 * @throws IOException
+	 */
+	protected abstract int read(char[] buffer, int offset, int length) throws IOException;
+	
+	@Override
+	protected void doUpdateBuffer(final int index, char[] buffer,
+			final int requiredLength, final int recommendLength) {
+		if (index < this.windowBeginIndex) {
+			throw new IllegalStateException("index= " + index + " (already released)"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		try {
+			int length= 0;
+			if (index < this.readIndex) {
+				length= this.readIndex - index;
+				System.arraycopy(getBuffer(), index - this.windowBeginIndex, buffer, 0, length);
+			}
+			else if (index > this.readIndex) {
+				length= skip(index, buffer);
+			}
+			
+			int maxLength= (int) Math.min(recommendLength, (long) getStopIndex() - index);
+			while (length < maxLength && !this.isEndReached) {
+				final int n= read(buffer, length, maxLength - length);
+				if (n > 0) {
+					length+= n;
+					this.readIndex+= n;
+				}
+				else if (n < 0) {
+					this.isEndReached= true;
+					setStopIndex(this.readIndex);
+				}
+				else { // no space for the next char (surrogate pair)
+					if (length >= requiredLength) {
+						break;
+					}
+					maxLength= length + 2;
+					if (buffer.length < maxLength) {
+						buffer= Arrays.copyOf(buffer, maxLength);
+					}
+				}
+			}
+			this.windowBeginIndex= index;
+			setBuffer(buffer, 0, length);
+		}
+		catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Skips the chars until the specified index.
+	 * 
+	 * @return the number of chars after the index already read into the buffer
+	 */
+	private int skip(final int index, final char[] buffer) throws IOException {
+		while (this.readIndex < index && !this.isEndReached) {
+			final int skipLength= index - this.readIndex;
+			int n= read(buffer, 0, Math.min(buffer.length, skipLength));
+			if (n == 0) {
+				// surrogate pair
+				n= read(buffer, 0, 2);
+			}
+			if (n < 0) {
+				this.isEndReached= true;
+				setStopIndex(this.readIndex);
+				break;
+			}
+			this.readIndex+= n;
+			if (n > skipLength) {
+				System.arraycopy(buffer, skipLength, buffer, 0, n - skipLength);
+				return n - skipLength;
+			}
+		}
+		return 0;
+	}
+	
+}
@@ -11,6 +11,7 @@
 
 package de.walware.ecommons.text.core.input;
 
+import de.walware.jcommons.string.AbstractStringFactory;
 import de.walware.jcommons.string.CharArrayString;
 import de.walware.jcommons.string.IStringFactory;
 
@@ -91,6 +92,10 @@ public abstract class TextParserInput {
 						"startIndex= " + startIndex + ", stopIndex= " + stopIndex); //$NON-NLS-1$
 			}
 		}
+		else if (length < 0 && stopIndex == Integer.MIN_VALUE) {
+			// unknown length, see setStopIndex
+			stopIndex= Integer.MAX_VALUE;
+		}
 		
 		this.startIndex= startIndex;
 		this.stopIndex= stopIndex;
@@ -159,6 +164,17 @@ public abstract class TextParserInput {
 		return this.stopIndex;
 	}
 	
+	/**
+	 * Sets the stop index if the end of a source of unknown length is reached.
+	 * 
+	 * @param stopIndex the index of the end of the source
+	 */
+	protected final void setStopIndex(final int stopIndex) {
+		if (stopIndex < this.stopIndex) {
+			this.stopIndex= stopIndex;
+		}
+	}
+	
 	/**
 	 * Returns the current index in the source text.
 	 * 
@@ -372,6 +388,9 @@ public abstract class TextParserInput {
 	}
 	
 	public final String getString(final int offset, final int length, final IStringFactory factory) {
+		if (factory instanceof AbstractStringFactory) {
+			return ((AbstractStringFactory) factory).get(this.buffer, this.currentIdx + offset, length);
+		}
 		this.tmpCharString.set(this.buffer, this.currentIdx + offset, length);
 		return factory.get(this.tmpCharString);
 	}
@@ -0,0 +1,193 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.treepartitioner;
+
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Flat index of the partitions (without zero-length partitions) of a {@link TreePartitioner}.
+ * <p>
+ * The partitions are contiguous, sorted by offset and stored in primitive arrays: the partition
+ * at index i begins at <code>beginOffsets[i]</code> and ends at the begin offset of the next
+ * partition or {@link #getEndOffset()} for the last one.</p>
+ * <p>
+ * The index is built lazily from the begin of the document as far as required and invalidated
+ * from the begin of each scan of the partitioner.</p>
+ */
+final class TreePartitionIndex {
+	
+	
+	/** Min number of chars to index in advance */
+	private static final int CHUNK_LENGTH= 0x1000;
+	
+	
+	private int[] beginOffsets= new int[64];
+	private NodePosition[] nodes= new NodePosition[64];
+	private int size;
+	
+	/** End offset of the last partition */
+	private int endOffset;
+	
+	
+	public TreePartitionIndex() {
+	}
+	
+	
+	public void clear() {
+		Arrays.fill(this.nodes, 0, this.size, null);
+		this.size= 0;
+		this.endOffset= 0;
+	}
+	
+	/**
+	 * Removes all partitions not ending before the specified offset.
+	 * 
+	 * @param offset the offset
+	 */
+	public void invalidate(final int offset) {
+		if (offset > this.endOffset) {
+			return;
+		}
+		int idx= Arrays.binarySearch(this.beginOffsets, 0, this.size, offset);
+		if (idx < 0) {
+			idx= -(idx + 1);
+		}
+		// idx= number of partitions beginning before offset
+		final int newSize= (idx > 0) ? idx - 1 : 0;
+		Arrays.fill(this.nodes, newSize, this.size, null);
+		this.endOffset= (newSize > 0) ? this.beginOffsets[newSize] : 0;
+		this.size= newSize;
+	}
+	
+	/**
+	 * Makes sure that the index contains the partitions until the specified offset.
+	 * 
+	 * @param root the root position of the partitioner
+	 * @param offset the end offset (exclusive)
+	 */
+	public void ensure(final NodePosition root, final int offset) {
+		if (offset <= this.endOffset) {
+			return;
+		}
+		final int documentEndOffset= root.getEndOffset();
+		if (this.endOffset >= documentEndOffset) {
+			return;
+		}
+		int endOffset= (offset < documentEndOffset - CHUNK_LENGTH) ?
+				offset + CHUNK_LENGTH : documentEndOffset;
+		endOffset= add(root, this.endOffset, endOffset);
+		if (endOffset < documentEndOffset) {
+			// end the chunk at the end of its last partition, so the next chunk doesn't split it
+			endOffset= getPartitionEndOffset(this.nodes[this.size - 1], endOffset);
+		}
+		this.endOffset= endOffset;
+	}
+	
+	/**
+	 * Returns the end offset of the partition of the given position containing the char
+	 * before the specified offset.
+	 */
+	private static int getPartitionEndOffset(final NodePosition p, final int offset) {
+		final List<NodePosition> children= p.children;
+		int childIdx= NodePosition.indexOf(children, offset);
+		if (childIdx < 0) {
+			childIdx= -(childIdx + 1);
+		}
+		return (childIdx < children.size()) ?
+				children.get(childIdx).getOffset() : p.getEndOffset();
+	}
+	
+	private void append(final int beginOffset, final NodePosition node) {
+		if (this.size == this.beginOffsets.length) {
+			final int newCapacity= this.size + (this.size >> 1);
+			this.beginOffsets= Arrays.copyOf(this.beginOffsets, newCapacity);
+			this.nodes= Arrays.copyOf(this.nodes, newCapacity);
+		}
+		this.beginOffsets[this.size]= beginOffset;
+		this.nodes[this.size]= node;
+		this.size++;
+	}
+	
+	/**
+	 * Recursively adds the partitions of the given position.
+	 * 
+	 * @return the end offset of the last added partition
+	 * @see TreePartitioner#computePartitioning(int, int)
+	 */
+	private int add(final NodePosition p, int beginOffset, int endOffset) {
+		beginOffset= (Math.max(beginOffset, p.getOffset()));
+		endOffset= (Math.min(endOffset, p.getEndOffset()));
+		final List<NodePosition> children= p.children;
+		int childIdx= 0;
+		final int childCount= children.size();
+		if (childCount > 0) {
+			if (p.getOffset() < beginOffset) {
+				childIdx= NodePosition.indexOf(children, beginOffset);
+				if (childIdx < 0) {
+					childIdx= -(childIdx + 1);
+				}
+			}
+			for (; childIdx < childCount; childIdx++) {
+				final NodePosition child= children.get(childIdx);
+				if (child.getOffset() > endOffset) {
+					break;
+				}
+				if (beginOffset < child.getOffset()) {
+					append(beginOffset, p);
+				}
+				beginOffset= add(child, beginOffset, endOffset);
+			}
+		}
+		if (beginOffset < endOffset) {
+			append(beginOffset, p);
+		}
+		return endOffset;
+	}
+	
+	
+	public int size() {
+		return this.size;
+	}
+	
+	public int getEndOffset() {
+		return this.endOffset;
+	}
+	
+	/**
+	 * Returns the index of the partition containing the specified offset.
+	 * 
+	 * @param offset the offset
+	 * @return the index of the partition or <code>-1</code> if the offset is not indexed
+	 */
+	public int indexOf(final int offset) {
+		if (offset < 0 || offset >= this.endOffset) {
+			return -1;
+		}
+		final int idx= Arrays.binarySearch(this.beginOffsets, 0, this.size, offset);
+		return (idx >= 0) ? idx : -(idx + 1) - 1;
+	}
+	
+	public int getBeginOffset(final int idx) {
+		return this.beginOffsets[idx];
+	}
+	
+	public int getEndOffset(final int idx) {
+		return (idx + 1 < this.size) ? this.beginOffsets[idx + 1] : this.endOffset;
+	}
+	
+	public NodePosition getNode(final int idx) {
+		return this.nodes[idx];
+	}
+	
+}
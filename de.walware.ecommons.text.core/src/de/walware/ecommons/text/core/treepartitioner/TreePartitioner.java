@@ -37,6 +37,7 @@ import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.Region;
 
+import de.walware.jcommons.collections.CopyOnWriteIdentityListSet;
 import de.walware.jcommons.collections.ImCollections;
 import de.walware.jcommons.collections.ImList;
 
@@ -116,6 +117,7 @@ public class TreePartitioner implements IDocumentPartitioner,
 			TreePartitioner.this.positionUpdater.update(event);
 			
 			final int eventOffset= event.getOffset();
+			TreePartitioner.this.index.invalidate(eventOffset);
 			final int eventOldEndOffset= eventOffset + event.getLength();
 			final int eventNewLength= event.getText() == null ? 0 : event.getText().length();
 			final int eventNewEndOffset= eventOffset + eventNewLength;
@@ -142,6 +144,69 @@ public class TreePartitioner implements IDocumentPartitioner,
 	}
 	
 	
+	/**
+	 * Document range tracked during document changes.
+	 */
+	private static final class TrackedRegion {
+		
+		
+		private int beginOffset= -1;
+		private int endOffset= -1;
+		
+		
+		public TrackedRegion() {
+		}
+		
+		
+		public boolean isEmpty() {
+			return (this.beginOffset < 0);
+		}
+		
+		public void clear() {
+			this.beginOffset= -1;
+			this.endOffset= -1;
+		}
+		
+		public void add(final int beginOffset, final int endOffset) {
+			if (this.beginOffset < 0) {
+				this.beginOffset= beginOffset;
+				this.endOffset= endOffset;
+			}
+			else {
+				if (this.beginOffset > beginOffset) {
+					this.beginOffset= beginOffset;
+				}
+				if (this.endOffset < endOffset) {
+					this.endOffset= endOffset;
+				}
+			}
+		}
+		
+		public void update(final int eventOffset, final int eventOldLength, final int eventNewLength) {
+			if (this.beginOffset < 0) {
+				return;
+			}
+			final int eventOldEndOffset= eventOffset + eventOldLength;
+			final int delta= eventNewLength - eventOldLength;
+			// update begin
+			if (this.beginOffset >= eventOldEndOffset) {
+				this.beginOffset+= delta;
+			}
+			else if (this.beginOffset > eventOffset) {
+				this.beginOffset= eventOffset;
+			}
+			// update end
+			if (this.endOffset >= eventOldEndOffset) {
+				this.endOffset+= delta;
+			}
+			else if (this.endOffset > eventOffset) {
+				this.endOffset= eventOffset + eventNewLength;
+			}
+		}
+		
+	}
+	
+	
 	/**
 	 * The position category this partitioner uses to store the document's partitioning information.
 	 */
@@ -183,6 +248,9 @@ public class TreePartitioner implements IDocumentPartitioner,
 	
 	private TreePartitionerScan scan;
 	
+	/** Flat index of the partitions, built lazily */
+	private final TreePartitionIndex index= new TreePartitionIndex();
+	
 	
 	/**
 	 * The active document rewrite session.
@@ -196,6 +264,19 @@ public class TreePartitioner implements IDocumentPartitioner,
 	private IDocumentPartitioningListenerExtension2 partitioningListener;
 	private IRegion partitioningChangeRegion;
 	
+	/** Max length to scan per document change, 0 if unlimited */
+	private int updateBudgetLength;
+	/** Max duration of the scan per document change in nanoseconds, 0 if unlimited */
+	private long updateBudgetNanos;
+	
+	/**
+	 * Region not yet updated because the scan was suspended; the partitioning is up-to-date
+	 * before its begin offset.
+	 */
+	private final TrackedRegion pendingRegion= new TrackedRegion();
+	
+	private final CopyOnWriteIdentityListSet<IDocumentPartitioningListenerExtension2> completedUpdateListeners= new CopyOnWriteIdentityListSet<>();
+	
 	
 	/**
 	 * Creates a new partitioner that uses the given scanner and may return
@@ -231,6 +312,79 @@ public class TreePartitioner implements IDocumentPartitioner,
 		return this.partitioningId;
 	}
 	
+	/**
+	 * Sets the budget for the update of the partitioning after a document change.
+	 * <p>
+	 * If the budget is exhausted, the scan is suspended and the partitions after the offset
+	 * the scan reached are removed. The remaining region is updated lazily if the partitioning
+	 * in the region is requested, or if {@link #completePendingUpdate()} is called. Changes of
+	 * the partitioning caused by completing a pending update are reported to the
+	 * {@link #addCompletedUpdateListener(IDocumentPartitioningListenerExtension2) listeners}
+	 * of the partitioner when the update is completed.</p>
+	 * <p>
+	 * By default, the update is unlimited.</p>
+	 * 
+	 * @param maxLength the max length of the document to scan per document change or
+	 *     <code>0</code> if unlimited
+	 * @param maxNanos the max duration of the scan per document change in nanoseconds or
+	 *     <code>0</code> if unlimited
+	 */
+	public void setUpdateBudget(final int maxLength, final long maxNanos) {
+		if (maxLength < 0) {
+			throw new IllegalArgumentException("maxLength= " + maxLength); //$NON-NLS-1$
+		}
+		if (maxNanos < 0) {
+			throw new IllegalArgumentException("maxNanos= " + maxNanos); //$NON-NLS-1$
+		}
+		this.updateBudgetLength= maxLength;
+		this.updateBudgetNanos= maxNanos;
+	}
+	
+	/**
+	 * Returns if the partitioning of a region of the document is not yet up-to-date because
+	 * the update budget was exhausted.
+	 * 
+	 * @return <code>true</code> if an update is pending, otherwise <code>false</code>
+	 */
+	public boolean hasPendingUpdate() {
+		return !this.pendingRegion.isEmpty();
+	}
+	
+	/**
+	 * Completes the pending update of the partitioning, if any.
+	 * <p>
+	 * The method must be called in the same thread as the document is modified; it can be used
+	 * to complete the update when the application is idle.</p>
+	 * 
+	 * @return the region with changes of the partitioning or <code>null</code> if the
+	 *     partitioning didn't change
+	 */
+	public IRegion completePendingUpdate() {
+		if (!this.isInitialized || this.pendingRegion.isEmpty()) {
+			return null;
+		}
+		return resumePendingUpdate(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Adds a listener notified about changes of the partitioning caused by completing a
+	 * pending update.
+	 * <p>
+	 * Changes of the partitioning caused directly by document changes are reported by the
+	 * document as usual. The listeners are notified in the thread completing the update,
+	 * which is also the thread modifying the document.</p>
+	 * 
+	 * @param listener the listener to add
+	 * @see #setUpdateBudget(int, long)
+	 */
+	public void addCompletedUpdateListener(final IDocumentPartitioningListenerExtension2 listener) {
+		this.completedUpdateListeners.add(listener);
+	}
+	
+	public void removeCompletedUpdateListener(final IDocumentPartitioningListenerExtension2 listener) {
+		this.completedUpdateListeners.remove(listener);
+	}
+	
 	@Override
 	public String[] getManagingPositionCategories() {
 		return new String[] { this.positionCategory };
@@ -286,6 +440,8 @@ public class TreePartitioner implements IDocumentPartitioner,
 		}
 		this.document.addPositionCategory(this.positionCategory);
 		
+		this.pendingRegion.clear();
+		this.index.clear();
 		this.isInitialized= false;
 	}
 	
@@ -298,6 +454,8 @@ public class TreePartitioner implements IDocumentPartitioner,
 	protected void initialize() {
 		this.isInitialized= true;
 		this.partitioningChangeRegion= null;
+		this.pendingRegion.clear();
+		this.index.clear();
 		
 		if (this.documentEnh != null) {
 			if (this.partitioningListener == null) {
@@ -359,6 +517,8 @@ public class TreePartitioner implements IDocumentPartitioner,
 			}
 			this.activeRewriteSession= null;
 		}
+		this.pendingRegion.clear();
+		this.index.clear();
 		if (this.documentEnh != null) {
 			if (this.partitioningListener != null) {
 				this.documentEnh.removePrePartitioningListener(this.partitioningListener);
@@ -408,14 +568,34 @@ public class TreePartitioner implements IDocumentPartitioner,
 		
 		this.positionUpdater.update(event);
 		
-		return updatePartitioning(event.getOffset(), event.getOffset() +
-				((event.getText() != null) ? event.getText().length() : 0) );
+		final int eventOffset= event.getOffset();
+		final int eventNewLength= (event.getText() != null) ? event.getText().length() : 0;
+		this.pendingRegion.update(eventOffset, event.getLength(), eventNewLength);
+		
+		int beginOffset= eventOffset;
+		int endOffset= eventOffset + eventNewLength;
+		if (!this.pendingRegion.isEmpty()) {
+			beginOffset= Math.min(beginOffset, this.pendingRegion.beginOffset);
+			endOffset= Math.max(endOffset, this.pendingRegion.endOffset);
+			this.pendingRegion.clear();
+		}
+		final int budgetEndOffset= (this.updateBudgetLength > 0
+						&& this.updateBudgetLength < Integer.MAX_VALUE - beginOffset ) ?
+				beginOffset + this.updateBudgetLength : Integer.MAX_VALUE;
+		
+		this.partitioningChangeRegion= null;
+		return updatePartitioning(beginOffset, endOffset, budgetEndOffset, this.updateBudgetNanos);
 	}
 	
-	protected final IRegion updatePartitioning(int beginOffset, int endOffset) {
+	protected final IRegion updatePartitioning(final int beginOffset, final int endOffset) {
+		this.partitioningChangeRegion= null;
+		
+		return updatePartitioning(beginOffset, endOffset, Integer.MAX_VALUE, 0);
+	}
+	
+	private IRegion updatePartitioning(int beginOffset, final int endOffset,
+			final int budgetEndOffset, final long budgetNanos) {
 		try {
-			this.partitioningChangeRegion= null;
-			
 			final int lineOfOffset= this.document.getLineOfOffset(beginOffset);
 			
 			// line start of previous line
@@ -439,7 +619,10 @@ public class TreePartitioner implements IDocumentPartitioner,
 				beginPosition= this.rootPosition;
 			}
 			
+			this.index.invalidate(beginOffset);
+			
 			this.scan.init(beginOffset, this.document.getLength(), beginPosition);
+			this.scan.setBudget(budgetEndOffset, budgetNanos);
 			this.scan.markDirtyBegin(beginOffset);
 			this.scan.markDirtyEnd(endOffset);
 			
@@ -451,6 +634,9 @@ public class TreePartitioner implements IDocumentPartitioner,
 				this.scanner.execute(this.scan);
 			}
 			catch (final BreakException b) {
+				if (this.scan.isSuspended()) {
+					this.scan.trimSuspended();
+				}
 			}
 			finally {
 				if (DEBUG_CHECK) {
@@ -459,6 +645,10 @@ public class TreePartitioner implements IDocumentPartitioner,
 				}
 			}
 			
+			if (this.scan.isSuspended()) {
+				this.pendingRegion.add(this.scan.getCurrentOffset(),
+						Math.min(this.scan.getDirtyEndOffset(), this.document.getLength()) );
+			}
 			return this.scan.createDirtyRegion();
 		}
 		catch (final BadLocationException e) {
@@ -469,6 +659,39 @@ public class TreePartitioner implements IDocumentPartitioner,
 	}
 	
 	
+	/**
+	 * Resumes the pending update and notifies the listeners about the changes.
+	 * 
+	 * @param budgetEndOffset the offset at which the scan is suspended again
+	 * @return the region with changes of the partitioning or <code>null</code>
+	 */
+	private IRegion resumePendingUpdate(final int budgetEndOffset) {
+		final int beginOffset= this.pendingRegion.beginOffset;
+		final int endOffset= this.pendingRegion.endOffset;
+		this.pendingRegion.clear();
+		final IRegion region= updatePartitioning(beginOffset, endOffset, budgetEndOffset, 0);
+		if (region != null && !this.completedUpdateListeners.isEmpty()) {
+			final DocumentPartitioningChangedEvent event= new DocumentPartitioningChangedEvent(this.document);
+			event.setPartitionChange(this.partitioningId, region.getOffset(), region.getLength());
+			for (final IDocumentPartitioningListenerExtension2 listener : this.completedUpdateListeners) {
+				listener.documentPartitioningChanged(event);
+			}
+		}
+		return region;
+	}
+	
+	/**
+	 * Makes sure that the partitioning is up-to-date before the specified offset.
+	 * 
+	 * @param offset the offset
+	 */
+	private void checkPendingUpdate(final int offset) {
+		if (!this.pendingRegion.isEmpty() && offset >= this.pendingRegion.beginOffset) {
+			resumePendingUpdate((offset < Integer.MAX_VALUE) ? offset + 1 : offset);
+		}
+	}
+	
+	
 	final void addPosition(final NodePosition position) throws BadLocationException, BadPositionCategoryException {
 		this.document.addPosition(this.positionCategory, position);
 	}
@@ -508,6 +731,15 @@ public class TreePartitioner implements IDocumentPartitioner,
 	@Override
 	public String getContentType(final int offset) {
 		checkInitialization();
+		checkPendingUpdate(offset);
+		
+		if (this.activeRewriteSession == null && offset < this.document.getLength()) {
+			this.index.ensure(this.rootPosition, offset + 1);
+			final int idx= this.index.indexOf(offset);
+			if (idx >= 0) {
+				return this.index.getNode(idx).type.getPartitionType();
+			}
+		}
 		
 		final NodePosition position= findPosition(offset);
 		return position.type.getPartitionType();
@@ -535,6 +767,26 @@ public class TreePartitioner implements IDocumentPartitioner,
 	public TreePartition getPartition(final int offset) {
 		checkInitialization();
 		
+		return getUpdatedPartition(offset, false);
+	}
+	
+	private TreePartition getUpdatedPartition(final int offset, final boolean preferOpenPartitions) {
+		checkPendingUpdate(offset);
+		
+		TreePartition partition= (preferOpenPartitions) ?
+				findPartitionPreferOpen(offset) :
+				findPartition(offset);
+		while (!this.pendingRegion.isEmpty()
+				&& partition.getEndOffset() >= this.pendingRegion.beginOffset) {
+			checkPendingUpdate(partition.getEndOffset());
+			partition= (preferOpenPartitions) ?
+					findPartitionPreferOpen(offset) :
+					findPartition(offset);
+		}
+		return partition;
+	}
+	
+	private TreePartition findPartition(final int offset) {
 		NodePosition p= this.rootPosition;
 		
 		while (true) {
@@ -608,6 +860,17 @@ public class TreePartitioner implements IDocumentPartitioner,
 	@Override
 	public final ITypedRegion[] computePartitioning(final int offset, final int length) {
 		checkInitialization();
+		checkPendingUpdate(offset + length);
+		
+		if (this.activeRewriteSession == null && offset >= 0 && length >= 0) {
+			try {
+				return computePartitioningIndexed(offset, offset + length);
+			}
+			catch (final RuntimeException ex) {
+				clear();
+				throw ex;
+			}
+		}
 		
 		final List<TreePartition> partitions= new ArrayList<>();
 		try {
@@ -621,6 +884,28 @@ public class TreePartitioner implements IDocumentPartitioner,
 		return partitions.toArray(new ITypedRegion[partitions.size()]);
 	}
 	
+	private ITypedRegion[] computePartitioningIndexed(final int beginOffset, int endOffset) {
+		endOffset= Math.min(endOffset, this.document.getLength());
+		if (beginOffset >= endOffset) {
+			return new ITypedRegion[0];
+		}
+		final TreePartitionIndex index= this.index;
+		index.ensure(this.rootPosition, endOffset);
+		final int beginIdx= index.indexOf(beginOffset);
+		final int endIdx= index.indexOf(endOffset - 1);
+		if (beginIdx < 0 || endIdx < 0) {
+			throw new IllegalStateException("index"); //$NON-NLS-1$
+		}
+		final ITypedRegion[] partitions= new ITypedRegion[endIdx - beginIdx + 1];
+		for (int idx= beginIdx, i= 0; idx <= endIdx; idx++, i++) {
+			partitions[i]= new TreePartition(
+					Math.max(index.getBeginOffset(idx), beginOffset),
+					Math.min(index.getEndOffset(idx), endOffset),
+					index.getNode(idx) );
+		}
+		return partitions;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -678,9 +963,7 @@ public class TreePartitioner implements IDocumentPartitioner,
 		}
 	}
 	
-	private TreePartition getPartitionPreferOpen(final int offset) {
-		checkInitialization();
-		
+	private TreePartition findPartitionPreferOpen(final int offset) {
 		NodePosition p= this.rootPosition;
 		
 		while (true) {
@@ -717,6 +1000,7 @@ public class TreePartitioner implements IDocumentPartitioner,
 	@Override
 	public String getContentType(final int offset, final boolean preferOpenPartitions) {
 		checkInitialization();
+		checkPendingUpdate(offset);
 		
 		final NodePosition position= (preferOpenPartitions) ?
 				findPositionPreferOpen(offset) :
@@ -726,6 +1010,7 @@ public class TreePartitioner implements IDocumentPartitioner,
 	
 	public ITreePartitionNodeType getTreeNode(final int offset, final boolean preferOpenPartitions) {
 		checkInitialization();
+		checkPendingUpdate(offset);
 		
 		final NodePosition position= (preferOpenPartitions) ?
 				findPositionPreferOpen(offset) :
@@ -735,9 +1020,12 @@ public class TreePartitioner implements IDocumentPartitioner,
 	
 	@Override
 	public TreePartition getPartition(final int offset, final boolean preferOpenPartitions) {
-		return (preferOpenPartitions) ?
-				getPartitionPreferOpen(offset) :
-				getPartition(offset);
+		if (preferOpenPartitions) {
+			checkInitialization();
+			
+			return getUpdatedPartition(offset, true);
+		}
+		return getPartition(offset);
 	}
 	
 	/**
@@ -783,6 +1071,7 @@ public class TreePartitioner implements IDocumentPartitioner,
 	
 	private ITypedRegion[] computePartitioningIncludeZeroLength(final int offset, final int length) {
 		checkInitialization();
+		checkPendingUpdate(offset + length);
 		
 		final List<TreePartition> partitions= new ArrayList<>();
 		try {
@@ -816,6 +1105,12 @@ public class TreePartitioner implements IDocumentPartitioner,
 		if (this.isInitialized
 				&& this.activeRewriteSession.getSessionType() == DocumentRewriteSessionType.UNRESTRICTED_SMALL) {
 			this.activeRewriteUpdater= new RewriteSessionUpdater();
+			// the offsets of the pending region are tracked by the updater
+			if (!this.pendingRegion.isEmpty()) {
+				this.activeRewriteUpdater.beginOffset= this.pendingRegion.beginOffset;
+				this.activeRewriteUpdater.endOffset= this.pendingRegion.endOffset;
+				this.pendingRegion.clear();
+			}
 			this.document.addPositionUpdater(this.activeRewriteUpdater);
 		}
 	}
@@ -47,6 +47,13 @@ final class TreePartitionerScan implements ITreePartitionNodeScan {
 	
 	private boolean autoBreakEnabled;
 	
+	/** Scan offset at which the scan is suspended */
+	private int budgetEndOffset;
+	/** Max duration of the scan in nanoseconds or 0 */
+	private long budgetNanos;
+	private long budgetBeginNanos;
+	private boolean isSuspended;
+	
 	
 	public TreePartitionerScan(final TreePartitioner partitioner) {
 		this.partitioner= partitioner;
@@ -74,6 +81,78 @@ final class TreePartitionerScan implements ITreePartitionNodeScan {
 		this.equalTypeEndOffset= Integer.MIN_VALUE;
 		
 		this.autoBreakEnabled= true;
+		
+		this.budgetEndOffset= Integer.MAX_VALUE;
+		this.budgetNanos= 0;
+		this.isSuspended= false;
+	}
+	
+	/**
+	 * Limits the scan; if the budget is exhausted, the scan is suspended at the next break check.
+	 * 
+	 * @param endOffset the scan offset at which the scan is suspended
+	 * @param nanos the max duration of the scan in nanoseconds or <code>0</code>
+	 */
+	void setBudget(final int endOffset, final long nanos) {
+		this.budgetEndOffset= endOffset;
+		this.budgetNanos= nanos;
+		if (nanos > 0) {
+			this.budgetBeginNanos= System.nanoTime();
+		}
+	}
+	
+	/**
+	 * Returns if the last scan was suspended because of its budget.
+	 * 
+	 * @return <code>true</code> if suspended, otherwise <code>false</code>
+	 */
+	boolean isSuspended() {
+		return this.isSuspended;
+	}
+	
+	/**
+	 * Returns the current offset of the scan. If the scan is suspended, the partitioning is
+	 * up-to-date before this offset.
+	 * 
+	 * @return the offset
+	 */
+	int getCurrentOffset() {
+		return this.currentOffset;
+	}
+	
+	int getDirtyEndOffset() {
+		return this.dirtyEndOffset;
+	}
+	
+	/**
+	 * Trims the tree after the scan was suspended: removes the nodes (not yet updated) beginning
+	 * at or after the current offset and cuts the nodes containing the offset at the offset.
+	 * The removed region is marked as dirty.
+	 */
+	void trimSuspended() {
+		final int offset= this.currentOffset;
+		NodePosition p= this.lastParentPosition;
+		while (p.parent != null) {
+			p= p.parent;
+		}
+		while (true) {
+			final List<NodePosition> children= p.children;
+			int childIdx= children.size();
+			while (childIdx > 0 && children.get(childIdx - 1).getOffset() >= offset) {
+				childIdx--;
+			}
+			doDeleteChildren(p, childIdx, Integer.MAX_VALUE, null);
+			if (childIdx == 0) {
+				return;
+			}
+			p= children.get(childIdx - 1);
+			if (p.getEndOffset() <= offset) {
+				return;
+			}
+			markDirtyEnd(p.getEndOffset());
+			p.setLength(offset - p.getOffset());
+			p.stamp= this.stamp;
+		}
 	}
 	
 	void addBeginPosition(final ITreePartitionNodeType type) {
@@ -431,11 +510,20 @@ final class TreePartitionerScan implements ITreePartitionNodeScan {
 		return (this.equalTypeEndOffset >= this.dirtyEndOffset);
 	}
 	
+	private boolean isBudgetExhausted() {
+		return (this.currentOffset >= this.budgetEndOffset
+				|| (this.budgetNanos > 0 && System.nanoTime() - this.budgetBeginNanos >= this.budgetNanos) );
+	}
+	
 	@Override
 	public void checkBreak() {
 		if (canBreak()) {
 			throw new BreakException();
 		}
+		if (isBudgetExhausted()) {
+			this.isSuspended= true;
+			throw new BreakException();
+		}
 	}
 	
 }
@@ -8,15 +8,18 @@ import org.eclipse.jface.text.DocumentRewriteSession;
 import org.eclipse.jface.text.DocumentRewriteSessionType;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ISynchronizable;
+import org.eclipse.jface.text.ITextStore;
 import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.Position;
 
+import de.walware.ecommons.text.internal.core.ITextStoreDocument;
+
 
 /**
  * @since de.walware.ecommons.text 1.1
  */
 public abstract class AbstractSynchronizableDocument extends AbstractDocument
-		implements ISynchronizable {
+		implements ISynchronizable, ITextStoreDocument {
 	
 	
 	private final Object lockObject;
@@ -60,6 +63,22 @@ public abstract class AbstractSynchronizableDocument extends AbstractDocument
 	}
 	
 	
+	@Override
+	public void getChars(int offset, final int length, final char[] dest, int destIdx)
+			throws BadLocationException {
+		synchronized (getLockObject()) {
+			final ITextStore store= getStore();
+			if (offset < 0 || length < 0 || offset + length > store.getLength()) {
+				throw new BadLocationException();
+			}
+			final int destEndIdx= destIdx + length;
+			while (destIdx < destEndIdx) {
+				dest[destIdx++]= store.get(offset++);
+			}
+		}
+	}
+	
+	
 	@Override
 	public String get() {
 		synchronized (getLockObject()) {
@@ -0,0 +1,156 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.walware.ecommons.text.core.input.TextParserInput;
+import de.walware.ecommons.text.core.util.HtmlUtils.Entity;
+
+
+/**
+ * Immutable trie of HTML entity names.
+ * <p>
+ * The nodes are stored in primitive arrays in breadth-first order: the edges of node i are
+ * <code>[nodeEdges[i], nodeEdges[i + 1])</code>, sorted by their char. Lookups walk the trie
+ * char by char without allocating strings.</p>
+ */
+final class HtmlEntityTrie {
+	
+	
+	private static final class TmpNode {
+		
+		private final Map<Character, TmpNode> children= new TreeMap<>();
+		
+		private Entity entity;
+		
+	}
+	
+	
+	private final int[] nodeEdges;
+	private final Entity[] nodeEntities;
+	
+	private final char[] edgeChars;
+	private final int[] edgeTargets;
+	
+	
+	public HtmlEntityTrie(final Collection<Entity> entities) {
+		final TmpNode root= new TmpNode();
+		int edgeCount= 0;
+		for (final Entity entity : entities) {
+			final String name= entity.getName();
+			TmpNode node= root;
+			for (int i= 0; i < name.length(); i++) {
+				final Character c= Character.valueOf(name.charAt(i));
+				TmpNode child= node.children.get(c);
+				if (child == null) {
+					child= new TmpNode();
+					node.children.put(c, child);
+					edgeCount++;
+				}
+				node= child;
+			}
+			node.entity= entity;
+		}
+		
+		final int nodeCount= edgeCount + 1;
+		this.nodeEdges= new int[nodeCount + 1];
+		this.nodeEntities= new Entity[nodeCount];
+		this.edgeChars= new char[edgeCount];
+		this.edgeTargets= new int[edgeCount];
+		
+		final List<TmpNode> nodes= new ArrayList<>(nodeCount);
+		nodes.add(root);
+		int edge= 0;
+		for (int i= 0; i < nodeCount; i++) {
+			final TmpNode node= nodes.get(i);
+			this.nodeEdges[i]= edge;
+			this.nodeEntities[i]= node.entity;
+			for (final Map.Entry<Character, TmpNode> child : node.children.entrySet()) {
+				this.edgeChars[edge]= child.getKey().charValue();
+				this.edgeTargets[edge]= nodes.size();
+				nodes.add(child.getValue());
+				edge++;
+			}
+		}
+		this.nodeEdges[nodeCount]= edge;
+	}
+	
+	
+	private int getChild(final int node, final int c) {
+		int low= this.nodeEdges[node];
+		int high= this.nodeEdges[node + 1] - 1;
+		while (low <= high) {
+			final int mid= (low + high) >>> 1;
+			final char midChar= this.edgeChars[mid];
+			if (midChar < c) {
+				low= mid + 1;
+			}
+			else if (midChar > c) {
+				high= mid - 1;
+			}
+			else {
+				return this.edgeTargets[mid];
+			}
+		}
+		return -1;
+	}
+	
+	public Entity get(final CharSequence s, int begin, final int end) {
+		int node= 0;
+		while (begin < end) {
+			node= getChild(node, s.charAt(begin++));
+			if (node < 0) {
+				return null;
+			}
+		}
+		return this.nodeEntities[node];
+	}
+	
+	public Entity get(final char[] chars, int begin, final int end) {
+		int node= 0;
+		while (begin < end) {
+			node= getChild(node, chars[begin++]);
+			if (node < 0) {
+				return null;
+			}
+		}
+		return this.nodeEntities[node];
+	}
+	
+	/**
+	 * Returns the entity whose name begins at the specified offset in the input, followed by
+	 * a semicolon.
+	 * 
+	 * @param in the input
+	 * @param offset the offset of the first char of the name
+	 * @return the entity or <code>null</code>
+	 */
+	public Entity match(final TextParserInput in, int offset) {
+		int node= 0;
+		while (true) {
+			final int c= in.get(offset++);
+			if (c == ';') {
+				return this.nodeEntities[node];
+			}
+			node= getChild(node, c);
+			if (node < 0) {
+				return null;
+			}
+		}
+	}
+	
+}
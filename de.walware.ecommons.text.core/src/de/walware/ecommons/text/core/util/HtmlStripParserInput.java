@@ -22,19 +22,36 @@ import de.walware.ecommons.text.core.util.HtmlUtils.Entity;
  */
 public class HtmlStripParserInput extends FilterParserInput {
 	
-	private static class Match {
+	private static final class Match {
 		
-		private final char[] chars;
-		private final int n;
+		private char[] chars;
+		private int length;
+		private int n;
 		
-		public Match(final char[] chars, final int n) {
+		private final char[] codePointChars= new char[2];
+		
+		
+		public Match() {
+		}
+		
+		
+		public void set(final char[] chars, final int length, final int n) {
 			this.chars= chars;
+			this.length= length;
 			this.n= n;
 		}
 		
+		public void setCodePoint(final int codePoint, final int n) {
+			set(this.codePointChars, Character.toChars(codePoint, this.codePointChars, 0), n);
+		}
+		
 	}
 	
 	
+	/** Reused result of {@link #readEntity(TextParserInput)} */
+	private final Match match= new Match();
+	
+	
 	public HtmlStripParserInput(final TextParserInput source, final int defaultBufferSize) {
 		super(source, defaultBufferSize);
 	}
@@ -67,10 +84,10 @@ public class HtmlStripParserInput extends FilterParserInput {
 			case '&':
 			{	final Match match= readEntity(in);
 				if (match != null) {
-					if (idx + match.chars.length <= buffer.length) {
+					if (idx + match.length <= buffer.length) {
 						final int beginIndex= in.getIndex();
 						final int endIndex= beginIndex + in.getLengthInSource(match.n);
-						for (int i= 0; i < match.chars.length; i++, idx++) {
+						for (int i= 0; i < match.length; i++, idx++) {
 							buffer[idx]= match.chars[i];
 							beginIndexes[idx]= beginIndex;
 							endIndexes[idx]= endIndex;
@@ -280,6 +297,7 @@ public class HtmlStripParserInput extends FilterParserInput {
 	private Match readEntity(final TextParserInput in) {
 		// after: &
 		int n;
+		int codePoint;
 		switch (in.get(1)) {
 //		case EOF:
 //			return null; -> default
@@ -298,9 +316,11 @@ public class HtmlStripParserInput extends FilterParserInput {
 			case '7':
 			case '8':
 			case '9':
-				n= 3;
+				n= 2;
+				codePoint= 0;
 				ITER_CN: while (n < 10) {
-					switch (in.get(n++)) {
+					final int c= in.get(n++);
+					switch (c) {
 //					case EOF:
 //						break; -> default
 					case '0':
@@ -313,9 +333,10 @@ public class HtmlStripParserInput extends FilterParserInput {
 					case '7':
 					case '8':
 					case '9':
+						codePoint= codePoint * 10 + (c - '0');
 						continue ITER_CN;
 					case ';':
-						return resolveEntity(in, Integer.parseInt(in.getString(2, n - 3), 10), n);
+						return resolveEntity(codePoint, n);
 					default:
 						break ITER_CN;
 					}
@@ -324,8 +345,10 @@ public class HtmlStripParserInput extends FilterParserInput {
 			case 'x':
 			case 'X':
 				n= 3;
+				codePoint= 0;
 				ITER_CN: while (n < 10) {
-					switch (in.get(n++)) {
+					final int c= in.get(n++);
+					switch (c) {
 //					case EOF:
 //						break; // -> default
 					case '0':
@@ -338,22 +361,27 @@ public class HtmlStripParserInput extends FilterParserInput {
 					case '7':
 					case '8':
 					case '9':
+						codePoint= (codePoint << 4) + (c - '0');
+						continue ITER_CN;
 					case 'A':
 					case 'B':
 					case 'C':
 					case 'D':
 					case 'E':
 					case 'F':
+						codePoint= (codePoint << 4) + (c - ('A' - 10));
+						continue ITER_CN;
 					case 'a':
 					case 'b':
 					case 'c':
 					case 'd':
 					case 'e':
 					case 'f':
+						codePoint= (codePoint << 4) + (c - ('a' - 10));
 						continue ITER_CN;
 					case ';':
 						if (n > 4) {
-							return resolveEntity(in, Integer.parseInt(in.getString(3, n - 4), 16), n);
+							return resolveEntity(codePoint, n);
 						}
 						break ITER_CN;
 					default:
@@ -365,142 +393,24 @@ public class HtmlStripParserInput extends FilterParserInput {
 				return null;
 			}
 		
-		case 'A':
-		case 'B':
-		case 'C':
-		case 'D':
-		case 'E':
-		case 'F':
-		case 'G':
-		case 'H':
-		case 'I':
-		case 'J':
-		case 'K':
-		case 'L':
-		case 'M':
-		case 'N':
-		case 'O':
-		case 'P':
-		case 'Q':
-		case 'R':
-		case 'S':
-		case 'T':
-		case 'U':
-		case 'V':
-		case 'W':
-		case 'X':
-		case 'Y':
-		case 'Z':
-		case 'a':
-		case 'b':
-		case 'c':
-		case 'd':
-		case 'e':
-		case 'f':
-		case 'g':
-		case 'h':
-		case 'i':
-		case 'j':
-		case 'k':
-		case 'l':
-		case 'm':
-		case 'n':
-		case 'o':
-		case 'p':
-		case 'q':
-		case 'r':
-		case 's':
-		case 't':
-		case 'u':
-		case 'v':
-		case 'w':
-		case 'x':
-		case 'y':
-		case 'z':
-			n= 2;
-			ITER_CN: while (n < 40) {
-				switch (in.get(n++)) {
-//				case EOF:
-//					break; -> default
-				case 'A':
-				case 'B':
-				case 'C':
-				case 'D':
-				case 'E':
-				case 'F':
-				case 'G':
-				case 'H':
-				case 'I':
-				case 'J':
-				case 'K':
-				case 'L':
-				case 'M':
-				case 'N':
-				case 'O':
-				case 'P':
-				case 'Q':
-				case 'R':
-				case 'S':
-				case 'T':
-				case 'U':
-				case 'V':
-				case 'W':
-				case 'X':
-				case 'Y':
-				case 'Z':
-				case 'a':
-				case 'b':
-				case 'c':
-				case 'd':
-				case 'e':
-				case 'f':
-				case 'g':
-				case 'h':
-				case 'i':
-				case 'j':
-				case 'k':
-				case 'l':
-				case 'm':
-				case 'n':
-				case 'o':
-				case 'p':
-				case 'q':
-				case 'r':
-				case 's':
-				case 't':
-				case 'u':
-				case 'v':
-				case 'w':
-				case 'x':
-				case 'y':
-				case 'z':
-					continue ITER_CN;
-				case ';':
-					return resolveEntity(in, in.getString(1, n - 2), n);
-				default:
-					break ITER_CN;
-				}
-			}
-			return null;
-		
 		default:
-			return null;
+			return resolveEntity(HtmlUtils.matchNamedEntity(in, 1));
 		}
 	}
 	
-	private static Match resolveEntity(final TextParserInput in, final int codePoint, final int n) {
-		try {
-			return new Match(Character.toChars(codePoint), n);
-		}
-		catch (final IllegalArgumentException e) {
+	private Match resolveEntity(final int codePoint, final int n) {
+		if (Character.isValidCodePoint(codePoint)) {
+			this.match.setCodePoint(codePoint, n);
+			return this.match;
 		}
 		return null;
 	}
 	
-	private static Match resolveEntity(final TextParserInput in, final String name, final int n) {
-		final Entity entity= HtmlUtils.getNamedEntity(name);
+	private Match resolveEntity(final Entity entity) {
 		if (entity != null) {
-			return new Match(entity.getChars(), n);
+			final char[] chars= entity.getChars();
+			this.match.set(chars, chars.length, entity.getName().length() + 2);
+			return this.match;
 		}
 		return null;
 	}
@@ -14,6 +14,8 @@ package de.walware.ecommons.text.core.util;
 import java.util.HashMap;
 import java.util.Map;
 
+import de.walware.ecommons.text.core.input.TextParserInput;
+
 
 public class HtmlUtils {
 	
@@ -64,9 +66,19 @@ public class HtmlUtils {
 	}
 	
 	
-	private static final Map<String, Entity> NAMED_ENTITIES;
-	static {
-		final Map<String, Entity> entities= new HashMap<>();
+	/** Lazily initialized index of the named entities */
+	private static final class NamedEntities {
+		
+		private static final HtmlEntityTrie TRIE;
+		static {
+			final Map<String, Entity> entities= new HashMap<>();
+			addNamedEntities(entities);
+			TRIE= new HtmlEntityTrie(entities.values());
+		}
+		
+	}
+	
+	private static void addNamedEntities(final Map<String, Entity> entities) {
 		add(entities, "Aacute", "\u00C1");
 		add(entities, "aacute", "\u00E1");
 		add(entities, "Abreve", "\u0102");
@@ -2208,8 +2220,6 @@ public class HtmlUtils {
 		add(entities, "zscr", "\uD835\uDCCF");
 		add(entities, "zwj", "\u200D");
 		add(entities, "zwnj", "\u200C");
-		
-		NAMED_ENTITIES= entities;
 	}
 	
 	private static void add(final Map<String, Entity> entities, final String name, final String string) {
@@ -2226,7 +2236,37 @@ public class HtmlUtils {
 	}
 	
 	public static Entity getNamedEntity(final String name) {
-		return NAMED_ENTITIES.get(name);
+		return NamedEntities.TRIE.get(name, 0, name.length());
+	}
+	
+	/**
+	 * Returns the named entity for the name in the specified char range.
+	 * 
+	 * @param chars the char array
+	 * @param begin the begin index of the name
+	 * @param end the end index (exclusive) of the name
+	 * @return the entity or <code>null</code> if no entity with the name exists
+	 * 
+	 * @since de.walware.ecommons.text 1.1
+	 */
+	public static Entity getNamedEntity(final char[] chars, final int begin, final int end) {
+		return NamedEntities.TRIE.get(chars, begin, end);
+	}
+	
+	/**
+	 * Returns the named entity whose name begins at the specified offset in the input and is
+	 * terminated by a semicolon.
+	 * <p>
+	 * The length of the reference in the input is the length of the entity name plus one.</p>
+	 * 
+	 * @param in the input
+	 * @param offset the offset in the input of the first char of the name (after '&amp;')
+	 * @return the entity or <code>null</code> if no entity matches
+	 * 
+	 * @since de.walware.ecommons.text 1.1
+	 */
+	public static Entity matchNamedEntity(final TextParserInput in, final int offset) {
+		return NamedEntities.TRIE.match(in, offset);
 	}
 	
 	public static String resolveEntity(final String reference) throws IllegalArgumentException {
@@ -2236,14 +2276,14 @@ public class HtmlUtils {
 				final int codePoint;
 				if (length > 1
 						&& (reference.charAt(1) == 'x' || reference.charAt(1) == 'X') ) {
-					codePoint= Integer.parseInt(reference.substring(2), 16);
+					codePoint= parseCodePoint(reference, 2, length, 16);
 				}
 				else {
-					codePoint= Integer.parseInt(reference.substring(1), 10);
+					codePoint= parseCodePoint(reference, 1, length, 10);
 				}
 				return new String(Character.toChars(codePoint));
 			}
-			{	final Entity entity= NAMED_ENTITIES.get(reference);
+			{	final Entity entity= getNamedEntity(reference);
 				if (entity != null) {
 					return entity.getString();
 				}
@@ -2252,4 +2292,23 @@ public class HtmlUtils {
 		return null;
 	}
 	
+	private static int parseCodePoint(final String s, int begin, final int end, final int radix)
+			throws NumberFormatException {
+		if (begin >= end) {
+			throw new NumberFormatException("reference= " + s); //$NON-NLS-1$
+		}
+		int codePoint= 0;
+		while (begin < end) {
+			final int digit= Character.digit(s.charAt(begin++), radix);
+			if (digit < 0) {
+				throw new NumberFormatException("reference= " + s); //$NON-NLS-1$
+			}
+			codePoint= codePoint * radix + digit;
+			if (codePoint > Character.MAX_CODE_POINT) {
+				throw new IllegalArgumentException("reference= " + s); //$NON-NLS-1$
+			}
+		}
+		return codePoint;
+	}
+	
 }
@@ -18,13 +18,15 @@ import org.eclipse.jface.text.ITextStore;
 
 import de.walware.jcommons.lang.Immutable;
 
+import de.walware.ecommons.text.internal.core.ITextStoreDocument;
+
 
 /**
  * Immutable document.
  * 
  * @since de.walware.ecommons.text 1.1
  */
-public class ImmutableDocument extends AbstractDocument implements Immutable {
+public class ImmutableDocument extends AbstractDocument implements Immutable, ITextStoreDocument {
 	
 	
 	private static class StringTextStore implements ITextStore {
@@ -58,6 +60,10 @@ public class ImmutableDocument extends AbstractDocument implements Immutable {
 			return this.content.length();
 		}
 		
+		public void getChars(final int offset, final int length, final char[] dest, final int destIdx) {
+			this.content.getChars(offset, offset + length, dest, destIdx);
+		}
+		
 		@Override
 		public void replace(final int offset, final int length, final String text) {
 		}
@@ -84,6 +90,17 @@ public class ImmutableDocument extends AbstractDocument implements Immutable {
 	}
 	
 	
+	@Override
+	public void getChars(final int offset, final int length, final char[] dest, final int destIdx)
+			throws BadLocationException {
+		final StringTextStore store= (StringTextStore) getStore();
+		if (offset < 0 || length < 0 || offset + length > store.getLength()) {
+			throw new BadLocationException();
+		}
+		store.getChars(offset, length, dest, destIdx);
+	}
+	
+	
 	@Override
 	public void set(final String text, final long modificationStamp) {
 		throw new UnsupportedOperationException();
@@ -0,0 +1,39 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.ecommons.text.internal.core;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+
+/**
+ * Document providing bulk read access to the chars of its text store.
+ * <p>
+ * It allows to read the content without creating intermediate strings and without the checks
+ * of {@link IDocument#getChar(int)} for each char. The text store itself is not exposed.</p>
+ */
+public interface ITextStoreDocument extends IDocument {
+	
+	
+	/**
+	 * Copies the chars of the specified region into the array.
+	 * 
+	 * @param offset the offset of the region in the document
+	 * @param length the length of the region
+	 * @param dest the destination array
+	 * @param destIdx the index in the destination array
+	 * @throws BadLocationException if the region is invalid
+	 */
+	void getChars(int offset, int length, char[] dest, int destIdx)
+			throws BadLocationException;
+	
+}
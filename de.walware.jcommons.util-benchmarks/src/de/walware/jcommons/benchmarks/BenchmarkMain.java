@@ -0,0 +1,80 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks.
+ * 
+ * <p>Accepts the JMH command line options (see <code>-h</code>). In addition:</p><ul>
+ *   <li><code>-Dbenchmark.threads=1,2,4,8</code> runs the benchmarks once for each thread
+ *     count (JMH option <code>-t</code>).</li>
+ * </ul>
+ * <p>If no result options are specified, the results are written in JSON format to
+ * <code>jmh-result.json</code> (<code>jmh-result-t&lt;threads&gt;.json</code>), so the results
+ * of different commits can be compared, for example by JMH Visualizer.</p>
+ */
+public class BenchmarkMain {
+	
+	
+	private static final String THREADS_KEY= "benchmark.threads"; //$NON-NLS-1$
+	
+	private static final List<String> JMH_INFO_OPTIONS= Arrays.asList(
+			"-h", "-l", "-lrf", "-lprof" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	
+	
+	public static void main(final String[] args) throws Exception {
+		for (final String arg : args) {
+			if (JMH_INFO_OPTIONS.contains(arg)) {
+				org.openjdk.jmh.Main.main(args);
+				return;
+			}
+		}
+		
+		final CommandLineOptions cmdOptions= new CommandLineOptions(args);
+		final String threads= System.getProperty(THREADS_KEY);
+		if (threads == null || threads.isEmpty()) {
+			run(cmdOptions, -1);
+		}
+		else {
+			for (final String s : threads.split(",")) { //$NON-NLS-1$
+				run(cmdOptions, Integer.parseInt(s.trim()));
+			}
+		}
+	}
+	
+	private static void run(final CommandLineOptions cmdOptions, final int threads) throws Exception {
+		final ChainedOptionsBuilder builder= new OptionsBuilder().parent(cmdOptions);
+		if (threads > 0) {
+			builder.threads(threads);
+		}
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			builder.result((threads > 0) ?
+					"jmh-result-t" + threads + ".json" : //$NON-NLS-1$ //$NON-NLS-2$
+					"jmh-result.json" ); //$NON-NLS-1$
+		}
+		new Runner(builder.build()).run();
+	}
+	
+}
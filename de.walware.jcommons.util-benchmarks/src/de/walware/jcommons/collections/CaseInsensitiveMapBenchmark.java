@@ -0,0 +1,124 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.collections;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+
+/**
+ * Benchmarks {@link CaseInsensitiveMap} (with a {@link HashMap} as reference), for example
+ * used for environment variables.
+ * 
+ * <p>The maps are shared by all threads; since the maps are not thread-safe, {@link #put}
+ * can be run with a single thread only.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class CaseInsensitiveMapBenchmark {
+	
+	
+	@State(Scope.Thread)
+	public static class Cursor {
+		
+		int next;
+		
+	}
+	
+	
+	private static final int LOOKUPS= 0x400;
+	
+	
+	@Param({ "10", "100", "1000" })
+	public int size;
+	
+	private String[] keys;
+	
+	private String[] lookups;
+	
+	private Map<String, String> map;
+	
+	private Map<String, String> hashMap;
+	
+	
+	@Setup
+	public void setup(final BenchmarkParams params) {
+		if (params.getThreads() > 1 && params.getBenchmark().endsWith(".put")) { //$NON-NLS-1$
+			throw new IllegalStateException("put modifies the map, which is not thread-safe"); //$NON-NLS-1$
+		}
+		
+		this.keys= new String[this.size];
+		this.map= new CaseInsensitiveMap<>();
+		this.hashMap= new HashMap<>();
+		for (int i= 0; i < this.size; i++) {
+			this.keys[i]= "Variable_" + i; //$NON-NLS-1$
+			this.map.put(this.keys[i], this.keys[i]);
+			this.hashMap.put(this.keys[i], this.keys[i]);
+		}
+		this.lookups= new String[LOOKUPS];
+		for (int i= 0; i < LOOKUPS; i++) {
+			final String key= this.keys[i % this.size];
+			this.lookups[i]= ((i & 1) == 0) ? key : key.toUpperCase(Locale.ENGLISH);
+		}
+	}
+	
+	
+	@Benchmark
+	public String get(final Cursor cursor) {
+		return this.map.get(this.lookups[(cursor.next++) & (LOOKUPS - 1)]);
+	}
+	
+	@Benchmark
+	public boolean containsKey(final Cursor cursor) {
+		return this.map.containsKey(this.lookups[(cursor.next++) & (LOOKUPS - 1)]);
+	}
+	
+	@Benchmark
+	public String put(final Cursor cursor) {
+		final String key= this.lookups[(cursor.next++) & (LOOKUPS - 1)];
+		return this.map.put(key, key);
+	}
+	
+	@Benchmark
+	public Map<String, String> create() {
+		final Map<String, String> map= new CaseInsensitiveMap<>();
+		for (final String key : this.keys) {
+			map.put(key, key);
+		}
+		return map;
+	}
+	
+	@Benchmark
+	public String getHashMap(final Cursor cursor) {
+		return this.hashMap.get(this.lookups[(cursor.next++) & (LOOKUPS - 1)]);
+	}
+	
+}
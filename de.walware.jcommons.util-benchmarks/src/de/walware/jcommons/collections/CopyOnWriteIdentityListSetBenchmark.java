@@ -0,0 +1,108 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+
+package de.walware.jcommons.collections;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks {@link CopyOnWriteIdentityListSet} as used for listener sets.
+ * 
+ * <p>The benchmarks without group are intended to be run with different thread counts.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class CopyOnWriteIdentityListSetBenchmark {
+	
+	
+	@State(Scope.Thread)
+	public static class Element {
+		
+		final Object value= new Object();
+		
+	}
+	
+	
+	@Param({ "10", "100", "1000" })
+	public int size;
+	
+	private CopyOnWriteIdentityListSet<Object> set;
+	
+	private Object contained;
+	
+	
+	@Setup
+	public void setup() {
+		this.set= new CopyOnWriteIdentityListSet<>();
+		for (int i= 0; i < this.size; i++) {
+			this.contained= new Object();
+			this.set.add(this.contained);
+		}
+	}
+	
+	
+	@Benchmark
+	public boolean addRemove(final Element element) {
+		this.set.add(element.value);
+		return this.set.remove(element.value);
+	}
+	
+	@Benchmark
+	public boolean contains() {
+		return this.set.contains(this.contained);
+	}
+	
+	@Benchmark
+	public void iterate(final Blackhole blackhole) {
+		for (final Object e : this.set.toList()) {
+			blackhole.consume(e);
+		}
+	}
+	
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public void readWriteRead(final Blackhole blackhole) {
+		for (final Object e : this.set.toList()) {
+			blackhole.consume(e);
+		}
+	}
+	
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public boolean readWriteWrite(final Element element) {
+		this.set.add(element.value);
+		return this.set.remove(element.value);
+	}
+	
+}
@@ -0,0 +1,136 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+
+package de.walware.jcommons.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class ImCollectionsBenchmark {
+	
+	
+	@Param({ "1", "10", "100", "1000", "10000" })
+	public int size;
+	
+	/** array= list created by toList, tree= list created by ImTreeListBuilder */
+	@Param({ "array", "tree" })
+	public String type;
+	
+	private List<String> source;
+	
+	private ImList<String> list;
+	
+	private ImSet<String> set;
+	
+	private String element;
+	private int index;
+	
+	
+	@Setup
+	public void setup() {
+		final String[] elements= new String[this.size];
+		for (int i= 0; i < elements.length; i++) {
+			elements[i]= "e" + i; //$NON-NLS-1$
+		}
+		this.source= new ArrayList<>(Arrays.asList(elements));
+		this.list= (this.type.equals("tree")) ? //$NON-NLS-1$
+				new ImTreeListBuilder<>(this.source).build() :
+				ImCollections.toList(this.source);
+		this.set= ImCollections.toSet(this.source);
+		this.index= this.size / 2;
+		this.element= elements[this.index];
+	}
+	
+	
+	@Benchmark
+	public ImList<String> newList() {
+		return ImCollections.toList(this.source);
+	}
+	
+	@Benchmark
+	public ImList<String> concatList() {
+		return ImCollections.concatList(this.list, this.list);
+	}
+	
+	@Benchmark
+	public ImList<String> addElement() {
+		return ImCollections.addElement(this.list, "x"); //$NON-NLS-1$
+	}
+	
+	@Benchmark
+	public ImList<String> addElementAtIndex() {
+		return ImCollections.addElement(this.list, this.index, "x"); //$NON-NLS-1$
+	}
+	
+	@Benchmark
+	public ImList<String> setElement() {
+		return ImCollections.setElement(this.list, this.index, "x"); //$NON-NLS-1$
+	}
+	
+	@Benchmark
+	public ImList<String> removeElement() {
+		return ImCollections.removeElement(this.list, this.element);
+	}
+	
+	@Benchmark
+	public ImList<String> removeElementAtIndex() {
+		return ImCollections.removeElement(this.list, this.index);
+	}
+	
+	@Benchmark
+	public ImSet<String> newSet() {
+		return ImCollections.toSet(this.source);
+	}
+	
+	@Benchmark
+	public boolean setContains() {
+		return this.set.contains(this.element);
+	}
+	
+	@Benchmark
+	public void iterate(final Blackhole blackhole) {
+		for (final String e : this.list) {
+			blackhole.consume(e);
+		}
+	}
+	
+	@Benchmark
+	public void get(final Blackhole blackhole) {
+		final ImList<String> list= this.list;
+		for (int i= 0; i < list.size(); i++) {
+			blackhole.consume(list.get(i));
+		}
+	}
+	
+}
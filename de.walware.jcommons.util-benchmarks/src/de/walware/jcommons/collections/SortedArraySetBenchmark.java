@@ -0,0 +1,121 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+
+package de.walware.jcommons.collections;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class SortedArraySetBenchmark {
+	
+	
+	@State(Scope.Thread)
+	public static class Cursor {
+		
+		int next;
+		
+	}
+	
+	
+	private static final int LOOKUPS= 0x400;
+	
+	
+	@Param({ "10", "100", "1000", "10000" })
+	public int size;
+	
+	private List<Integer> shuffled;
+	
+	private SortedArraySet<Integer> set;
+	
+	private Integer[] lookups;
+	
+	
+	@Setup
+	public void setup() {
+		final Random random= new Random(this.size);
+		final Integer[] elements= new Integer[this.size];
+		for (int i= 0; i < elements.length; i++) {
+			elements[i]= Integer.valueOf(i * 2);
+		}
+		this.set= new SortedArraySet<>(elements.clone(), null);
+		
+		this.shuffled= Arrays.asList(elements.clone());
+		Collections.shuffle(this.shuffled, random);
+		
+		this.lookups= new Integer[LOOKUPS];
+		for (int i= 0; i < LOOKUPS; i++) {
+			this.lookups[i]= Integer.valueOf(random.nextInt(this.size * 2));
+		}
+	}
+	
+	
+	@Benchmark
+	public SortedArraySet<Integer> addE() {
+		final SortedArraySet<Integer> set= new SortedArraySet<>(new Integer[16], 0, null);
+		for (final Integer e : this.shuffled) {
+			set.addE(e);
+		}
+		return set;
+	}
+	
+	@Benchmark
+	public SortedArraySet<Integer> addAll() {
+		final SortedArraySet<Integer> set= new SortedArraySet<>(new Integer[16], 0, null);
+		set.addAll(this.shuffled);
+		return set;
+	}
+	
+	@Benchmark
+	public SortedArraySet<Integer> builder() {
+		final SortedListSetBuilder<Integer> builder= new SortedListSetBuilder<>(Integer.class, null);
+		for (final Integer e : this.shuffled) {
+			builder.add(e);
+		}
+		return builder.build();
+	}
+	
+	@Benchmark
+	public SortedArraySet<Integer> removeAll() {
+		final SortedArraySet<Integer> set= new SortedArraySet<>(
+				this.set.toArray(new Integer[this.size]), null );
+		set.removeAll(this.shuffled.subList(0, this.size / 2));
+		return set;
+	}
+	
+	@Benchmark
+	public int indexOfE(final Cursor cursor) {
+		return this.set.indexOfE(this.lookups[(cursor.next++) & (LOOKUPS - 1)]);
+	}
+	
+}
@@ -0,0 +1,180 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.string;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+
+/**
+ * Benchmarks the {@link IStringFactory} implementations with identifiers like a tokenizer.
+ * 
+ * <p>The factory instance is shared by all threads; since {@link InternStringCache} is not
+ * thread-safe, its variants can be run with a single thread only.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class StringFactoryBenchmark {
+	
+	
+	@State(Scope.Thread)
+	public static class Cursor {
+		
+		final CharArrayString tmp= new CharArrayString();
+		
+		int next;
+		
+	}
+	
+	
+	private static final int LOOKUPS= 0x1000;
+	
+	private static final int MAX_CACHED_LENGTH= 64;
+	
+	
+	@Param({ "InternStringCache", "InternStringCache-grow", "ConcurrentInternStringCache",
+			"ConcurrentInternStringCache-private", "InternStringFactory", "StringFactory" })
+	public String factoryType;
+	
+	/** Number of distinct identifiers */
+	@Param({ "100", "1000", "10000" })
+	public int distinct;
+	
+	/** Print statistics of the factory after each trial */
+	@Param({ "false" })
+	public boolean statistics;
+	
+	private AbstractStringFactory factory;
+	
+	private char[] chars;
+	private byte[] utf8;
+	private int[] offsets;
+	private int[] lengths;
+	private int[] utf8Offsets;
+	private int[] utf8Lengths;
+	
+	
+	@Setup
+	public void setup(final BenchmarkParams params) {
+		switch (this.factoryType) {
+		case "InternStringCache": //$NON-NLS-1$
+			checkSingleThread(params);
+			this.factory= new InternStringCache(MAX_CACHED_LENGTH, this.statistics);
+			break;
+		case "InternStringCache-grow": //$NON-NLS-1$
+			checkSingleThread(params);
+			this.factory= new InternStringCache(0x400, 0x10000, MAX_CACHED_LENGTH, this.statistics);
+			break;
+		case "ConcurrentInternStringCache": //$NON-NLS-1$
+			this.factory= new ConcurrentInternStringCache(0x4000, MAX_CACHED_LENGTH, true, this.statistics);
+			break;
+		case "ConcurrentInternStringCache-private": //$NON-NLS-1$
+			this.factory= new ConcurrentInternStringCache(0x4000, MAX_CACHED_LENGTH, false, this.statistics);
+			break;
+		case "InternStringFactory": //$NON-NLS-1$
+			this.factory= new InternStringFactory();
+			break;
+		case "StringFactory": //$NON-NLS-1$
+			this.factory= new StringFactory();
+			break;
+		default:
+			throw new IllegalArgumentException(this.factoryType);
+		}
+		
+		final Random random= new Random(this.distinct);
+		final String[] identifiers= new String[this.distinct];
+		for (int i= 0; i < this.distinct; i++) {
+			final StringBuilder sb= new StringBuilder();
+			sb.append((char) ('a' + random.nextInt(26)));
+			final int length= 1 + random.nextInt(12);
+			for (int j= 0; j < length; j++) {
+				sb.append((char) ('a' + random.nextInt(26)));
+			}
+			sb.append(i);
+			identifiers[i]= sb.toString();
+		}
+		
+		final StringBuilder text= new StringBuilder();
+		this.offsets= new int[LOOKUPS];
+		this.lengths= new int[LOOKUPS];
+		this.utf8Offsets= new int[LOOKUPS];
+		this.utf8Lengths= new int[LOOKUPS];
+		int utf8Offset= 0;
+		for (int i= 0; i < LOOKUPS; i++) {
+			final String s= identifiers[random.nextInt(this.distinct)];
+			this.offsets[i]= text.length();
+			this.lengths[i]= s.length();
+			this.utf8Offsets[i]= utf8Offset;
+			this.utf8Lengths[i]= s.getBytes(StandardCharsets.UTF_8).length;
+			utf8Offset+= this.utf8Lengths[i] + 1;
+			text.append(s);
+			text.append(' ');
+		}
+		this.chars= text.toString().toCharArray();
+		this.utf8= text.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private void checkSingleThread(final BenchmarkParams params) {
+		if (params.getThreads() > 1) {
+			throw new IllegalStateException(this.factoryType + " is not thread-safe"); //$NON-NLS-1$
+		}
+	}
+	
+	@TearDown
+	public void printStatistics() {
+		final StringFactoryStatistics stats= this.factory.getStatistics();
+		if (stats != null) {
+			System.out.println();
+			System.out.println(stats.getSnapshotAndReset());
+		}
+	}
+	
+	
+	@Benchmark
+	public String getCharArray(final Cursor cursor) {
+		final int i= (cursor.next++) & (LOOKUPS - 1);
+		return this.factory.get(this.chars, this.offsets[i], this.lengths[i]);
+	}
+	
+	@Benchmark
+	public String getCharArrayString(final Cursor cursor) {
+		final int i= (cursor.next++) & (LOOKUPS - 1);
+		cursor.tmp.set(this.chars, this.offsets[i], this.lengths[i]);
+		return this.factory.get(cursor.tmp);
+	}
+	
+	@Benchmark
+	public String getUtf8(final Cursor cursor) {
+		final int i= (cursor.next++) & (LOOKUPS - 1);
+		return this.factory.getUtf8(this.utf8, this.utf8Offsets[i], this.utf8Lengths[i]);
+	}
+	
+}
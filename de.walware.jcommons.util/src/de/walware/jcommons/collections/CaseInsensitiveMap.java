@@ -11,6 +11,8 @@
 
 package de.walware.jcommons.collections;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,27 +20,147 @@ import java.util.Map;
 /**
  * Map with String keys using case insensitive comparison.
  * <p>
- * For example for environment variables on windows.
+ * For example for environment variables on windows.</p>
+ * <p>
+ * The map keeps the spelling of the key specified in the last {@link #put(String, Object)}
+ * for the key. Keys are compared like {@link String#equalsIgnoreCase(String)}.</p>
+ * <p>
+ * The entries are stored in the hash map with the keys in original spelling; the keys are
+ * indexed additionally in an open addressing hash table computing the hash code and comparing
+ * the keys case insensitive in place, so lookups doesn't create any objects.
+ * The key <code>null</code> is not supported, <code>null</code> values are allowed.</p>
+ * <p>
+ * The views and the methods not overridden by this class compare the keys case sensitive.</p>
  */
 public class CaseInsensitiveMap<V> extends HashMap<String, V> {
 	
 	
 	private static final long serialVersionUID= 1L;
 	
+	/** Marker for removed keys */
+	private static final String REMOVED= new String();
+	
+	private static final int MIN_CAPACITY= 8;
+	private static final int MAX_CAPACITY= 1 << 30;
+	
+	
+	private static char fold(final char c) {
+		if (c < 0x80) {
+			return (c >= 'a' && c <= 'z') ? (char) (c - ('a' - 'A')) : c;
+		}
+		final char folded= Character.toLowerCase(Character.toUpperCase(c));
+		return (folded >= 'a' && folded <= 'z') ? (char) (folded - ('a' - 'A')) : folded;
+	}
+	
+	private static int hash(final String key) {
+		int hash= 0;
+		for (int i= 0, n= key.length(); i < n; i++) {
+			hash= 31 * hash + fold(key.charAt(i));
+		}
+		return hash ^ (hash >>> 16);
+	}
+	
+	private static int capacityFor(final int size) {
+		if (size >= MAX_CAPACITY >>> 1) {
+			return MAX_CAPACITY;
+		}
+		final int capacity= Integer.highestOneBit((size << 1) - 1) << 1;
+		return Math.max(capacity, MIN_CAPACITY);
+	}
+	
+	
+	// The index can contain keys removed by the views of the hash map; therefore
+	// the methods look up the found key in the hash map (null if removed).
 	
-	// id = upper case key
-	// name = case sensitive key
+	/** The keys in original spelling, <code>null</code> for empty slots */
+	private transient String[] keys;
+	/** The case insensitive hash codes of the keys */
+	private transient int[] hashes;
 	
-	private final Map<String, String> idNameMap;
+	/** Number of slots in use, including removed keys */
+	private transient int used;
 	
 	
 	public CaseInsensitiveMap() {
-		this.idNameMap= new HashMap<>();
+		this(16);
 	}
 	
 	public CaseInsensitiveMap(final int initialCapacity) {
 		super(initialCapacity);
-		this.idNameMap= new HashMap<>(initialCapacity);
+		init(capacityFor(initialCapacity));
+	}
+	
+	
+	private void init(final int capacity) {
+		this.keys= new String[capacity];
+		this.hashes= new int[capacity];
+		this.used= 0;
+	}
+	
+	private int indexOf(final Object key) {
+		if (!(key instanceof String)) {
+			return -1;
+		}
+		final String s= (String) key;
+		final int hash= hash(s);
+		final String[] keys= this.keys;
+		final int mask= keys.length - 1;
+		int index= hash & mask;
+		String k;
+		while ((k= keys[index]) != null) {
+			if (k != REMOVED && this.hashes[index] == hash
+					&& (k == s || k.equalsIgnoreCase(s)) ) {
+				return index;
+			}
+			index= (index + 1) & mask;
+		}
+		return -1;
+	}
+	
+	private void rehash(final int capacity) {
+		final String[] oldKeys= this.keys;
+		final int[] oldHashes= this.hashes;
+		init(capacity);
+		final int mask= capacity - 1;
+		for (int oldIndex= 0; oldIndex < oldKeys.length; oldIndex++) {
+			final String k= oldKeys[oldIndex];
+			if (k != null && k != REMOVED && super.containsKey(k)) {
+				int index= oldHashes[oldIndex] & mask;
+				while (this.keys[index] != null) {
+					index= (index + 1) & mask;
+				}
+				this.keys[index]= k;
+				this.hashes[index]= oldHashes[oldIndex];
+				this.used++;
+			}
+		}
+	}
+	
+	private void addKey(final String name) {
+		final int hash= hash(name);
+		final int mask= this.keys.length - 1;
+		int index= hash & mask;
+		int free= -1;
+		String k;
+		while ((k= this.keys[index]) != null) {
+			if (k == REMOVED) {
+				if (free < 0) {
+					free= index;
+				}
+			}
+			index= (index + 1) & mask;
+		}
+		if (free >= 0) {
+			index= free;
+		}
+		else {
+			this.used++;
+		}
+		this.keys[index]= name;
+		this.hashes[index]= hash;
+		if (this.used > (this.keys.length >>> 1) + (this.keys.length >>> 2)) {
+			rehash(capacityFor(size()));
+		}
 	}
 	
 	
@@ -47,21 +169,27 @@ public class CaseInsensitiveMap<V> extends HashMap<String, V> {
 		if (name == null) {
 			throw new NullPointerException();
 		}
-		final String id= name.toUpperCase();
-		final String oldName= this.idNameMap.put(id, name);
-		V prevValue;
-		if (!name.equals(oldName)) {
-			prevValue= super.remove(oldName);
-			super.put(name, value);
-		}
-		else {
-			prevValue= super.put(name, value);
+		final int index= indexOf(name);
+		if (index >= 0) {
+			final String oldName= this.keys[index];
+			if (oldName != name && !oldName.equals(name)) {
+				this.keys[index]= name;
+				final V prevValue= super.remove(oldName);
+				super.put(name, value);
+				return prevValue;
+			}
+			return super.put(name, value);
 		}
-		return prevValue;
+		super.put(name, value);
+		addKey(name);
+		return null;
 	}
 	
 	@Override
 	public void putAll(final Map<? extends String, ? extends V> t) {
+		if (this.used + t.size() > this.keys.length >>> 1) {
+			rehash(capacityFor(size() + t.size()));
+		}
 		for (final Map.Entry<? extends String, ? extends V> entry : t.entrySet()) {
 			put(entry.getKey(), entry.getValue());
 		}
@@ -69,72 +197,55 @@ public class CaseInsensitiveMap<V> extends HashMap<String, V> {
 	
 	@Override
 	public V remove(final Object key) {
-		if (!(key instanceof String)) {
+		final int index= indexOf(key);
+		if (index < 0) {
 			return null;
 		}
-		final String id= ((String) key).toUpperCase();
-		final String realName= this.idNameMap.remove(id);
-		if (realName == null) {
-			return null;
-		}
-		return super.remove(realName);
+		final String name= this.keys[index];
+		this.keys[index]= REMOVED;
+		return super.remove(name);
 	}
 	
 	@Override
 	public void clear() {
-		this.idNameMap.clear();
+		if (this.used > 0) {
+			for (int index= 0; index < this.keys.length; index++) {
+				this.keys[index]= null;
+			}
+			this.used= 0;
+		}
 		super.clear();
 	}
 	
 	
 	@Override
-	public boolean isEmpty() {
-		return this.idNameMap.isEmpty();
+	public boolean containsKey(final Object key) {
+		final int index= indexOf(key);
+		return (index >= 0 && super.containsKey(this.keys[index]));
 	}
 	
 	@Override
-	public int size() {
-		return this.idNameMap.size();
+	public V get(final Object key) {
+		final int index= indexOf(key);
+		return (index >= 0) ? super.get(this.keys[index]) : null;
 	}
 	
+	
 	@Override
-	public boolean containsKey(final Object key) {
-		if (!(key instanceof String)) {
-			return false;
-		}
-		final String id= ((String) key).toUpperCase();
-		return this.idNameMap.containsKey(id);
+	@SuppressWarnings("unchecked")
+	public CaseInsensitiveMap<V> clone() {
+		final CaseInsensitiveMap<V> map= (CaseInsensitiveMap<V>) super.clone();
+		map.keys= this.keys.clone();
+		map.hashes= this.hashes.clone();
+		return map;
 	}
 	
-//	@Override
-//	public boolean containsValue(final Object value) {
-//		return super.containsValue(value);
-//	}
-	
-	@Override
-	public V get(final Object key) {
-		if (!(key instanceof String)) {
-			return null;
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		init(capacityFor(size()));
+		for (final String name : keySet()) {
+			addKey(name);
 		}
-		final String id= ((String) key).toUpperCase();
-		final String name= this.idNameMap.get(id);
-		return (name != null) ? super.get(name) : null;
 	}
 	
-	
-//	@Override
-//	public Set<Entry<String, String>> entrySet() {
-//		return super.entrySet();
-//	}
-	
-//	@Override
-//	public Set<String> keySet() {
-//		return super.keySet();
-//	}
-	
-//	@Override
-//	public Collection<String> values() {
-//		return super.values();
-//	}
-	
 }
@@ -16,6 +16,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.RandomAccess;
 
+import de.walware.jcommons.lang.Predicate;
+
 
 public class CollectionUtils {
 	
@@ -92,4 +94,23 @@ public class CollectionUtils {
 		return ImCollections.newIdentitySet(array, 0, count);
 	}
 	
+	
+	/**
+	 * Moves the elements not matching the filter to the begin of the array, keeping their order.
+	 * 
+	 * @param array the elements, modified in place
+	 * @param filter the filter returning <code>true</code> for elements to remove
+	 * @return the number of remaining elements
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> int removeMatching(final Object[] array, final Predicate<? super E> filter) {
+		int end= 0;
+		for (int i= 0; i < array.length; i++) {
+			if (!filter.test((E) array[i])) {
+				array[end++]= array[i];
+			}
+		}
+		return end;
+	}
+	
 }
@@ -16,19 +16,31 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import de.walware.jcommons.lang.Predicate;
 
 
 /**
  * Thread safe list based on immutable lists.
+ * <p>
+ * Read operations and iterators use a snapshot of the list and don't block. Modifications
+ * create a new immutable list and publish it by compare-and-set, so concurrent writers don't
+ * block each other too; if the list was changed meanwhile, the modification is repeated.</p>
  * 
  * @param <E>
  */
 public final class CopyOnWriteList<E> extends AbstractList<E> implements List<E> {
 	
 	
-	private static int indexOf(final Object[] array, final Object e) {
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<CopyOnWriteList, ImList> LIST_UPDATER=
+			AtomicReferenceFieldUpdater.newUpdater(CopyOnWriteList.class, ImList.class, "list"); //$NON-NLS-1$
+	
+	
+	private static int indexOf(final Object[] array, final int length, final Object e) {
 		if (e == null) {
-			for (int i= 0; i < array.length; i++) {
+			for (int i= 0; i < length; i++) {
 				if (null == array[i]) {
 					return i;
 				}
@@ -36,7 +48,7 @@ public final class CopyOnWriteList<E> extends AbstractList<E> implements List<E>
 			return -1;
 		}
 		else {
-			for (int i= 0; i < array.length; i++) {
+			for (int i= 0; i < length; i++) {
 				if (e.equals(array[i])) {
 					return i;
 				}
@@ -58,104 +70,201 @@ public final class CopyOnWriteList<E> extends AbstractList<E> implements List<E>
 	}
 	
 	
+	private boolean compareAndSetList(final ImList<E> expected, final ImList<E> list) {
+		return LIST_UPDATER.compareAndSet(this, expected, list);
+	}
+	
 	@Override
-	public synchronized boolean add(final E element) {
-		this.list= ImCollections.addElement(this.list, element);
+	public boolean add(final E element) {
+		ImList<E> l;
+		do {
+			l= this.list;
+		}
+		while (!compareAndSetList(l, ImCollections.addElement(l, element)));
 		return true;
 	}
 	
 	@Override
-	public synchronized void add(final int index, final E element) {
-		this.list= ImCollections.addElement(this.list, index, element);
+	public void add(final int index, final E element) {
+		ImList<E> l;
+		do {
+			l= this.list;
+		}
+		while (!compareAndSetList(l, ImCollections.addElement(l, index, element)));
+	}
+	
+	/**
+	 * Appends the element to the end of the list, if it is not already contained in the list.
+	 * 
+	 * @param element the element to add
+	 * @return <code>true</code> if the element was added, otherwise <code>false</code>
+	 */
+	public boolean addIfAbsent(final E element) {
+		ImList<E> l;
+		do {
+			l= this.list;
+			if (l.contains(element)) {
+				return false;
+			}
+		}
+		while (!compareAndSetList(l, ImCollections.addElement(l, element)));
+		return true;
 	}
 	
 	@Override
-	public synchronized E set(final int index, final E element) {
-		final ImList<E> l= this.list;
-		this.list= ImCollections.setElement(l, index, element);
+	public E set(final int index, final E element) {
+		ImList<E> l;
+		do {
+			l= this.list;
+		}
+		while (!compareAndSetList(l, ImCollections.setElement(l, index, element)));
 		return l.get(index);
 	}
 	
 	@Override
-	public synchronized boolean remove(final Object element) {
-		final ImList<E> l= ImCollections.removeElement(this.list, element);
-		if (l != this.list) {
-			this.list= l;
-			return true;
+	public boolean remove(final Object element) {
+		while (true) {
+			final ImList<E> l= this.list;
+			final int index= l.indexOf(element);
+			if (index < 0) {
+				return false;
+			}
+			if (compareAndSetList(l, ImCollections.<E>removeElement(l, index))) {
+				return true;
+			}
 		}
-		return false;
 	}
 	
 	@Override
-	public synchronized E remove(final int index) {
-		final ImList<E> l= this.list;
-		this.list= ImCollections.removeElement(l, index);
+	public E remove(final int index) {
+		ImList<E> l;
+		do {
+			l= this.list;
+		}
+		while (!compareAndSetList(l, ImCollections.<E>removeElement(l, index)));
 		return l.get(index);
 	}
 	
 	@Override
-	public synchronized boolean addAll(final Collection<? extends E> c) {
-		if (!c.isEmpty()) {
-			this.list= ImCollections.concatList(this.list, c);
-			return true;
+	public boolean addAll(final Collection<? extends E> c) {
+		if (c.isEmpty()) {
+			return false;
+		}
+		final ImList<? extends E> toAdd= ImCollections.toList(c);
+		ImList<E> l;
+		do {
+			l= this.list;
 		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.concatList(l, toAdd)));
+		return true;
 	}
 	
 	@Override
-	public synchronized boolean addAll(final int index, final Collection<? extends E> c) {
-		if (!c.isEmpty()) {
-			final ImList<E> l= this.list;
-			this.list= ImCollections.concatList(l.subList(0, index), c, l.subList(index, l.size()));
-			return true;
+	public boolean addAll(final int index, final Collection<? extends E> c) {
+		if (c.isEmpty()) {
+			return false;
+		}
+		final ImList<? extends E> toAdd= ImCollections.toList(c);
+		ImList<E> l;
+		do {
+			l= this.list;
 		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.concatList(l.subList(0, index), toAdd,
+				l.subList(index, l.size()) )));
+		return true;
 	}
 	
-	@Override
-	public synchronized boolean retainAll(final Collection<?> c) {
-		final Object[] array= this.list.toArray();
-		final Object[] toRetain= c.toArray();
-		int end= array.length;
-		for (int i= 0; i < end; ) {
-			if (indexOf(toRetain, array[i]) >= 0) {
-				i++;
+	/**
+	 * Appends all elements of the collection, which are not already contained in the list,
+	 * to the end of the list.
+	 * 
+	 * @param c the collection with the elements to add
+	 * @return the number of added elements
+	 */
+	public int addAllIfAbsent(final Collection<? extends E> c) {
+		final Object[] toAdd= c.toArray();
+		if (toAdd.length == 0) {
+			return 0;
+		}
+		final Object[] array= new Object[toAdd.length];
+		ImList<E> l;
+		int n;
+		do {
+			l= this.list;
+			n= 0;
+			for (int i= 0; i < toAdd.length; i++) {
+				final Object e= toAdd[i];
+				if (!l.contains(e) && indexOf(array, n, e) < 0) {
+					array[n++]= e;
+				}
 			}
-			else {
-				System.arraycopy(array, i + 1, array, i, end - i - 1);
-				end--;
+			if (n == 0) {
+				return 0;
 			}
 		}
-		if (end < array.length) {
-			this.list= ImCollections.<E>newList((E[]) array, 0, end);
-			return true;
-		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.concatList(l,
+				ImCollections.<E>newList((E[]) array, 0, n) )));
+		return n;
 	}
 	
-	@Override
-	public synchronized boolean removeAll(final Collection<?> c) {
-		final Object[] array= this.list.toArray();
-		final Object[] toRemove= c.toArray();
-		int end= array.length;
-		for (int i= 0; i < end; ) {
-			if (indexOf(toRemove, array[i]) >= 0) {
-				i++;
+	private boolean removeElements(final Object[] elements, final boolean contained) {
+		ImList<E> l;
+		Object[] array;
+		int end;
+		do {
+			l= this.list;
+			array= l.toArray();
+			end= 0;
+			for (int i= 0; i < array.length; i++) {
+				if ((indexOf(elements, elements.length, array[i]) >= 0) != contained) {
+					array[end++]= array[i];
+				}
 			}
-			else {
-				System.arraycopy(array, i + 1, array, i, end - i - 1);
-				end--;
+			if (end == array.length) {
+				return false;
 			}
 		}
-		if (end < array.length) {
-			this.list= ImCollections.<E>newList((E[]) array, 0, end);
-			return true;
+		while (!compareAndSetList(l, ImCollections.<E>newList((E[]) array, 0, end)));
+		return true;
+	}
+	
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		return removeElements(c.toArray(), false);
+	}
+	
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		return removeElements(c.toArray(), true);
+	}
+	
+	/**
+	 * Removes all elements of the list matching the specified filter.
+	 * <p>
+	 * The filter is applied to a snapshot of the list; if the list is changed concurrently,
+	 * the filter is applied again to the new list.</p>
+	 * 
+	 * @param filter the filter returning <code>true</code> for elements to remove
+	 * @return <code>true</code> if the list changed, otherwise <code>false</code>
+	 */
+	public boolean removeMatching(final Predicate<? super E> filter) {
+		ImList<E> l;
+		Object[] array;
+		int end;
+		do {
+			l= this.list;
+			array= l.toArray();
+			end= CollectionUtils.removeMatching(array, filter);
+			if (end == array.length) {
+				return false;
+			}
 		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.<E>newList((E[]) array, 0, end)));
+		return true;
 	}
 	
 	@Override
-	public synchronized void clear() {
+	public void clear() {
 		if (!this.list.isEmpty()) {
 			this.list= ImCollections.newList();
 		}
@@ -238,12 +347,12 @@ public final class CopyOnWriteList<E> extends AbstractList<E> implements List<E>
 	 * 
 	 * @return
 	 */
-	public synchronized ImList<E> clearToList() {
+	public ImList<E> clearToList() {
 		final ImList<E> list= this.list;
-		if (!list.isEmpty()) {
-			this.list= ImCollections.newList();
+		if (list.isEmpty()) {
+			return list;
 		}
-		return list;
+		return LIST_UPDATER.getAndSet(this, ImCollections.newList());
 	}
 	
 	
@@ -15,19 +15,31 @@ import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import de.walware.jcommons.lang.Predicate;
 
 
 /**
  * Thread safe set based on immutable lists.
+ * <p>
+ * Read operations and iterators use a snapshot of the set and don't block. Modifications
+ * create a new immutable list and publish it by compare-and-set, so concurrent writers don't
+ * block each other too; if the set was changed meanwhile, the modification is repeated.</p>
  * 
  * @param <E>
  */
 public final class CopyOnWriteListSet<E> extends AbstractSet<E> implements Set<E> {
 	
 	
-	private static int indexOf(final Object[] array, final Object e) {
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<CopyOnWriteListSet, ImList> LIST_UPDATER=
+			AtomicReferenceFieldUpdater.newUpdater(CopyOnWriteListSet.class, ImList.class, "list"); //$NON-NLS-1$
+	
+	
+	private static int indexOf(final Object[] array, final int length, final Object e) {
 		if (e == null) {
-			for (int i= 0; i < array.length; i++) {
+			for (int i= 0; i < length; i++) {
 				if (null == array[i]) {
 					return i;
 				}
@@ -35,7 +47,7 @@ public final class CopyOnWriteListSet<E> extends AbstractSet<E> implements Set<E
 			return -1;
 		}
 		else {
-			for (int i= 0; i < array.length; i++) {
+			for (int i= 0; i < length; i++) {
 				if (e.equals(array[i])) {
 					return i;
 				}
@@ -57,91 +69,121 @@ public final class CopyOnWriteListSet<E> extends AbstractSet<E> implements Set<E
 	}
 	
 	
+	private boolean compareAndSetList(final ImList<E> expected, final ImList<E> list) {
+		return LIST_UPDATER.compareAndSet(this, expected, list);
+	}
+	
 	@Override
-	public synchronized boolean add(final E element) {
-		if (!this.list.contains(element)) {
-			this.list= ImCollections.addElement(this.list, element);
-			return true;
+	public boolean add(final E element) {
+		ImList<E> l;
+		do {
+			l= this.list;
+			if (l.contains(element)) {
+				return false;
+			}
 		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.addElement(l, element)));
+		return true;
 	}
 	
 	@Override
-	public synchronized boolean remove(final Object element) {
-		final ImList<E> l= ImCollections.removeElement(this.list, element);
-		if (l != this.list) {
-			this.list= l;
-			return true;
+	public boolean remove(final Object element) {
+		ImList<E> l;
+		ImList<E> newList;
+		do {
+			l= this.list;
+			newList= ImCollections.removeElement(l, element);
+			if (newList == l) {
+				return false;
+			}
 		}
-		return false;
+		while (!compareAndSetList(l, newList));
+		return true;
 	}
 	
 	@Override
-	public synchronized boolean addAll(final Collection<? extends E> c) {
-		final ImList<E> l= this.list;
+	public boolean addAll(final Collection<? extends E> c) {
 		final Object[] toAdd= c.toArray();
-		int end= toAdd.length;
-		for (int i= 0; i < end; ) {
-			if (l.contains(toAdd[i]) || indexOf(toAdd, toAdd[i]) < i) {
-				System.arraycopy(toAdd, i + 1, toAdd, i, end - i - 1);
-				end--;
+		if (toAdd.length == 0) {
+			return false;
+		}
+		final Object[] array= new Object[toAdd.length];
+		ImList<E> l;
+		int n;
+		do {
+			l= this.list;
+			n= 0;
+			for (int i= 0; i < toAdd.length; i++) {
+				final Object e= toAdd[i];
+				if (!l.contains(e) && indexOf(array, n, e) < 0) {
+					array[n++]= e;
+				}
 			}
-			else {
-				i++;
+			if (n == 0) {
+				return false;
 			}
 		}
-		if (end > 0) {
-			this.list= ImCollections.concatList(l,
-					ImCollections.<E>newList((E[]) toAdd, 0, end) );
-			return true;
-		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.concatList(l,
+				ImCollections.<E>newList((E[]) array, 0, n) )));
+		return true;
 	}
 	
-	@Override
-	public synchronized boolean retainAll(final Collection<?> c) {
-		final Object[] array= this.list.toArray();
-		final Object[] toRetain= c.toArray();
-		int end= array.length;
-		for (int i= 0; i < end; ) {
-			if (indexOf(toRetain, array[i]) >= 0) {
-				i++;
+	private boolean removeElements(final Object[] elements, final boolean contained) {
+		ImList<E> l;
+		Object[] array;
+		int end;
+		do {
+			l= this.list;
+			array= l.toArray();
+			end= 0;
+			for (int i= 0; i < array.length; i++) {
+				if ((indexOf(elements, elements.length, array[i]) >= 0) != contained) {
+					array[end++]= array[i];
+				}
 			}
-			else {
-				System.arraycopy(array, i + 1, array, i, end - i - 1);
-				end--;
+			if (end == array.length) {
+				return false;
 			}
 		}
-		if (end < array.length) {
-			this.list= ImCollections.<E>newList((E[]) array, 0, end);
-			return true;
-		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.<E>newList((E[]) array, 0, end)));
+		return true;
 	}
 	
 	@Override
-	public synchronized boolean removeAll(final Collection<?> c) {
-		final Object[] array= this.list.toArray();
-		final Object[] toRemove= c.toArray();
-		int end= array.length;
-		for (int i= 0; i < end; ) {
-			if (indexOf(toRemove, array[i]) >= 0) {
-				i++;
-			}
-			else {
-				System.arraycopy(array, i + 1, array, i, end - i - 1);
-				end--;
+	public boolean retainAll(final Collection<?> c) {
+		return removeElements(c.toArray(), false);
+	}
+	
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		return removeElements(c.toArray(), true);
+	}
+	
+	/**
+	 * Removes all elements of the set matching the specified filter.
+	 * 
+	 * @param filter the filter returning <code>true</code> for elements to remove
+	 * @return <code>true</code> if the set changed, otherwise <code>false</code>
+	 * @see CopyOnWriteList#removeMatching(Predicate)
+	 */
+	public boolean removeMatching(final Predicate<? super E> filter) {
+		ImList<E> l;
+		Object[] array;
+		int end;
+		do {
+			l= this.list;
+			array= l.toArray();
+			end= CollectionUtils.removeMatching(array, filter);
+			if (end == array.length) {
+				return false;
 			}
 		}
-		if (end < array.length) {
-			this.list= ImCollections.<E>newList((E[]) array, 0, end);
-			return true;
-		}
-		return false;
+		while (!compareAndSetList(l, ImCollections.<E>newList((E[]) array, 0, end)));
+		return true;
 	}
 	
 	@Override
-	public synchronized void clear() {
+	public void clear() {
 		if (!this.list.isEmpty()) {
 			this.list= ImCollections.newList();
 		}
@@ -199,12 +241,12 @@ public final class CopyOnWriteListSet<E> extends AbstractSet<E> implements Set<E
 	 * 
 	 * @return
 	 */
-	public synchronized ImList<E> clearToList() {
+	public ImList<E> clearToList() {
 		final ImList<E> list= this.list;
-		if (!list.isEmpty()) {
-			this.list= ImCollections.newList();
+		if (list.isEmpty()) {
+			return list;
 		}
-		return list;
+		return LIST_UPDATER.getAndSet(this, ImCollections.newList());
 	}
 	
 	
@@ -28,10 +28,13 @@ import de.walware.jcommons.collections.internal.ImEmptyIdentityList;
 import de.walware.jcommons.collections.internal.ImEmptyIdentitySet;
 import de.walware.jcommons.collections.internal.ImEmptyList;
 import de.walware.jcommons.collections.internal.ImEmptySet;
+import de.walware.jcommons.collections.internal.ImHashIdentitySet;
+import de.walware.jcommons.collections.internal.ImHashSet;
 import de.walware.jcommons.collections.internal.ImSingletonIdentityList;
 import de.walware.jcommons.collections.internal.ImSingletonIdentitySet;
 import de.walware.jcommons.collections.internal.ImSingletonList;
 import de.walware.jcommons.collections.internal.ImSingletonSet;
+import de.walware.jcommons.collections.internal.ImTreeList;
 
 
 public final class ImCollections {
@@ -39,7 +42,7 @@ public final class ImCollections {
 	
 	private static <E> boolean containsEqual(final E[] array, final int startIdx, final int endIdx, final E e) {
 		if (e == null) {
-			for (int idx= 0; idx < endIdx; idx++) {
+			for (int idx= startIdx; idx < endIdx; idx++) {
 				if (null == array[idx]) {
 					return true;
 				}
@@ -47,7 +50,7 @@ public final class ImCollections {
 			return false;
 		}
 		else {
-			for (int idx= 0; idx < endIdx; idx++) {
+			for (int idx= startIdx; idx < endIdx; idx++) {
 				if (e.equals(array[idx])) {
 					return true;
 				}
@@ -57,7 +60,7 @@ public final class ImCollections {
 	}
 	
 	private static <E> boolean containsIdentical(final E[] array, final int startIdx, final int endIdx, final E e) {
-		for (int idx= 0; idx < endIdx; idx++) {
+		for (int idx= startIdx; idx < endIdx; idx++) {
 			if (e == array[idx]) {
 				return true;
 			}
@@ -459,11 +462,32 @@ public final class ImCollections {
 	}
 	
 	
+	/**
+	 * Min size of a list, for which the update methods (add, set, remove element) switch to
+	 * the tree based implementation sharing the structure with the original list.
+	 */
+	private static final int TREE_LIST_MIN_SIZE= 512;
+	
+	private static boolean useTreeList(final List<?> l, final int n) {
+		return (n >= TREE_LIST_MIN_SIZE || l instanceof ImTreeList);
+	}
+	
+	private static <E> ImTreeList<E> toTreeList(final List<? extends E> l) {
+		if (l instanceof ImTreeList) {
+			return (ImTreeList<E>) l;
+		}
+		final Object[] a= l.toArray();
+		return ImTreeList.build(a, 0, a.length);
+	}
+	
 	public static <E> ImList<E> addElement(final List<? extends E> l, final E e) {
 		final int n1= l.size();
 		if (n1 == 0) {
 			return new ImSingletonList<>(e);
 		}
+		else if (useTreeList(l, n1)) {
+			return ImCollections.<E>toTreeList(l).withAdded(n1, e);
+		}
 		else {
 			@SuppressWarnings("unchecked")
 			final E[] a= (E[]) new Object[n1 + 1];
@@ -481,6 +505,9 @@ public final class ImCollections {
 		if (n1 == 0) {
 			return new ImSingletonList<>(e);
 		}
+		else if (useTreeList(l, n1)) {
+			return ImCollections.<E>toTreeList(l).withAdded(index, e);
+		}
 		else {
 			@SuppressWarnings("unchecked")
 			final E[] a= (E[]) new Object[n1 + 1];
@@ -511,6 +538,9 @@ public final class ImCollections {
 		if (n == 1) {
 			return new ImSingletonList<>(e);
 		}
+		else if (useTreeList(l, n)) {
+			return ImCollections.<E>toTreeList(l).withSet(index, e);
+		}
 		else {
 			@SuppressWarnings("unchecked")
 			final E[] a= (E[]) l.toArray();
@@ -531,6 +561,9 @@ public final class ImCollections {
 		else if (n == 1) {
 			return new ImSingletonList<E>(l.get((idx == 0) ? 1 : 0));
 		}
+		else if (useTreeList(l, n)) {
+			return ImCollections.<E>toTreeList(l).withRemoved(idx);
+		}
 		else {
 			@SuppressWarnings("unchecked")
 			final E[] a= (E[]) new Object[n];
@@ -566,6 +599,9 @@ public final class ImCollections {
 		else if (n == 1) {
 			return new ImSingletonList<E>(l.get((index == 0) ? 1 : 0));
 		}
+		else if (useTreeList(l, n)) {
+			return ImCollections.<E>toTreeList(l).withRemoved(index);
+		}
 		else {
 			@SuppressWarnings("unchecked")
 			final E[] a= (E[]) new Object[n];
@@ -749,6 +785,12 @@ public final class ImCollections {
 	
 /*[ Set ]======================================================================*/
 	
+	/**
+	 * Min size of a set, for which the set is created with a hash table index.
+	 */
+	private static final int HASH_SET_MIN_SIZE= 16;
+	
+	
 	/**
 	 * Returns an empty immutable set.
 	 */
@@ -777,12 +819,15 @@ public final class ImCollections {
 	
 	
 	private static <E> ImSet<E> newSetFromArray(final E[] array, final int startIdx, final int endIdx) {
+		if (endIdx - startIdx >= HASH_SET_MIN_SIZE) {
+			return ImHashSet.create(array, startIdx, endIdx);
+		}
 		for (int idx= startIdx + 1; idx < endIdx; idx++) {
 			if (containsEqual(array, startIdx, idx, array[idx])) {
 				final E[] checked= (E[]) Array.newInstance(array.getClass().getComponentType(),
 						endIdx - startIdx - 1 );
 				System.arraycopy(array, startIdx, checked, 0, idx - startIdx);
-				int length= idx++;
+				int length= idx++ - startIdx;
 				for (; idx < endIdx; idx++) {
 					if (!containsEqual(checked, 0, length, array[idx])) {
 						checked[length++]= array[idx];
@@ -800,7 +845,8 @@ public final class ImCollections {
 				}
 			}
 		}
-		return new ImArraySet<>(array);
+		return new ImArraySet<>((startIdx == 0 && endIdx == array.length) ?
+				array : Arrays.copyOfRange(array, startIdx, endIdx) );
 	}
 	
 	/**
@@ -895,12 +941,15 @@ public final class ImCollections {
 	
 	
 	private static <E> ImIdentitySet<E> newIdentitySetFromArray(final E[] array, final int startIdx, final int endIdx) {
+		if (endIdx - startIdx >= HASH_SET_MIN_SIZE) {
+			return ImHashIdentitySet.create(array, startIdx, endIdx);
+		}
 		for (int idx= startIdx + 1; idx < endIdx; idx++) {
 			if (containsIdentical(array, startIdx, idx, array[idx])) {
 				final E[] checked= (E[]) Array.newInstance(array.getClass().getComponentType(),
 						endIdx - startIdx - 1 );
 				System.arraycopy(array, startIdx, checked, 0, idx - startIdx);
-				int length= idx++;
+				int length= idx++ - startIdx;
 				for (; idx < endIdx; idx++) {
 					if (!containsIdentical(checked, 0, length, array[idx])) {
 						checked[length++]= array[idx];
@@ -918,7 +967,8 @@ public final class ImCollections {
 				}
 			}
 		}
-		return new ImArrayIdentitySet<>(array);
+		return new ImArrayIdentitySet<>((startIdx == 0 && endIdx == array.length) ?
+				array : Arrays.copyOfRange(array, startIdx, endIdx) );
 	}
 	
 	/**
@@ -0,0 +1,192 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.collections;
+
+import java.util.Collection;
+import java.util.List;
+
+import de.walware.jcommons.collections.internal.ImEmptyList;
+import de.walware.jcommons.collections.internal.ImSingletonList;
+import de.walware.jcommons.collections.internal.ImTreeList;
+import de.walware.jcommons.lang.Builder;
+
+
+/**
+ * Transient builder for large immutable lists supporting efficient updates.
+ * <p>
+ * The builder creates a tree based immutable list sharing its structure with the lists
+ * used and created before. Appended elements are collected in a buffer and added in chunks,
+ * so adding elements to the end costs amortized O(1); all other operations cost O(log n).
+ * Further updates of a list created by the builder using {@link ImCollections#addElement(List, Object)},
+ * {@link ImCollections#setElement(List, int, Object)} etc. cost O(log n) as well.</p>
+ * <p>
+ * The builder can be continued to use after {@link #build()}; this doesn't change the
+ * lists already built.</p>
+ * <p>
+ * The builder is not thread-safe.</p>
+ */
+public class ImTreeListBuilder<E> implements Builder<ImList<E>> {
+	
+	
+	private static final int BUFFER_SIZE= 32;
+	
+	
+	private ImTreeList<E> list;
+	
+	/** Elements appended to the end of the list */
+	private final Object[] buffer= new Object[BUFFER_SIZE];
+	private int bufferSize;
+	
+	
+	/**
+	 * Creates a new empty builder.
+	 */
+	public ImTreeListBuilder() {
+		this.list= ImTreeList.build(this.buffer, 0, 0);
+	}
+	
+	/**
+	 * Creates a new builder initialized with the elements of the specified list.
+	 * 
+	 * @param l the initial elements
+	 */
+	@SuppressWarnings("unchecked")
+	public ImTreeListBuilder(final List<? extends E> l) {
+		if (l instanceof ImTreeList) {
+			this.list= (ImTreeList<E>) l;
+		}
+		else {
+			final Object[] a= l.toArray();
+			this.list= ImTreeList.build(a, 0, a.length);
+		}
+	}
+	
+	
+	private ImTreeList<E> flush() {
+		if (this.bufferSize > 0) {
+			this.list= this.list.withAddedAll(this.buffer, 0, this.bufferSize);
+			for (int i= 0; i < this.bufferSize; i++) {
+				this.buffer[i]= null;
+			}
+			this.bufferSize= 0;
+		}
+		return this.list;
+	}
+	
+	
+	public int size() {
+		return this.list.size() + this.bufferSize;
+	}
+	
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		final int bufferIndex= index - this.list.size();
+		if (bufferIndex >= 0 && bufferIndex < this.bufferSize) {
+			return (E) this.buffer[bufferIndex];
+		}
+		return this.list.get(index);
+	}
+	
+	/**
+	 * Appends the element to the end of the list.
+	 * 
+	 * @param e the element to add
+	 */
+	public void add(final E e) {
+		if (this.bufferSize == BUFFER_SIZE) {
+			flush();
+		}
+		this.buffer[this.bufferSize++]= e;
+	}
+	
+	/**
+	 * Appends all elements of the collection to the end of the list.
+	 * 
+	 * @param c the collection with the elements to add
+	 */
+	public void addAll(final Collection<? extends E> c) {
+		if (c.size() <= BUFFER_SIZE - this.bufferSize) {
+			for (final E e : c) {
+				this.buffer[this.bufferSize++]= e;
+			}
+		}
+		else {
+			final Object[] a= c.toArray();
+			this.list= flush().withAddedAll(a, 0, a.length);
+		}
+	}
+	
+	/**
+	 * Inserts the element at the specified position in the list.
+	 * 
+	 * @param index the index of the new element
+	 * @param e the element to add
+	 */
+	public void add(final int index, final E e) {
+		if (index == size()) {
+			add(e);
+			return;
+		}
+		this.list= flush().withAdded(index, e);
+	}
+	
+	/**
+	 * Replaces the element at the specified position in the list.
+	 * 
+	 * @param index the index of the element to replace
+	 * @param e the new element
+	 * @return the element previously at the position
+	 */
+	@SuppressWarnings("unchecked")
+	public E set(final int index, final E e) {
+		final int bufferIndex= index - this.list.size();
+		if (bufferIndex >= 0 && bufferIndex < this.bufferSize) {
+			final E previous= (E) this.buffer[bufferIndex];
+			this.buffer[bufferIndex]= e;
+			return previous;
+		}
+		final E previous= this.list.get(index);
+		this.list= this.list.withSet(index, e);
+		return previous;
+	}
+	
+	/**
+	 * Removes the element at the specified position in the list.
+	 * 
+	 * @param index the index of the element to remove
+	 * @return the removed element
+	 */
+	public E remove(final int index) {
+		final E previous= get(index);
+		this.list= flush().withRemoved(index);
+		return previous;
+	}
+	
+	
+	@Override
+	public ImList<E> build() {
+		final ImTreeList<E> list= flush();
+		switch (list.size()) {
+		case 0:
+			return ImEmptyList.INSTANCE;
+		case 1:
+			return new ImSingletonList<>(list.get(0));
+		default:
+			return list;
+		}
+	}
+	
+}
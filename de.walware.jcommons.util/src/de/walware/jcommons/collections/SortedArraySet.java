@@ -11,6 +11,7 @@
 
 package de.walware.jcommons.collections;
 
+import java.lang.reflect.Array;
 import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -23,6 +24,50 @@ import java.util.RandomAccess;
 public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<E>, RandomAccess {
 	
 	
+	/**
+	 * Sorts the elements and removes duplicates; of equal elements the last one is kept.
+	 * 
+	 * @return the number of unique elements at the beginning of the array
+	 */
+	static <E> int sortUnique(final E[] a, final int length, final Comparator<? super E> comparator) {
+		for (int i= 0; i < length; i++) {
+			if (a[i] == null) {
+				throw new NullPointerException("element"); //$NON-NLS-1$
+			}
+		}
+		Arrays.sort(a, 0, length, comparator);
+		return unique(a, 0, length, comparator);
+	}
+	
+	/**
+	 * Removes duplicates of sorted elements in place; of equal elements the last one is kept.
+	 * 
+	 * @return the number of unique elements at the beginning of the range
+	 * @throws IllegalArgumentException if the elements are not sorted
+	 */
+	private static <E> int unique(final E[] a, final int offset, final int length,
+			final Comparator<? super E> comparator) {
+		if (length == 0) {
+			return 0;
+		}
+		final int end= offset + length;
+		int last= offset;
+		for (int i= offset + 1; i < end; i++) {
+			final int d= (comparator != null) ?
+					comparator.compare(a[last], a[i]) :
+					((Comparable<? super E>) a[last]).compareTo(a[i]);
+			if (d < 0) {
+				last++;
+			}
+			else if (d > 0) {
+				throw new IllegalArgumentException("Elements are not sorted: index= " + (i - offset)); //$NON-NLS-1$
+			}
+			a[last]= a[i];
+		}
+		return last - offset + 1;
+	}
+	
+	
 	protected class SubList extends AbstractList<E> implements SortedListSet<E>, RandomAccess {
 		
 		
@@ -419,7 +464,7 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 	
 	protected final int compare(final E element1, final E element2) {
 		return (this.comparator != null) ?
-				this.compare(element1, element2) :
+				this.comparator.compare(element1, element2) :
 				((Comparable<? super E>) element1).compareTo(element2);
 	}
 	
@@ -550,33 +595,27 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 		throw new UnsupportedOperationException();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The elements are sorted and merged in O(n + m log m).</p>
+	 */
 	@Override
 	public boolean addAll(final Collection<? extends E> c) {
-		if (c.isEmpty()) {
+		switch (c.size()) {
+		case 0:
 			return false;
-		}
-		boolean modified= false;
-		if (c instanceof SortedListSet && this.comparator == ((SortedListSet<?>) c).getComparator()) {
-			int index= 0;
-			for (final Iterator<? extends E> iter= c.iterator(); iter.hasNext();) {
-				index= addE(index, iter.next());
-				if (index >= 0) {
-					modified= true;
-					index++;
-				}
-				else {
-					index= -(index + 1);
-				}
+		case 1:
+			return (addE(c.iterator().next()) >= 0);
+		default:
+			if (c instanceof SortedListSet && this.comparator == ((SortedListSet<?>) c).getComparator()) {
+				final E[] a= c.toArray((E[]) Array.newInstance(
+						this.arrayClass.getComponentType(), c.size() ));
+				return addAllSorted(a, 0, a.length);
 			}
+			final E[] a= toSortedArray(c);
+			return mergeSorted(a, 0, a.length);
 		}
-		else {
-			for (final Iterator<? extends E> iter= c.iterator(); iter.hasNext();) {
-				if (addE(iter.next()) >= 0) {
-					modified= true;
-				}
-			}
-		}
-		return modified;
 	}
 	
 	@Override
@@ -605,6 +644,160 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 		this.size+= length;
 	}
 	
+	private E[] toSortedArray(final Collection<? extends E> c) {
+		final E[] a= c.toArray((E[]) Array.newInstance(
+				this.arrayClass.getComponentType(), c.size() ));
+		final int length= sortUnique(a, a.length, this.comparator);
+		return (length == a.length) ? a : Arrays.copyOf(a, length);
+	}
+	
+	/**
+	 * Returns the sorted unique elements of the collection, which can be contained in this set;
+	 * <code>null</code> and elements of other types are skipped.
+	 * 
+	 * @throws ClassCastException if the comparator doesn't accept an element
+	 */
+	private E[] toSortedFilteredArray(final Collection<?> c) {
+		final Class<?> componentType= this.arrayClass.getComponentType();
+		final E[] a= (E[]) Array.newInstance(componentType, c.size());
+		int length= 0;
+		for (final Object o : c) {
+			if (componentType.isInstance(o) && length < a.length) {
+				a[length++]= (E) o;
+			}
+		}
+		length= sortUnique(a, length, this.comparator);
+		return (length == a.length) ? a : Arrays.copyOf(a, length);
+	}
+	
+	/**
+	 * Removes or retains the elements contained in the collection, checked by
+	 * {@link Collection#contains(Object)}.
+	 */
+	private boolean filterContained(final Collection<?> c, final boolean retain) {
+		final E[] a= this.array;
+		final int size= this.size;
+		int w= 0;
+		for (int i= 0; i < size; i++) {
+			if (c.contains(a[i]) == retain) {
+				a[w++]= a[i];
+			}
+		}
+		if (w == size) {
+			return false;
+		}
+		this.modCount++;
+		Arrays.fill(a, w, size, null);
+		this.size= w;
+		return true;
+	}
+	
+	/**
+	 * Merges the sorted unique elements into this set.
+	 */
+	private boolean mergeSorted(final E[] elements, final int offset, final int length) {
+		if (length == 0) {
+			return false;
+		}
+		this.modCount++;
+		final int size= this.size;
+		ensureCapacity(size + length);
+		final E[] a= this.array;
+		int i= size - 1;
+		int j= offset + length - 1;
+		int k= size + length - 1;
+		while (j >= offset) {
+			if (i >= 0) {
+				final int d= compare(a[i], elements[j]);
+				if (d > 0) {
+					a[k--]= a[i--];
+					continue;
+				}
+				if (d == 0) {
+					i--;
+				}
+			}
+			a[k--]= elements[j--];
+		}
+		final int gap= k - i; // number of replaced elements
+		if (gap > 0) {
+			System.arraycopy(a, k + 1, a, i + 1, size + length - (k + 1));
+			Arrays.fill(a, size + length - gap, size + length, null);
+		}
+		this.size= size + length - gap;
+		return (this.size > size);
+	}
+	
+	/**
+	 * Adds the elements of a presorted array to this set.
+	 * <p>
+	 * The elements are merged in O(n + m). If the array contains equal elements, only the last
+	 * one is added; elements already in the set are replaced by the equal elements of the
+	 * array (like {@link #addE(Object)}).</p>
+	 * 
+	 * @param elements array with the elements sorted as specified by the comparator of this set
+	 * @param offset index of the first element in the array
+	 * @param length number of elements
+	 * @return <code>true</code> if the size of the set changed, otherwise <code>false</code>
+	 * @throws IllegalArgumentException if the elements are not sorted
+	 */
+	public boolean addAllSorted(final E[] elements, final int offset, final int length) {
+		if (offset < 0 || length < 0 || offset + length > elements.length) {
+			throw new IndexOutOfBoundsException("offset= " + offset + ", length= " + length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i= offset; i < offset + length; i++) {
+			if (elements[i] == null) {
+				throw new NullPointerException("element"); //$NON-NLS-1$
+			}
+		}
+		final E[] sorted= Arrays.copyOfRange(elements, offset, offset + length, this.arrayClass);
+		return mergeSorted(sorted, 0, unique(sorted, 0, length, this.comparator));
+	}
+	
+	/**
+	 * Removes the elements of a presorted array from this set.
+	 * <p>
+	 * The elements are processed in O(n + m).</p>
+	 * 
+	 * @param elements array with the elements sorted as specified by the comparator of this set
+	 * @param offset index of the first element in the array
+	 * @param length number of elements
+	 * @return <code>true</code> if the set changed, otherwise <code>false</code>
+	 */
+	public boolean removeAllSorted(final E[] elements, final int offset, final int length) {
+		if (offset < 0 || length < 0 || offset + length > elements.length) {
+			throw new IndexOutOfBoundsException("offset= " + offset + ", length= " + length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return filterSorted(elements, offset, offset + length, false);
+	}
+	
+	/**
+	 * Removes or retains the elements contained in the sorted array range.
+	 */
+	private boolean filterSorted(final E[] elements, final int start, final int end,
+			final boolean retain) {
+		final E[] a= this.array;
+		final int size= this.size;
+		int w= 0;
+		int j= start;
+		for (int i= 0; i < size; i++) {
+			int d= 1;
+			while (j < end && (d= compare(elements[j], a[i])) < 0) {
+				j++;
+			}
+			if ((j < end && d == 0) == retain) {
+				a[w++]= a[i];
+			}
+		}
+		if (w == size) {
+			return false;
+		}
+		this.modCount++;
+		Arrays.fill(a, w, size, null);
+		this.size= w;
+		return true;
+	}
+	
 	@Override
 	public E set(final int index, final E element) {
 		checkIndex(index);
@@ -632,7 +825,7 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 		final int n= toIndex - fromIndex;
 		if (n > 0) {
 			this.modCount++;
-			System.arraycopy(this.array, toIndex, this.array, fromIndex, n);
+			System.arraycopy(this.array, toIndex, this.array, fromIndex, this.size - toIndex);
 			Arrays.fill(this.array, this.size - n, this.size, null);
 			this.size= this.size - n;
 		}
@@ -661,6 +854,46 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 		return previous;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The elements are sorted and processed in O(n + m log m).</p>
+	 */
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		if (c.isEmpty() || this.size == 0) {
+			return false;
+		}
+		final E[] a;
+		try {
+			a= toSortedFilteredArray(c);
+		}
+		catch (final ClassCastException e) {
+			return filterContained(c, false);
+		}
+		return filterSorted(a, 0, a.length, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The elements are sorted and processed in O(n + m log m).</p>
+	 */
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		if (this.size == 0) {
+			return false;
+		}
+		final E[] a;
+		try {
+			a= toSortedFilteredArray(c);
+		}
+		catch (final ClassCastException e) {
+			return filterContained(c, true);
+		}
+		return filterSorted(a, 0, a.length, true);
+	}
+	
 	@Override
 	public void clear() {
 		this.modCount++;
@@ -671,6 +904,35 @@ public class SortedArraySet<E> extends AbstractList<E> implements SortedListSet<
 	}
 	
 	
+	/**
+	 * Returns a new set with the elements of this set and of the specified collection.
+	 * 
+	 * @param c the collection with the elements to add
+	 * @return the new set
+	 */
+	public SortedArraySet<E> union(final Collection<? extends E> c) {
+		final SortedArraySet<E> set= new SortedArraySet<>(
+				Arrays.copyOf(this.array, this.size + c.size(), this.arrayClass), this.size,
+				this.comparator );
+		set.addAll(c);
+		return set;
+	}
+	
+	/**
+	 * Returns a new set with the elements of this set, which are also contained in the
+	 * specified collection.
+	 * 
+	 * @param c the collection with the elements to retain
+	 * @return the new set
+	 */
+	public SortedArraySet<E> intersection(final Collection<?> c) {
+		final SortedArraySet<E> set= new SortedArraySet<>(
+				Arrays.copyOf(this.array, this.size, this.arrayClass), this.comparator );
+		set.retainAll(c);
+		return set;
+	}
+	
+	
 	@Override
 	public SortedListSet<E> subList(final int fromIndex, final int toIndex) {
 		if (fromIndex < 0 || fromIndex > this.size
@@ -0,0 +1,171 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.collections;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import de.walware.jcommons.lang.Builder;
+
+
+/**
+ * Builder for {@link SortedArraySet}s.
+ * <p>
+ * The elements are collected unsorted and sorted only once by {@link #build()}, so adding
+ * n elements costs O(n log n) in total instead of O(n²) when adding them to the set one by
+ * one. If equal elements are added, the last one is kept.</p>
+ * <p>
+ * After {@link #build()} the builder is empty and can be reused.</p>
+ * <p>
+ * The builder is not thread-safe.</p>
+ */
+public class SortedListSetBuilder<E> implements Builder<SortedArraySet<E>> {
+	
+	
+	private static final int DEFAULT_CAPACITY= 16;
+	
+	
+	private final Class<E> elementType;
+	
+	private final Comparator<? super E> comparator;
+	
+	private E[] array;
+	private int size;
+	
+	
+	/**
+	 * Creates a new builder.
+	 * 
+	 * @param elementType the type of the elements
+	 * @param comparator comparator used to sort the elements or <code>null</code>
+	 *     to use the natural order of comparable elements
+	 */
+	public SortedListSetBuilder(final Class<E> elementType, final Comparator<? super E> comparator) {
+		this(elementType, comparator, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new builder.
+	 * 
+	 * @param elementType the type of the elements
+	 * @param comparator comparator used to sort the elements or <code>null</code>
+	 *     to use the natural order of comparable elements
+	 * @param initialCapacity the initial capacity
+	 */
+	public SortedListSetBuilder(final Class<E> elementType, final Comparator<? super E> comparator,
+			final int initialCapacity) {
+		if (comparator == null && !Comparable.class.isAssignableFrom(elementType)) {
+			throw new NullPointerException("comparator"); //$NON-NLS-1$
+		}
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("initialCapacity= " + initialCapacity); //$NON-NLS-1$
+		}
+		this.elementType= elementType;
+		this.comparator= comparator;
+		this.array= newArray(initialCapacity);
+	}
+	
+	
+	@SuppressWarnings("unchecked")
+	private E[] newArray(final int length) {
+		return (E[]) Array.newInstance(this.elementType, length);
+	}
+	
+	private void ensureCapacity(final int minCapacity) {
+		if (minCapacity > this.array.length) {
+			int newCapacity= this.array.length + (this.array.length >> 1) + 1;
+			if (newCapacity < minCapacity) {
+				newCapacity= minCapacity;
+			}
+			this.array= Arrays.copyOf(this.array, newCapacity);
+		}
+	}
+	
+	
+	/**
+	 * Returns the number of added elements, including duplicates.
+	 * 
+	 * @return the number of elements
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Adds the element.
+	 * 
+	 * @param e the element to add
+	 */
+	public void add(final E e) {
+		if (e == null) {
+			throw new NullPointerException("element"); //$NON-NLS-1$
+		}
+		ensureCapacity(this.size + 1);
+		this.array[this.size++]= e;
+	}
+	
+	/**
+	 * Adds all elements of the collection.
+	 * 
+	 * @param c the collection with the elements to add
+	 */
+	public void addAll(final Collection<? extends E> c) {
+		ensureCapacity(this.size + c.size());
+		for (final E e : c) {
+			if (e == null) {
+				throw new NullPointerException("element"); //$NON-NLS-1$
+			}
+			this.array[this.size++]= e;
+		}
+	}
+	
+	/**
+	 * Adds all elements of the array.
+	 * 
+	 * @param elements array with the elements to add
+	 * @param offset index of the first element in the array
+	 * @param length number of elements
+	 */
+	public void addAll(final E[] elements, final int offset, final int length) {
+		if (offset < 0 || length < 0 || offset + length > elements.length) {
+			throw new IndexOutOfBoundsException("offset= " + offset + ", length= " + length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i= offset; i < offset + length; i++) {
+			if (elements[i] == null) {
+				throw new NullPointerException("element"); //$NON-NLS-1$
+			}
+		}
+		ensureCapacity(this.size + length);
+		System.arraycopy(elements, offset, this.array, this.size, length);
+		this.size+= length;
+	}
+	
+	
+	/**
+	 * Creates a new set with the added elements and resets the builder.
+	 * 
+	 * @return the new set
+	 */
+	@Override
+	public SortedArraySet<E> build() {
+		final E[] a= this.array;
+		final int size= SortedArraySet.sortUnique(a, this.size, this.comparator);
+		// clear the removed duplicates, the array is handed over to the set
+		Arrays.fill(a, size, this.size, null);
+		this.array= newArray(DEFAULT_CAPACITY);
+		this.size= 0;
+		return new SortedArraySet<>(a, size, this.comparator);
+	}
+	
+}
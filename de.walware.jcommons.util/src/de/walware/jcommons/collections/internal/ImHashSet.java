@@ -0,0 +1,306 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.collections.internal;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import de.walware.jcommons.collections.ImIdentityList;
+import de.walware.jcommons.collections.ImList;
+import de.walware.jcommons.collections.ImSet;
+
+
+/**
+ * Constant set implementation based on an array with an open addressing hash table index.
+ * <p>
+ * Like {@link ImArraySet} the set keeps the order of the elements, but {@link #contains(Object)}
+ * is O(1) instead of O(n).</p>
+ */
+public final class ImHashSet<E> extends AbstractImList<E> implements ImSet<E>,
+		RandomAccess {
+	
+	
+	private class Iter extends AbstractImListIter<E> {
+		
+		
+		private int cursor;
+		
+		
+		Iter(final int index) {
+			this.cursor= index;
+		}
+		
+		
+		@Override
+		public boolean hasNext() {
+			return (this.cursor < ImHashSet.this.array.length);
+		}
+		
+		@Override
+		public int nextIndex() {
+			return this.cursor;
+		}
+		
+		@Override
+		public E next() {
+			if (this.cursor >= ImHashSet.this.array.length) {
+				throw new NoSuchElementException();
+			}
+			return ImHashSet.this.array[this.cursor++];
+		}
+		
+		@Override
+		public boolean hasPrevious() {
+			return (this.cursor > 0);
+		}
+		
+		@Override
+		public int previousIndex() {
+			return this.cursor-1;
+		}
+		
+		@Override
+		public E previous() {
+			if (this.cursor <= 0 || ImHashSet.this.array.length <= 0) {
+				throw new NoSuchElementException();
+			}
+			return ImHashSet.this.array[--this.cursor];
+		}
+		
+	}
+	
+	
+	private static int tableSize(final int n) {
+		return Integer.highestOneBit((n << 1) - 1) << 1;
+	}
+	
+	private static int hash(final Object o) {
+		if (o == null) {
+			return 0;
+		}
+		final int h= o.hashCode();
+		return h ^ (h >>> 16);
+	}
+	
+	
+	/**
+	 * Creates a new set with the distinct elements of the array range.
+	 * <p>
+	 * If the range covers the complete array and the elements are distinct, the array is
+	 * directly used by the set.</p>
+	 * 
+	 * @param array the array with the elements
+	 * @param startIdx index of first element in the array
+	 * @param endIdx index after the last element in the array
+	 * @return the set
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImSet<E> create(final E[] array, final int startIdx, final int endIdx) {
+		final int n= endIdx - startIdx;
+		final int[] table= new int[tableSize(n)];
+		final int mask= table.length - 1;
+		E[] elements= null; // created if required
+		int length= 0;
+		ITER_ARRAY: for (int idx= startIdx; idx < endIdx; idx++) {
+			final E e= array[idx];
+			int i= hash(e) & mask;
+			int pos;
+			while ((pos= table[i]) != 0) {
+				final E other= (elements != null) ? elements[pos - 1] : array[startIdx + pos - 1];
+				if ((e == null) ? (other == null) : e.equals(other)) {
+					if (elements == null) {
+						elements= (E[]) Array.newInstance(array.getClass().getComponentType(), n - 1);
+						System.arraycopy(array, startIdx, elements, 0, length);
+					}
+					continue ITER_ARRAY;
+				}
+				i= (i + 1) & mask;
+			}
+			if (elements != null) {
+				elements[length]= e;
+			}
+			table[i]= ++length;
+		}
+		
+		if (length == 1) {
+			return new ImSingletonSet<>(array[startIdx]);
+		}
+		if (elements == null) {
+			elements= (startIdx == 0 && endIdx == array.length) ?
+					array : Arrays.copyOfRange(array, startIdx, endIdx);
+		}
+		else if (length < elements.length) {
+			elements= Arrays.copyOf(elements, length);
+		}
+		return new ImHashSet<>(elements, table);
+	}
+	
+	
+	private final E[] array;
+	
+	/** Hash table with the index + 1 of the elements in the array, 0 for empty */
+	private final int[] table;
+	
+	
+	private ImHashSet(final E[] array, final int[] table) {
+		this.array= array;
+		this.table= table;
+	}
+	
+	
+	@Override
+	public int size() {
+		return this.array.length;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+	
+	@Override
+	public boolean contains(final Object o) {
+		return (indexOf(o) >= 0);
+	}
+	
+	@Override
+	public boolean containsAll(final Collection<?> c) {
+		final Iterator<?> e= c.iterator();
+		while (e.hasNext()) {
+			if (indexOf(e.next()) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public E get(final int index) {
+		return this.array[index];
+	}
+	
+	@Override
+	public int indexOf(final Object o) {
+		final int mask= this.table.length - 1;
+		int i= hash(o) & mask;
+		int pos;
+		if (o == null) {
+			while ((pos= this.table[i]) != 0) {
+				if (null == this.array[pos - 1]) {
+					return pos - 1;
+				}
+				i= (i + 1) & mask;
+			}
+		}
+		else {
+			while ((pos= this.table[i]) != 0) {
+				if (o.equals(this.array[pos - 1])) {
+					return pos - 1;
+				}
+				i= (i + 1) & mask;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(final Object o) {
+		return indexOf(o);
+	}
+	
+	
+	@Override
+	public Iterator<E> iterator() {
+		return new Iter(0);
+	}
+	
+	
+	@Override
+	public Object[] toArray() {
+		final Object[] dest= new Object[this.array.length];
+		System.arraycopy(this.array, 0, dest, 0, this.array.length);
+		return dest;
+	}
+	
+	@Override
+	public <T> T[] toArray(final T[] dest) {
+		final int n= this.array.length;
+		if (dest.length < n) {
+			return Arrays.<T, E>copyOf(this.array, n, (Class<T[]>) dest.getClass());
+		}
+		System.arraycopy(this.array, 0, dest, 0, n);
+		if (dest.length > n) {
+			dest[n]= null;
+		}
+		return dest;
+	}
+	
+	@Override
+	public
+	void copyTo(final Object[] dest, final int destPos) {
+		System.arraycopy(this.array, 0, dest, destPos, this.array.length);
+	}
+	
+	@Override
+	public
+	void copyTo(final int srcPos, final Object[] dest, final int destPos, final int length) {
+		System.arraycopy(this.array, srcPos, dest, destPos, length);
+	}
+	
+	@Override
+	public
+	ImList<E> toImList() {
+		return new ImArrayList<>(this.array);
+	}
+	
+	@Override
+	public
+	ImIdentityList<E> toImIdentityList() {
+		return new ImArrayIdentityList<>(this.array);
+	}
+	
+	
+	@Override
+	public int hashCode() {
+		int hashCode= 0;
+		for (int i= 0; i < this.array.length; i++) {
+			if (this.array[i] != null) {
+				hashCode+= this.array[i].hashCode();
+			}
+		}
+		return hashCode;
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof Set) {
+			final Set<?> other= (Set<?>) obj;
+			return (this.array.length == other.size()
+					&& containsAll(other) );
+		}
+		return false;
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(this.array);
+	}
+	
+}
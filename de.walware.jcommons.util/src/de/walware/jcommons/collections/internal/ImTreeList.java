@@ -0,0 +1,774 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.collections.internal;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import de.walware.jcommons.collections.ImIdentityList;
+import de.walware.jcommons.collections.ImList;
+
+
+/**
+ * Persistent list implementation based on a balanced tree of arrays with up to 32 elements
+ * or child nodes per node.
+ * <p>
+ * The nodes are relaxed, i.e. they are not necessarily full; each branch node stores the
+ * cumulative sizes of its children. The methods {@link #withAdded(int, Object)},
+ * {@link #withSet(int, Object)} and {@link #withRemoved(int)} create a new list in
+ * O(log n), sharing all unchanged nodes with this list. Access by index is O(log n) as well
+ * (four levels for a million elements), iteration O(1) per element.</p>
+ */
+public final class ImTreeList<E> extends AbstractImList<E> implements ImList<E>,
+		RandomAccess {
+	
+	
+	static final int NODE_SHIFT= 5;
+	static final int MAX_NODE_SIZE= 1 << NODE_SHIFT;
+	
+	/** Nodes with fewer entries are merged with a sibling on removal */
+	static final int MIN_NODE_SIZE= MAX_NODE_SIZE / 4;
+	
+	private static final Object[] EMPTY_ARRAY= new Object[0];
+	
+	
+	private static final class Branch {
+		
+		
+		private final Object[] children;
+		
+		/** ends[i]= number of elements in children[0..i] */
+		private final int[] ends;
+		
+		
+		public Branch(final Object[] children, final int[] ends) {
+			this.children= children;
+			this.ends= ends;
+		}
+		
+		
+		/**
+		 * Returns the index of the child containing the element at the specified index.
+		 */
+		public int childIndex(final int index) {
+			int low= 0;
+			int high= this.ends.length - 1;
+			while (low < high) {
+				final int mid= (low + high) >>> 1;
+				if (this.ends[mid] <= index) {
+					low= mid + 1;
+				}
+				else {
+					high= mid;
+				}
+			}
+			return low;
+		}
+		
+		public int childStart(final int childIndex) {
+			return (childIndex > 0) ? this.ends[childIndex - 1] : 0;
+		}
+		
+	}
+	
+	
+	private static int sizeOf(final Object node, final int height) {
+		if (height == 0) {
+			return ((Object[]) node).length;
+		}
+		final int[] ends= ((Branch) node).ends;
+		return ends[ends.length - 1];
+	}
+	
+	/**
+	 * Returns the entries of the node, the elements for a leaf, the child nodes for a branch.
+	 */
+	private static Object[] entriesOf(final Object node, final int height) {
+		return (height == 0) ? (Object[]) node : ((Branch) node).children;
+	}
+	
+	private static Object createNode(final Object[] entries, final int height) {
+		return (height == 0) ? entries : createBranch(entries, height - 1);
+	}
+	
+	private static Branch createBranch(final Object[] children, final int childHeight) {
+		final int[] ends= new int[children.length];
+		int sum= 0;
+		for (int i= 0; i < children.length; i++) {
+			sum+= sizeOf(children[i], childHeight);
+			ends[i]= sum;
+		}
+		return new Branch(children, ends);
+	}
+	
+	private static int partLength(final int total, final int parts, final int part) {
+		return (int) ((long) total * (part + 1) / parts - (long) total * part / parts);
+	}
+	
+	
+	/**
+	 * Creates a new list with the elements of the specified array range.
+	 * 
+	 * @param array the array with the elements (not used directly)
+	 * @param offset the index of the first element in the array
+	 * @param length the number of elements
+	 * @return the new list
+	 */
+	public static <E> ImTreeList<E> build(final Object[] array, final int offset, final int length) {
+		if (length <= MAX_NODE_SIZE) {
+			return new ImTreeList<>(Arrays.copyOfRange(array, offset, offset + length), 0, length);
+		}
+		int n= (length + MAX_NODE_SIZE - 1) >>> NODE_SHIFT;
+		Object[] nodes= new Object[n];
+		for (int i= 0, pos= offset; i < n; i++) {
+			final int l= partLength(length, n, i);
+			nodes[i]= Arrays.copyOfRange(array, pos, pos + l);
+			pos+= l;
+		}
+		int height= 0;
+		while (n > 1) {
+			final int m= (n + MAX_NODE_SIZE - 1) >>> NODE_SHIFT;
+			final Object[] parents= new Object[m];
+			for (int i= 0, pos= 0; i < m; i++) {
+				final int l= partLength(n, m, i);
+				parents[i]= createBranch(Arrays.copyOfRange(nodes, pos, pos + l), height);
+				pos+= l;
+			}
+			nodes= parents;
+			n= m;
+			height++;
+		}
+		return new ImTreeList<>(nodes[0], height, length);
+	}
+	
+	
+	private static Object set(final Object node, final int height, final int index,
+			final Object e) {
+		if (height == 0) {
+			final Object[] a= ((Object[]) node).clone();
+			a[index]= e;
+			return a;
+		}
+		final Branch branch= (Branch) node;
+		final int ci= branch.childIndex(index);
+		final Object[] children= branch.children.clone();
+		children[ci]= set(children[ci], height - 1, index - branch.childStart(ci), e);
+		return new Branch(children, branch.ends);
+	}
+	
+	/**
+	 * Inserts the element into the node.
+	 * 
+	 * @param split array to return the right node if the node is split
+	 * @return the new (left) node
+	 */
+	private static Object insert(final Object node, final int height, final int index,
+			final Object e, final Object[] split) {
+		if (height == 0) {
+			final Object[] leaf= (Object[]) node;
+			final int n= leaf.length;
+			if (n == MAX_NODE_SIZE) {
+				// keep the nodes full when appending/prepending elements
+				if (index == n) {
+					split[0]= new Object[] { e };
+					return leaf;
+				}
+				if (index == 0) {
+					split[0]= leaf;
+					return new Object[] { e };
+				}
+			}
+			final Object[] a= new Object[n + 1];
+			System.arraycopy(leaf, 0, a, 0, index);
+			a[index]= e;
+			System.arraycopy(leaf, index, a, index + 1, n - index);
+			if (n < MAX_NODE_SIZE) {
+				return a;
+			}
+			final int l= a.length >>> 1;
+			split[0]= Arrays.copyOfRange(a, l, a.length);
+			return Arrays.copyOf(a, l);
+		}
+		final Branch branch= (Branch) node;
+		final int last= branch.children.length - 1;
+		final int ci= (index < branch.ends[last]) ? branch.childIndex(index) : last;
+		final Object child= insert(branch.children[ci], height - 1, index - branch.childStart(ci),
+				e, split );
+		if (split[0] == null) {
+			final Object[] children= branch.children.clone();
+			children[ci]= child;
+			final int[] ends= branch.ends.clone();
+			for (int i= ci; i <= last; i++) {
+				ends[i]++;
+			}
+			return new Branch(children, ends);
+		}
+		final Object[] children= new Object[last + 2];
+		System.arraycopy(branch.children, 0, children, 0, ci);
+		children[ci]= child;
+		children[ci + 1]= split[0];
+		System.arraycopy(branch.children, ci + 1, children, ci + 2, last - ci);
+		split[0]= null;
+		if (children.length <= MAX_NODE_SIZE) {
+			return createBranch(children, height - 1);
+		}
+		final int l= (ci == last) ? MAX_NODE_SIZE : (ci == 0) ? 1 : children.length >>> 1;
+		split[0]= createBranch(Arrays.copyOfRange(children, l, children.length), height - 1);
+		return createBranch(Arrays.copyOf(children, l), height - 1);
+	}
+	
+	/**
+	 * Appends the elements as new leaf to the node.
+	 * 
+	 * @param split array to return the right node if the node is split
+	 * @return the new (left) node
+	 */
+	private static Object appendLeaf(final Object node, final int height, final Object[] leaf,
+			final Object[] split) {
+		if (height == 0) {
+			final Object[] a= (Object[]) node;
+			if (a.length + leaf.length <= MAX_NODE_SIZE) {
+				final Object[] merged= Arrays.copyOf(a, a.length + leaf.length);
+				System.arraycopy(leaf, 0, merged, a.length, leaf.length);
+				return merged;
+			}
+			split[0]= leaf;
+			return a;
+		}
+		final Branch branch= (Branch) node;
+		final int last= branch.children.length - 1;
+		final Object child= appendLeaf(branch.children[last], height - 1, leaf, split);
+		if (split[0] == null) {
+			final Object[] children= branch.children.clone();
+			children[last]= child;
+			final int[] ends= branch.ends.clone();
+			ends[last]+= leaf.length;
+			return new Branch(children, ends);
+		}
+		final Object[] children;
+		if (last + 1 < MAX_NODE_SIZE) {
+			children= Arrays.copyOf(branch.children, last + 2);
+			children[last]= child;
+			children[last + 1]= split[0];
+			split[0]= null;
+			return createBranch(children, height - 1);
+		}
+		children= branch.children.clone();
+		children[last]= child;
+		split[0]= createBranch(new Object[] { split[0] }, height - 1);
+		return createBranch(children, height - 1);
+	}
+	
+	/**
+	 * Removes the element from the node.
+	 * 
+	 * @return the new node or <code>null</code> if the node is empty
+	 */
+	private static Object remove(final Object node, final int height, final int index) {
+		if (height == 0) {
+			final Object[] leaf= (Object[]) node;
+			final int n= leaf.length - 1;
+			if (n == 0) {
+				return null;
+			}
+			final Object[] a= new Object[n];
+			System.arraycopy(leaf, 0, a, 0, index);
+			System.arraycopy(leaf, index + 1, a, index, n - index);
+			return a;
+		}
+		final Branch branch= (Branch) node;
+		final int n= branch.children.length;
+		final int ci= branch.childIndex(index);
+		final Object child= remove(branch.children[ci], height - 1, index - branch.childStart(ci));
+		final Object[] children;
+		if (child == null) {
+			if (n == 1) {
+				return null;
+			}
+			children= new Object[n - 1];
+			System.arraycopy(branch.children, 0, children, 0, ci);
+			System.arraycopy(branch.children, ci + 1, children, ci, n - 1 - ci);
+		}
+		else if (n > 1 && entriesOf(child, height - 1).length < MIN_NODE_SIZE) {
+			// merge with sibling
+			final int left= (ci > 0) ? ci - 1 : ci;
+			final Object[] leftEntries= entriesOf((left == ci) ? child : branch.children[left],
+					height - 1 );
+			final Object[] rightEntries= entriesOf((left == ci) ? branch.children[left + 1] : child,
+					height - 1 );
+			final int l= leftEntries.length + rightEntries.length;
+			final Object[] merged= Arrays.copyOf(leftEntries, l);
+			System.arraycopy(rightEntries, 0, merged, leftEntries.length, rightEntries.length);
+			if (l <= MAX_NODE_SIZE) {
+				children= new Object[n - 1];
+				System.arraycopy(branch.children, 0, children, 0, left);
+				children[left]= createNode(merged, height - 1);
+				System.arraycopy(branch.children, left + 2, children, left + 1, n - 2 - left);
+			}
+			else {
+				children= branch.children.clone();
+				children[left]= createNode(Arrays.copyOf(merged, l >>> 1), height - 1);
+				children[left + 1]= createNode(Arrays.copyOfRange(merged, l >>> 1, l), height - 1);
+			}
+		}
+		else {
+			children= branch.children.clone();
+			children[ci]= child;
+			final int[] ends= branch.ends.clone();
+			for (int i= ci; i < n; i++) {
+				ends[i]--;
+			}
+			return new Branch(children, ends);
+		}
+		return createBranch(children, height - 1);
+	}
+	
+	private static void copyTo(final Object node, final int height, final int from, final int to,
+			final Object[] dest, int destPos) {
+		if (height == 0) {
+			System.arraycopy(node, from, dest, destPos, to - from);
+			return;
+		}
+		final Branch branch= (Branch) node;
+		int ci= branch.childIndex(from);
+		int start= branch.childStart(ci);
+		while (start < to) {
+			final int end= branch.ends[ci];
+			final int childFrom= Math.max(from, start);
+			final int childTo= Math.min(to, end);
+			copyTo(branch.children[ci], height - 1, childFrom - start, childTo - start,
+					dest, destPos );
+			destPos+= childTo - childFrom;
+			start= end;
+			ci++;
+		}
+	}
+	
+	
+	private class Iter extends AbstractImListIter<E> {
+		
+		
+		private int cursor;
+		
+		/** The current leaf, containing the elements [leafStart, leafStart + leaf.length) */
+		private Object[] leaf;
+		private int leafStart;
+		
+		
+		Iter(final int index) {
+			this.cursor= index;
+			this.leaf= EMPTY_ARRAY;
+		}
+		
+		
+		private int leafIndex(final int index) {
+			int i= index - this.leafStart;
+			if (i < 0 || i >= this.leaf.length) {
+				i= index;
+				Object node= ImTreeList.this.root;
+				for (int height= ImTreeList.this.height; height > 0; height--) {
+					final Branch branch= (Branch) node;
+					final int ci= branch.childIndex(i);
+					i-= branch.childStart(ci);
+					node= branch.children[ci];
+				}
+				this.leaf= (Object[]) node;
+				this.leafStart= index - i;
+			}
+			return i;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return (this.cursor < ImTreeList.this.size);
+		}
+		
+		@Override
+		public int nextIndex() {
+			return this.cursor;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public E next() {
+			if (this.cursor >= ImTreeList.this.size) {
+				throw new NoSuchElementException();
+			}
+			final int i= leafIndex(this.cursor++);
+			return (E) this.leaf[i];
+		}
+		
+		@Override
+		public boolean hasPrevious() {
+			return (this.cursor > 0);
+		}
+		
+		@Override
+		public int previousIndex() {
+			return this.cursor-1;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public E previous() {
+			if (this.cursor <= 0) {
+				throw new NoSuchElementException();
+			}
+			final int i= leafIndex(--this.cursor);
+			return (E) this.leaf[i];
+		}
+		
+	}
+	
+	
+	/** Leaf (Object[]) or Branch */
+	private final Object root;
+	/** 0 if root is a leaf */
+	private final int height;
+	
+	private final int size;
+	
+	
+	private ImTreeList(final Object root, final int height, final int size) {
+		this.root= root;
+		this.height= height;
+		this.size= size;
+	}
+	
+	
+	/**
+	 * Returns a new list with the element inserted at the specified position.
+	 * 
+	 * @param index the index of the new element
+	 * @param e the element to insert
+	 * @return the new list
+	 */
+	public ImTreeList<E> withAdded(final int index, final E e) {
+		if (index < 0 || index > this.size) {
+			throw new IndexOutOfBoundsException("index= " + index); //$NON-NLS-1$
+		}
+		final Object[] split= new Object[1];
+		final Object node= insert(this.root, this.height, index, e, split);
+		if (split[0] == null) {
+			return new ImTreeList<>(node, this.height, this.size + 1);
+		}
+		return new ImTreeList<>(createBranch(new Object[] { node, split[0] }, this.height),
+				this.height + 1, this.size + 1 );
+	}
+	
+	/**
+	 * Returns a new list with the elements of the specified array range appended to the
+	 * end of this list.
+	 * 
+	 * @param array the array with the elements (not used directly)
+	 * @param offset the index of the first element in the array
+	 * @param length the number of elements
+	 * @return the new list
+	 */
+	public ImTreeList<E> withAddedAll(final Object[] array, int offset, final int length) {
+		if (this.size == 0) {
+			return build(array, offset, length);
+		}
+		Object node= this.root;
+		int height= this.height;
+		final int end= offset + length;
+		final Object[] split= new Object[1];
+		while (offset < end) {
+			final int l= Math.min(end - offset, MAX_NODE_SIZE);
+			node= appendLeaf(node, height, Arrays.copyOfRange(array, offset, offset + l), split);
+			if (split[0] != null) {
+				node= createBranch(new Object[] { node, split[0] }, height++);
+				split[0]= null;
+			}
+			offset+= l;
+		}
+		return new ImTreeList<>(node, height, this.size + length);
+	}
+	
+	/**
+	 * Returns a new list with the element at the specified position replaced.
+	 * 
+	 * @param index the index of the element to replace
+	 * @param e the new element
+	 * @return the new list
+	 */
+	public ImTreeList<E> withSet(final int index, final E e) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("index= " + index); //$NON-NLS-1$
+		}
+		return new ImTreeList<>(set(this.root, this.height, index, e), this.height, this.size);
+	}
+	
+	/**
+	 * Returns a new list with the element at the specified position removed.
+	 * 
+	 * @param index the index of the element to remove
+	 * @return the new list
+	 */
+	public ImTreeList<E> withRemoved(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("index= " + index); //$NON-NLS-1$
+		}
+		Object node= remove(this.root, this.height, index);
+		if (node == null) {
+			return new ImTreeList<>(EMPTY_ARRAY, 0, 0);
+		}
+		int height= this.height;
+		while (height > 0 && ((Branch) node).children.length == 1) {
+			node= ((Branch) node).children[0];
+			height--;
+		}
+		return new ImTreeList<>(node, height, this.size - 1);
+	}
+	
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+	
+	@Override
+	public boolean contains(final Object o) {
+		return (indexOf(o) >= 0);
+	}
+	
+	@Override
+	public boolean containsAll(final Collection<?> c) {
+		final Iterator<?> e= c.iterator();
+		while (e.hasNext()) {
+			if (indexOf(e.next()) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("index= " + index); //$NON-NLS-1$
+		}
+		int i= index;
+		Object node= this.root;
+		for (int height= this.height; height > 0; height--) {
+			final Branch branch= (Branch) node;
+			final int ci= branch.childIndex(i);
+			i-= branch.childStart(ci);
+			node= branch.children[ci];
+		}
+		return (E) ((Object[]) node)[i];
+	}
+	
+	private Object[] getLeaf(int index) {
+		Object node= this.root;
+		for (int height= this.height; height > 0; height--) {
+			final Branch branch= (Branch) node;
+			final int ci= branch.childIndex(index);
+			index-= branch.childStart(ci);
+			node= branch.children[ci];
+		}
+		return (Object[]) node;
+	}
+	
+	@Override
+	public int indexOf(final Object o) {
+		int start= 0;
+		while (start < this.size) {
+			final Object[] leaf= getLeaf(start);
+			if (o == null) {
+				for (int i= 0; i < leaf.length; i++) {
+					if (null == leaf[i]) {
+						return start + i;
+					}
+				}
+			}
+			else {
+				for (int i= 0; i < leaf.length; i++) {
+					if (o.equals(leaf[i])) {
+						return start + i;
+					}
+				}
+			}
+			start+= leaf.length;
+		}
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(final Object o) {
+		int end= this.size;
+		while (end > 0) {
+			final Object[] leaf= getLeaf(end - 1);
+			end-= leaf.length;
+			if (o == null) {
+				for (int i= leaf.length - 1; i >= 0; i--) {
+					if (null == leaf[i]) {
+						return end + i;
+					}
+				}
+			}
+			else {
+				for (int i= leaf.length - 1; i >= 0; i--) {
+					if (o.equals(leaf[i])) {
+						return end + i;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+	
+	
+	@Override
+	public Iterator<E> iterator() {
+		return new Iter(0);
+	}
+	
+	@Override
+	public ListIterator<E> listIterator() {
+		return new Iter(0);
+	}
+	
+	@Override
+	public ListIterator<E> listIterator(final int index) {
+		if (index < 0 || index > this.size) {
+			throw new IndexOutOfBoundsException("index= " + index); //$NON-NLS-1$
+		}
+		return new Iter(index);
+	}
+	
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public ImList<E> subList(final int fromIndex, final int toIndex) {
+		if (fromIndex < 0 || toIndex > this.size) {
+			throw new IndexOutOfBoundsException("fromIndex= " + fromIndex + ", toIndex= " + toIndex + ", size= " + this.size); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		if (fromIndex > toIndex) {
+			throw new IllegalArgumentException("fromIndex > toIndex: fromIndex= " + fromIndex + ", toIndex= " + toIndex); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		final int l= toIndex - fromIndex;
+		if (l == this.size) {
+			return this;
+		}
+		else if (l == 0){
+			return ImEmptyList.INSTANCE;
+		}
+		else if (l == 1) {
+			return new ImSingletonList<>(get(fromIndex));
+		}
+		else {
+			final Object[] a= new Object[l];
+			copyTo(fromIndex, a, 0, l);
+			return new ImArrayList<>((E[]) a);
+		}
+	}
+	
+	@Override
+	public Object[] toArray() {
+		final Object[] dest= new Object[this.size];
+		copyTo(dest, 0);
+		return dest;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T[] toArray(final T[] dest) {
+		final int n= this.size;
+		final T[] a= (dest.length < n) ?
+				(T[]) Array.newInstance(dest.getClass().getComponentType(), n) :
+				dest;
+		copyTo(a, 0);
+		if (a.length > n) {
+			a[n]= null;
+		}
+		return a;
+	}
+	
+	@Override
+	public
+	void copyTo(final Object[] dest, final int destPos) {
+		copyTo(this.root, this.height, 0, this.size, dest, destPos);
+	}
+	
+	@Override
+	public
+	void copyTo(final int srcPos, final Object[] dest, final int destPos, final int length) {
+		if (length > 0) {
+			copyTo(this.root, this.height, srcPos, srcPos + length, dest, destPos);
+		}
+	}
+	
+	@Override
+	public
+	ImList<E> toImList() {
+		return this;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public
+	ImIdentityList<E> toImIdentityList() {
+		return new ImArrayIdentityList<>((E[]) toArray());
+	}
+	
+	
+	@Override
+	public int hashCode() {
+		int hashCode= 1;
+		for (final E e : this) {
+			hashCode= 31 * hashCode + ((e != null) ? e.hashCode() : 0);
+		}
+		return hashCode;
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof List) {
+			final List<?> other= (List<?>) obj;
+			if (this.size != other.size()) {
+				return false;
+			}
+			final Iterator<?> otherIter= other.iterator();
+			for (final E e : this) {
+				if (!((e != null) ?
+						e.equals(otherIter.next()) :
+						(null == otherIter.next()) )) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+	
+}
@@ -12,7 +12,7 @@
 package de.walware.jcommons.lang;
 
 
-public interface Builder<T extends Immutable> {
+public interface Builder<T> {
 	
 	
 	T build();
@@ -0,0 +1,27 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.lang;
+
+
+/**
+ * Predicate (boolean-valued function) of one argument.
+ * <p>
+ * Comparable to <code>java.util.function.Predicate</code> of Java 8.</p>
+ * 
+ * @param <T> the type of the argument
+ */
+public interface Predicate<T> {
+	
+	
+	boolean test(T t);
+	
+}
@@ -0,0 +1,70 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.string;
+
+
+/**
+ * Abstract base class for {@link IStringFactory} implementations.
+ * <p>
+ * The class adds optional operations to the interface with default implementations, which
+ * can be overridden by implementations providing a more efficient access.</p>
+ */
+public abstract class AbstractStringFactory implements IStringFactory {
+	
+	
+	protected AbstractStringFactory() {
+	}
+	
+	
+	/**
+	 * Returns the string for the specified char range.
+	 * <p>
+	 * Implementations should not create a string if a cached one is available. The default
+	 * implementation delegates to {@link #get(CharArrayString)}.</p>
+	 * 
+	 * @param array the source char array
+	 * @param offset the offset of the range in the array
+	 * @param length the length of the range
+	 * @return the string
+	 */
+	public String get(final char[] array, final int offset, final int length) {
+		return get(new CharArrayString(array, offset, length));
+	}
+	
+	/**
+	 * Returns the string for the specified range of UTF-8 encoded bytes.
+	 * <p>
+	 * Implementations should not create a string if a cached one is available. The default
+	 * implementation decodes the bytes and delegates to {@link #get(String, boolean)}.</p>
+	 * 
+	 * @param utf8 the source byte array
+	 * @param offset the offset of the range in the array
+	 * @param length the length of the range in bytes
+	 * @return the string
+	 */
+	public String getUtf8(final byte[] utf8, final int offset, final int length) {
+		return get(StringFactoryUtils.createUtf8(utf8, offset, length), true);
+	}
+	
+	
+	/**
+	 * Returns the statistics of the factory, if supported and enabled.
+	 * <p>
+	 * The default implementation returns <code>null</code>.</p>
+	 * 
+	 * @return the statistics or <code>null</code>
+	 */
+	public StringFactoryStatistics getStatistics() {
+		return null;
+	}
+	
+}
@@ -0,0 +1,401 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.string;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * A cache of fixed size, interning string, which can be shared by multiple threads.
+ * <p>
+ * The cache is set-associative: each hash code maps to a set of four slots.
+ * New values are published by compare-and-set, so neither lookups nor updates require
+ * a lock. If all slots of a set are occupied, one of them is overwritten.</p>
+ * <p>
+ * Optionally the cache doesn't use {@link String#intern()}, so the string instances
+ * are shared only by the users of the cache itself (private string table).</p>
+ */
+public class ConcurrentInternStringCache extends AbstractStringFactory {
+	
+	
+	private static final int WAYS= 4;
+	private static final int WAYS_SHIFT= 2;
+	
+	private static final int MAX_CAPACITY= 1 << 30;
+	
+	public static final int DEFAULT_CAPACITY= 0x1000;
+	
+	
+	private final AtomicReferenceArray<String> values;
+	private final int setMask;
+	
+	private final int maxCachedLength;
+	
+	private final boolean intern;
+	
+	private final StringFactoryStatistics stats;
+	
+	
+	/**
+	 * Creates a new cache of default capacity using {@link String#intern()}.
+	 * 
+	 * @param maxCachedLength the max length of strings to cache
+	 */
+	public ConcurrentInternStringCache(final int maxCachedLength) {
+		this(DEFAULT_CAPACITY, maxCachedLength, true);
+	}
+	
+	/**
+	 * Creates a new cache using {@link String#intern()}.
+	 * 
+	 * @param capacity the number of cached strings
+	 * @param maxCachedLength the max length of strings to cache
+	 */
+	public ConcurrentInternStringCache(final int capacity, final int maxCachedLength) {
+		this(capacity, maxCachedLength, true);
+	}
+	
+	/**
+	 * Creates a new cache.
+	 * 
+	 * @param capacity the number of cached strings, rounded up to the next power of two
+	 * @param maxCachedLength the max length of strings to cache
+	 * @param intern <code>true</code> to intern new values by {@link String#intern()},
+	 *     <code>false</code> to share them only via this cache
+	 */
+	public ConcurrentInternStringCache(final int capacity, final int maxCachedLength,
+			final boolean intern) {
+		this(capacity, maxCachedLength, intern, false);
+	}
+	
+	/**
+	 * Creates a new cache.
+	 * 
+	 * @param capacity the number of cached strings, rounded up to the next power of two
+	 * @param maxCachedLength the max length of strings to cache
+	 * @param intern <code>true</code> to intern new values by {@link String#intern()},
+	 *     <code>false</code> to share them only via this cache
+	 * @param collectStatistics <code>true</code> to enable the collection of
+	 *     {@link #getStatistics() statistics}
+	 */
+	public ConcurrentInternStringCache(final int capacity, final int maxCachedLength,
+			final boolean intern, final boolean collectStatistics) {
+		if (capacity < 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("capacity= " + capacity); //$NON-NLS-1$
+		}
+		final int size= (capacity > WAYS) ? Integer.highestOneBit((capacity - 1) << 1) : WAYS;
+		this.values= new AtomicReferenceArray<>(size);
+		this.setMask= (size >>> WAYS_SHIFT) - 1;
+		this.maxCachedLength= maxCachedLength;
+		this.intern= intern;
+		this.stats= (collectStatistics) ? new StringFactoryStatistics() : null;
+	}
+	
+	
+	/**
+	 * Returns the number of slots of the cache.
+	 * 
+	 * @return the capacity
+	 */
+	public final int getCapacity() {
+		return this.values.length();
+	}
+	
+	@Override
+	public StringFactoryStatistics getStatistics() {
+		return this.stats;
+	}
+	
+	
+	@Override
+	public String get(final CharArrayString s) {
+		switch (s.length()) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar(s.charAt(0));
+		default:
+			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return s.toString();
+			}
+			return getDefault(s, s.hashCode());
+		}
+	}
+	
+	@Override
+	public String get(final CharSequence s) {
+		switch (s.length()) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar(s.charAt(0));
+		default:
+			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return s.toString();
+			}
+			return getDefault(s, computeHash(s));
+		}
+	}
+	
+	@Override
+	public String get(final String s, final boolean isCompact) {
+		switch (s.length()) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar(s.charAt(0), s);
+		default:
+			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return (isCompact) ? s : new String(s);
+			}
+			return getDefault(s, isCompact);
+		}
+	}
+	
+	@Override
+	public String get(final char[] array, final int offset, final int length) {
+		switch (length) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar(array[offset]);
+		default:
+			if (length > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return new String(array, offset, length);
+			}
+			return getDefault(array, offset, length);
+		}
+	}
+	
+	@Override
+	public String getUtf8(final byte[] utf8, final int offset, final int length) {
+		final long info= StringFactoryUtils.hashCodeUtf8(utf8, offset, length);
+		if (info == -1) {
+			return get(StringFactoryUtils.createUtf8(utf8, offset, length), true);
+		}
+		final int charLength= (int) (info >>> 32);
+		switch (charLength) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar((char) info); // hashCode= c
+		default:
+			if (charLength > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return StringFactoryUtils.createUtf8(utf8, offset, length);
+			}
+			return getDefaultUtf8(utf8, offset, length, charLength, (int) info);
+		}
+	}
+	
+	
+	private int computeHash(final CharSequence s) {
+		int hashCode= 0;
+		int length= s.length();
+		int index= 0;
+		while (length-- != 0) {
+			hashCode= 31 * hashCode + s.charAt(index++);
+		}
+		return hashCode;
+	}
+	
+	private int indexOfSet(final int hashCode) {
+		return ((hashCode ^ (hashCode >>> 16)) & this.setMask) << WAYS_SHIFT;
+	}
+	
+	private String find(final int setIndex, final int hashCode, final CharSequence s) {
+		for (int i= 0; i < WAYS; i++) {
+			final String s1= this.values.get(setIndex + i);
+			if (s1 == null) {
+				return null; // slots are filled in order and never cleared
+			}
+			if (s1.hashCode() == hashCode && s1.contentEquals(s)) {
+				return s1;
+			}
+		}
+		return null;
+	}
+	
+	private String findChar(final int setIndex, final char c) {
+		for (int i= 0; i < WAYS; i++) {
+			final String s1= this.values.get(setIndex + i);
+			if (s1 == null) {
+				return null;
+			}
+			if (s1.length() == 1 && s1.charAt(0) == c) {
+				return s1;
+			}
+		}
+		return null;
+	}
+	
+	private String publish(final int setIndex, final int hashCode, final String s) {
+		for (int i= 0; i < WAYS; i++) {
+			String s1= this.values.get(setIndex + i);
+			if (s1 == null) {
+				if (this.values.compareAndSet(setIndex + i, null, s)) {
+					if (i > 0 && this.stats != null) {
+						this.stats.countCollision();
+					}
+					return s;
+				}
+				s1= this.values.get(setIndex + i);
+			}
+			if (s1.hashCode() == hashCode && s1.equals(s)) {
+				return s1; // published concurrently by another thread
+			}
+		}
+		if (this.stats != null) {
+			this.stats.countCollision();
+			this.stats.countOverwrite();
+		}
+		final int victim= (hashCode >>> 16) & (WAYS - 1);
+		this.values.set(setIndex + victim, s);
+		return s;
+	}
+	
+	private String create(final String s) {
+		return (this.intern) ? s.intern() : s;
+	}
+	
+	private String getChar(final char c) {
+		if (c < InternStringCache.CHARTABLE_SIZE) {
+			if (this.stats != null) {
+				this.stats.countCharTableHit();
+			}
+			return InternStringCache.CHARTABLE[c];
+		}
+		final int setIndex= indexOfSet(c); // hashCode= c
+		final String s1= findChar(setIndex, c);
+		if (s1 != null) {
+			if (this.stats != null) {
+				this.stats.countHit();
+			}
+			return s1;
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, c, create(String.valueOf(c)));
+	}
+	
+	private String getChar(final char c, final String s) {
+		if (c < InternStringCache.CHARTABLE_SIZE) {
+			if (this.stats != null) {
+				this.stats.countCharTableHit();
+			}
+			return InternStringCache.CHARTABLE[c];
+		}
+		final int setIndex= indexOfSet(c); // hashCode= c
+		final String s1= findChar(setIndex, c);
+		if (s1 != null) {
+			if (this.stats != null) {
+				this.stats.countHit();
+			}
+			return s1;
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, c, create(s));
+	}
+	
+	private String getDefault(final CharSequence s, final int hashCode) {
+		final int setIndex= indexOfSet(hashCode);
+		final String s1= find(setIndex, hashCode, s);
+		if (s1 != null) {
+			if (this.stats != null) {
+				this.stats.countHit();
+			}
+			return s1;
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, hashCode, create(s.toString()));
+	}
+	
+	private String getDefault(final String s, final boolean isCompact) {
+		final int hashCode= s.hashCode();
+		final int setIndex= indexOfSet(hashCode);
+		final String s1= find(setIndex, hashCode, s);
+		if (s1 != null) {
+			if (this.stats != null) {
+				this.stats.countHit();
+			}
+			return s1;
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, hashCode, create((isCompact) ? s : new String(s)));
+	}
+	
+	private String getDefault(final char[] array, final int offset, final int length) {
+		final int hashCode= StringFactoryUtils.hashCode(array, offset, length);
+		final int setIndex= indexOfSet(hashCode);
+		for (int i= 0; i < WAYS; i++) {
+			final String s1= this.values.get(setIndex + i);
+			if (s1 == null) {
+				break;
+			}
+			if (s1.hashCode() == hashCode
+					&& StringFactoryUtils.contentEquals(s1, array, offset, length) ) {
+				if (this.stats != null) {
+					this.stats.countHit();
+				}
+				return s1;
+			}
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, hashCode, create(new String(array, offset, length)));
+	}
+	
+	private String getDefaultUtf8(final byte[] utf8, final int offset, final int length,
+			final int charLength, final int hashCode) {
+		final int setIndex= indexOfSet(hashCode);
+		for (int i= 0; i < WAYS; i++) {
+			final String s1= this.values.get(setIndex + i);
+			if (s1 == null) {
+				break;
+			}
+			if (s1.hashCode() == hashCode
+					&& StringFactoryUtils.contentEqualsUtf8(s1, utf8, offset, length, charLength) ) {
+				if (this.stats != null) {
+					this.stats.countHit();
+				}
+				return s1;
+			}
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+		}
+		return publish(setIndex, hashCode, create(StringFactoryUtils.createUtf8(utf8, offset, length)));
+	}
+	
+}
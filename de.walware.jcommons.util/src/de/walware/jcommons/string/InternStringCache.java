@@ -13,16 +13,27 @@ package de.walware.jcommons.string;
 
 
 /**
- * A cache of fixed size, interning string
+ * A cache of limited size, interning string
+ * <p>
+ * The cache is 2-way set-associative: each hash code maps to a set of two slots; if both
+ * slots are occupied, the least recently used one is replaced.</p>
+ * <p>
+ * By default the cache has a fixed size. Optionally it grows its table on demand (if
+ * strings are frequently replaced) up to a specified maximum size. Each slot of the table
+ * costs a reference (and one bit for the replacement policy), no objects are allocated per
+ * entry.</p>
+ * <p>
+ * The class is not thread-safe; an instance must be confined to one thread (or guarded by an
+ * external lock). For concurrent access see {@link ConcurrentInternStringCache}.</p>
  */
-public class InternStringCache implements IStringFactory {
+public class InternStringCache extends AbstractStringFactory {
 	
 	
-	private static final int HASHSET_SIZE= 0x400;
-	private static final int HASHSET_MASK= HASHSET_SIZE - 1; // bits true from right
+	private static final int DEFAULT_SIZE= 0x400;
+	private static final int MAX_SIZE= 1 << 30;
 	
-	private static final int CHARTABLE_SIZE= 0x7F;
-	private static final String[] CHARTABLE;
+	static final int CHARTABLE_SIZE= 0x7F;
+	static final String[] CHARTABLE;
 	static {
 		CHARTABLE= new String[CHARTABLE_SIZE];
 		for (char i= 0; i < CHARTABLE_SIZE; i++) {
@@ -31,14 +42,118 @@ public class InternStringCache implements IStringFactory {
 	}
 	
 	
-	private final String[] values;
+	private static int checkSize(final int size) {
+		if (size <= 2) {
+			return 2;
+		}
+		if (size >= MAX_SIZE) {
+			return MAX_SIZE;
+		}
+		return Integer.highestOneBit((size - 1) << 1);
+	}
+	
+	
+	/**
+	 * The table of the cache; it is replaced as a whole if the cache grows, so a table read
+	 * once is consistent.
+	 */
+	private static final class Table {
+		
+		/** set i: slots 2*i and 2*i+1 */
+		final String[] values;
+		/** set i: bit i, the way of the most recently used slot */
+		final long[] mruWays;
+		
+		final int setMask;
+		
+		
+		public Table(final int size) {
+			this.values= new String[size];
+			this.mruWays= new long[((size >>> 1) + 63) >>> 6];
+			this.setMask= (size >>> 1) - 1;
+		}
+		
+		
+		public int indexOfSet(final int hashCode) {
+			return ((hashCode ^ (hashCode >>> 16)) & this.setMask);
+		}
+		
+		public void setMru(final int set, final int way) {
+			final long bit= 1L << set;
+			if (way == 0) {
+				this.mruWays[set >>> 6]&= ~bit;
+			}
+			else {
+				this.mruWays[set >>> 6]|= bit;
+			}
+		}
+		
+	}
+	
+	
+	private Table table;
+	
+	private final int maxSize;
+	
+	private int replacedCount;
 	
 	private final int maxCachedLength;
 	
+	private final StringFactoryStatistics stats;
+	
 	
 	public InternStringCache(final int maxCachedLength) {
-		this.values= new String[HASHSET_MASK + 1];
+		this(maxCachedLength, false);
+	}
+	
+	/**
+	 * Creates a new cache of fixed size.
+	 * 
+	 * @param maxCachedLength the max length of strings to cache
+	 * @param collectStatistics <code>true</code> to enable the collection of
+	 *     {@link #getStatistics() statistics}
+	 */
+	public InternStringCache(final int maxCachedLength, final boolean collectStatistics) {
+		this(DEFAULT_SIZE, DEFAULT_SIZE, maxCachedLength, collectStatistics);
+	}
+	
+	/**
+	 * Creates a new cache growing on demand.
+	 * <p>
+	 * The table is doubled if the number of replaced strings since the last resize exceeds
+	 * a quarter of the table size, until the max size is reached.</p>
+	 * 
+	 * @param initialSize the initial number of slots, rounded up to the next power of two
+	 * @param maxSize the max number of slots (memory budget), rounded up to the next power
+	 *     of two
+	 * @param maxCachedLength the max length of strings to cache
+	 * @param collectStatistics <code>true</code> to enable the collection of
+	 *     {@link #getStatistics() statistics}
+	 */
+	public InternStringCache(final int initialSize, final int maxSize,
+			final int maxCachedLength, final boolean collectStatistics) {
+		if (initialSize < 0 || maxSize < initialSize) {
+			throw new IllegalArgumentException("initialSize= " + initialSize + ", maxSize= " + maxSize); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.table= new Table(checkSize(initialSize));
+		this.maxSize= checkSize(maxSize);
 		this.maxCachedLength= maxCachedLength;
+		this.stats= (collectStatistics) ? new StringFactoryStatistics() : null;
+	}
+	
+	
+	/**
+	 * Returns the current number of slots of the cache.
+	 * 
+	 * @return the capacity
+	 */
+	public final int getCapacity() {
+		return this.table.values.length;
+	}
+	
+	@Override
+	public StringFactoryStatistics getStatistics() {
+		return this.stats;
 	}
 	
 	
@@ -51,6 +166,9 @@ public class InternStringCache implements IStringFactory {
 			return getChar(s.charAt(0));
 		default:
 			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
 				return s.toString();
 			}
 			return getDefault(s);
@@ -66,6 +184,9 @@ public class InternStringCache implements IStringFactory {
 			return getChar(s.charAt(0));
 		default:
 			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
 				return s.toString();
 			}
 			return getDefault(s);
@@ -81,44 +202,129 @@ public class InternStringCache implements IStringFactory {
 			return getChar(s.charAt(0), s);
 		default:
 			if (s.length() > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
 				return (isCompact) ? s : new String(s);
 			}
 			return getDefault(s);
 		}
 	}
 	
+	@Override
+	public String get(final char[] array, final int offset, final int length) {
+		switch (length) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar(array[offset]);
+		default:
+			if (length > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return new String(array, offset, length);
+			}
+			return getDefault(array, offset, length);
+		}
+	}
 	
-	private String getChar(final char c) {
-		if (c >= 0 && c < CHARTABLE_SIZE) {
-//			fStatCharmap++;
-			return CHARTABLE[c];
+	@Override
+	public String getUtf8(final byte[] utf8, final int offset, final int length) {
+		final long info= StringFactoryUtils.hashCodeUtf8(utf8, offset, length);
+		if (info == -1) {
+			return get(StringFactoryUtils.createUtf8(utf8, offset, length), true);
 		}
-		else {
-			final int i1= ((c - CHARTABLE_SIZE) & HASHSET_MASK); // hashCode= c
-			final String s1= this.values[i1];
-			if (s1 != null && s1.length() == 1 && s1.charAt(0) == c) {
-//				fStatFound++;
-				return s1;
+		final int charLength= (int) (info >>> 32);
+		switch (charLength) {
+		case 0:
+			return ""; //$NON-NLS-1$
+		case 1:
+			return getChar((char) info); // hashCode= c
+		default:
+			if (charLength > this.maxCachedLength) {
+				if (this.stats != null) {
+					this.stats.countUncached();
+				}
+				return StringFactoryUtils.createUtf8(utf8, offset, length);
 			}
-//			fStatSet++;
-			return (this.values[i1]= String.valueOf(c).intern());
+			return getDefaultUtf8(utf8, offset, length, charLength, (int) info);
 		}
 	}
 	
-	private String getChar(final char c, final String s) {
-		if (c >= 0 && c < CHARTABLE_SIZE) {
-//			fStatCharmap++;
-			return CHARTABLE[c];
+	
+	private String hit(final Table table, final int set, final int way, final String s) {
+		table.setMru(set, way);
+		if (this.stats != null) {
+			this.stats.countHit();
+		}
+		return s;
+	}
+	
+	private String put(final Table table, final int set, final String s) {
+		final int i= (set << 1);
+		final int way;
+		boolean replace= false;
+		if (table.values[i] == null) {
+			way= 0;
+		}
+		else if (table.values[i + 1] == null) {
+			way= 1;
 		}
 		else {
-			final int i1= ((c - CHARTABLE_SIZE) & HASHSET_MASK); // hashCode= c
-			final String s1= this.values[i1];
-			if (s1 != null && s1.length() == 1 && s1.charAt(0) == c) {
-//				fStatFound++;
-				return s1;
+			way= ((table.mruWays[set >>> 6] & (1L << set)) != 0) ? 0 : 1;
+			replace= true;
+		}
+		if (this.stats != null) {
+			this.stats.countMiss();
+			if (replace) {
+				this.stats.countCollision();
+				this.stats.countOverwrite();
+			}
+			else if (way > 0) {
+				this.stats.countCollision();
+			}
+		}
+		table.values[i + way]= s;
+		table.setMru(set, way);
+		if (replace && ++this.replacedCount > (table.values.length >>> 2)
+				&& table.values.length < this.maxSize) {
+			grow(table);
+		}
+		return s;
+	}
+	
+	private void grow(final Table oldTable) {
+		final int oldSets= oldTable.values.length >>> 1;
+		final Table table= new Table(oldTable.values.length << 1);
+		
+		// each new set gets the entries of exactly one old set, so no entry is lost
+		for (int set= 0; set < oldSets; set++) {
+			final int mruWay= ((oldTable.mruWays[set >>> 6] & (1L << set)) != 0) ? 1 : 0;
+			final String lru= oldTable.values[(set << 1) + (1 - mruWay)];
+			final String mru= oldTable.values[(set << 1) + mruWay];
+			if (lru != null) {
+				rehash(table, lru);
+			}
+			if (mru != null) {
+				rehash(table, mru);
 			}
-//			fStatSet++;
-			return (this.values[i1]= s.intern());
+		}
+		
+		this.table= table;
+		this.replacedCount= 0;
+	}
+	
+	private void rehash(final Table table, final String s) {
+		final int set= table.indexOfSet(s.hashCode());
+		final int i= (set << 1);
+		if (table.values[i] == null) {
+			table.values[i]= s;
+			table.setMru(set, 0);
+		}
+		else {
+			table.values[i + 1]= s;
+			table.setMru(set, 1);
 		}
 	}
 	
@@ -132,54 +338,137 @@ public class InternStringCache implements IStringFactory {
 		return hashCode;
 	}
 	
+	private String getChar(final char c) {
+		if (c < CHARTABLE_SIZE) {
+			if (this.stats != null) {
+				this.stats.countCharTableHit();
+			}
+			return CHARTABLE[c];
+		}
+		else {
+			final Table table= this.table;
+			final int set= table.indexOfSet(c); // hashCode= c
+			final String s1= findChar(table, set, c);
+			if (s1 != null) {
+				return hit(table, set, (table.values[set << 1] == s1) ? 0 : 1, s1);
+			}
+			return put(table, set, String.valueOf(c).intern());
+		}
+	}
+	
+	private String getChar(final char c, final String s) {
+		if (c < CHARTABLE_SIZE) {
+			if (this.stats != null) {
+				this.stats.countCharTableHit();
+			}
+			return CHARTABLE[c];
+		}
+		else {
+			final Table table= this.table;
+			final int set= table.indexOfSet(c); // hashCode= c
+			final String s1= findChar(table, set, c);
+			if (s1 != null) {
+				return hit(table, set, (table.values[set << 1] == s1) ? 0 : 1, s1);
+			}
+			return put(table, set, s.intern());
+		}
+	}
+	
+	private String findChar(final Table table, final int set, final char c) {
+		final int i= (set << 1);
+		String s1= table.values[i];
+		if (s1 != null && s1.length() == 1 && s1.charAt(0) == c) {
+			return s1;
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s1.length() == 1 && s1.charAt(0) == c) {
+			return s1;
+		}
+		return null;
+	}
+	
 	private String getDefault(final CharArrayString s) {
 		final int hashCode= s.hashCode();
-		final int i1= (hashCode & HASHSET_MASK);
-		final String s1= this.values[i1];
+		final Table table= this.table;
+		final int set= table.indexOfSet(hashCode);
+		final int i= (set << 1);
+		String s1= table.values[i];
 		if (s1 != null && s.contentEquals(s1)) {
-//			fStatFound++;
-			return s1;
+			return hit(table, set, 0, s1);
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s.contentEquals(s1)) {
+			return hit(table, set, 1, s1);
 		}
-//		fStatSet++;
-		return (this.values[i1]= s.toString().intern());
+		return put(table, set, s.toString().intern());
 	}
 	
 	private String getDefault(final CharSequence s) {
 		final int hashCode= computeHash(s);
-		final int i1= (hashCode & HASHSET_MASK);
-		final String s1= this.values[i1];
+		final Table table= this.table;
+		final int set= table.indexOfSet(hashCode);
+		final int i= (set << 1);
+		String s1= table.values[i];
 		if (s1 != null && s1.hashCode() == hashCode && s1.contentEquals(s)) {
-//			fStatFound++;
-			return s1;
+			return hit(table, set, 0, s1);
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s1.hashCode() == hashCode && s1.contentEquals(s)) {
+			return hit(table, set, 1, s1);
 		}
-//		fStatSet++;
-		return (this.values[i1]= s.toString().intern());
+		return put(table, set, s.toString().intern());
 	}
 	
 	private String getDefault(final String s) {
 		final int hashCode= s.hashCode();
-		final int i1= (hashCode & HASHSET_MASK);
-		final String s1= this.values[i1];
+		final Table table= this.table;
+		final int set= table.indexOfSet(hashCode);
+		final int i= (set << 1);
+		String s1= table.values[i];
 		if (s1 != null && s1.hashCode() == hashCode && s1.equals(s)) {
-//			fStatFound++;
-			return s1;
+			return hit(table, set, 0, s1);
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s1.hashCode() == hashCode && s1.equals(s)) {
+			return hit(table, set, 1, s1);
 		}
-//		fStatSet++;
-		return (this.values[i1]= s.intern());
+		return put(table, set, s.intern());
 	}
 	
+	private String getDefault(final char[] array, final int offset, final int length) {
+		final int hashCode= StringFactoryUtils.hashCode(array, offset, length);
+		final Table table= this.table;
+		final int set= table.indexOfSet(hashCode);
+		final int i= (set << 1);
+		String s1= table.values[i];
+		if (s1 != null && s1.hashCode() == hashCode
+				&& StringFactoryUtils.contentEquals(s1, array, offset, length) ) {
+			return hit(table, set, 0, s1);
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s1.hashCode() == hashCode
+				&& StringFactoryUtils.contentEquals(s1, array, offset, length) ) {
+			return hit(table, set, 1, s1);
+		}
+		return put(table, set, new String(array, offset, length).intern());
+	}
 	
-//	private long fStatCharmap= 0;
-//	private long fStatFound= 0;
-//	private long fStatSet= 0;
-//	
-//	@Override
-//	public String toString() {
-//		final double charmap= fStatCharmap;
-//		final double set= fStatSet;
-//		final double found= fStatFound;
-//		final double sum= charmap+set+found;
-//		return "StringCache stat: sum="+ sum +" char=" + charmap/sum + " found=" + found/sum + " set=" + set/sum; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-//	}
+	private String getDefaultUtf8(final byte[] utf8, final int offset, final int length,
+			final int charLength, final int hashCode) {
+		final Table table= this.table;
+		final int set= table.indexOfSet(hashCode);
+		final int i= (set << 1);
+		String s1= table.values[i];
+		if (s1 != null && s1.hashCode() == hashCode
+				&& StringFactoryUtils.contentEqualsUtf8(s1, utf8, offset, length, charLength) ) {
+			return hit(table, set, 0, s1);
+		}
+		s1= table.values[i + 1];
+		if (s1 != null && s1.hashCode() == hashCode
+				&& StringFactoryUtils.contentEqualsUtf8(s1, utf8, offset, length, charLength) ) {
+			return hit(table, set, 1, s1);
+		}
+		return put(table, set, StringFactoryUtils.createUtf8(utf8, offset, length).intern());
+	}
 	
 }
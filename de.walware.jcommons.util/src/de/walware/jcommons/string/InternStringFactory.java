@@ -12,7 +12,7 @@
 package de.walware.jcommons.string;
 
 
-public final class InternStringFactory implements IStringFactory {
+public final class InternStringFactory extends AbstractStringFactory {
 	
 	
 	public static final IStringFactory INSTANCE = new InternStringFactory();
@@ -37,4 +37,14 @@ public final class InternStringFactory implements IStringFactory {
 		return s.intern();
 	}
 	
+	@Override
+	public String get(final char[] array, final int offset, final int length) {
+		return new String(array, offset, length).intern();
+	}
+	
+	@Override
+	public String getUtf8(final byte[] utf8, final int offset, final int length) {
+		return StringFactoryUtils.createUtf8(utf8, offset, length).intern();
+	}
+	
 }
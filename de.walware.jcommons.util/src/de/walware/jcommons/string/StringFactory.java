@@ -12,7 +12,7 @@
 package de.walware.jcommons.string;
 
 
-public final class StringFactory implements IStringFactory {
+public final class StringFactory extends AbstractStringFactory {
 	
 	
 	public static final StringFactory INSTANCE = new StringFactory();
@@ -37,4 +37,14 @@ public final class StringFactory implements IStringFactory {
 		return (isCompact) ? s : new String(s);
 	}
 	
+	@Override
+	public String get(final char[] array, final int offset, final int length) {
+		return new String(array, offset, length);
+	}
+	
+	@Override
+	public String getUtf8(final byte[] utf8, final int offset, final int length) {
+		return StringFactoryUtils.createUtf8(utf8, offset, length);
+	}
+	
 }
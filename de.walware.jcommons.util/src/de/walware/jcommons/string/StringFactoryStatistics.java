@@ -0,0 +1,240 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.string;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.walware.jcommons.lang.Immutable;
+
+
+/**
+ * Statistics of a string factory (cache), see {@link AbstractStringFactory#getStatistics()}.
+ * <p>
+ * The counters are striped by thread to keep the overhead low if the factory is
+ * used by multiple threads concurrently. The values of a snapshot are therefore
+ * not necessarily consistent with each other, if the factory is in use.</p>
+ */
+public final class StringFactoryStatistics {
+	
+	
+	public static final class Snapshot implements Immutable {
+		
+		
+		private final long hitCount;
+		private final long charTableHitCount;
+		private final long missCount;
+		private final long collisionCount;
+		private final long overwriteCount;
+		private final long uncachedCount;
+		
+		
+		private Snapshot(final long[] counts) {
+			this.hitCount= counts[HIT];
+			this.charTableHitCount= counts[CHAR_TABLE_HIT];
+			this.missCount= counts[MISS];
+			this.collisionCount= counts[COLLISION];
+			this.overwriteCount= counts[OVERWRITE];
+			this.uncachedCount= counts[UNCACHED];
+		}
+		
+		
+		/**
+		 * Returns the number of requests answered by a cached string.
+		 * 
+		 * @return the count
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+		
+		/**
+		 * Returns the number of requests answered by the static table of single chars.
+		 * 
+		 * @return the count
+		 */
+		public long getCharTableHitCount() {
+			return this.charTableHitCount;
+		}
+		
+		/**
+		 * Returns the number of requests requiring to create a new string.
+		 * 
+		 * @return the count
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+		
+		/**
+		 * Returns the number of misses where the slot(s) for the string was occupied by
+		 * another string.
+		 * 
+		 * @return the count
+		 */
+		public long getCollisionCount() {
+			return this.collisionCount;
+		}
+		
+		/**
+		 * Returns the number of cached strings replaced by another string.
+		 * 
+		 * @return the count
+		 */
+		public long getOverwriteCount() {
+			return this.overwriteCount;
+		}
+		
+		/**
+		 * Returns the number of requests for strings not cached because they exceed the max
+		 * length of the cache.
+		 * 
+		 * @return the count
+		 */
+		public long getUncachedCount() {
+			return this.uncachedCount;
+		}
+		
+		/**
+		 * Returns the total number of requests (hits, misses and uncached).
+		 * 
+		 * @return the count
+		 */
+		public long getRequestCount() {
+			return this.hitCount + this.charTableHitCount + this.missCount + this.uncachedCount;
+		}
+		
+		
+		@Override
+		public String toString() {
+			final double sum= getRequestCount();
+			return "StringFactory stat: sum= " + (long) sum //$NON-NLS-1$
+					+ " char= " + this.charTableHitCount / sum //$NON-NLS-1$
+					+ " found= " + this.hitCount / sum //$NON-NLS-1$
+					+ " set= " + this.missCount / sum //$NON-NLS-1$
+					+ " (collision= " + this.collisionCount / sum //$NON-NLS-1$
+					+ " overwrite= " + this.overwriteCount / sum + ")" //$NON-NLS-1$ //$NON-NLS-2$
+					+ " uncached= " + this.uncachedCount / sum; //$NON-NLS-1$
+		}
+		
+	}
+	
+	
+	private static final int HIT= 0;
+	private static final int CHAR_TABLE_HIT= 1;
+	private static final int MISS= 2;
+	private static final int COLLISION= 3;
+	private static final int OVERWRITE= 4;
+	private static final int UNCACHED= 5;
+	private static final int COUNTERS= 6;
+	
+	/** Number of longs per stripe, padded to 64 bytes to avoid false sharing */
+	private static final int STRIPE_SIZE= 8;
+	
+	private static final int MAX_STRIPES= 64;
+	
+	
+	private final AtomicLongArray counts;
+	
+	private final int stripeMask;
+	
+	
+	public StringFactoryStatistics() {
+		int stripes= Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+		if (stripes > MAX_STRIPES) {
+			stripes= MAX_STRIPES;
+		}
+		this.counts= new AtomicLongArray(stripes * STRIPE_SIZE);
+		this.stripeMask= stripes - 1;
+	}
+	
+	
+	private void increment(final int counter) {
+		final int stripe= (int) Thread.currentThread().getId() & this.stripeMask;
+		this.counts.getAndIncrement(stripe * STRIPE_SIZE + counter);
+	}
+	
+	public void countHit() {
+		increment(HIT);
+	}
+	
+	public void countCharTableHit() {
+		increment(CHAR_TABLE_HIT);
+	}
+	
+	public void countMiss() {
+		increment(MISS);
+	}
+	
+	public void countCollision() {
+		increment(COLLISION);
+	}
+	
+	public void countOverwrite() {
+		increment(OVERWRITE);
+	}
+	
+	public void countUncached() {
+		increment(UNCACHED);
+	}
+	
+	
+	/**
+	 * Returns a snapshot of the current values.
+	 * 
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshot() {
+		final long[] sums= new long[COUNTERS];
+		final int length= this.counts.length();
+		for (int i= 0; i < length; i+= STRIPE_SIZE) {
+			for (int counter= 0; counter < COUNTERS; counter++) {
+				sums[counter]+= this.counts.get(i + counter);
+			}
+		}
+		return new Snapshot(sums);
+	}
+	
+	/**
+	 * Resets all counters to zero.
+	 */
+	public void reset() {
+		final int length= this.counts.length();
+		for (int i= 0; i < length; i+= STRIPE_SIZE) {
+			for (int counter= 0; counter < COUNTERS; counter++) {
+				this.counts.set(i + counter, 0);
+			}
+		}
+	}
+	
+	/**
+	 * Returns a snapshot of the current values and resets the counters.
+	 * 
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshotAndReset() {
+		final long[] sums= new long[COUNTERS];
+		final int length= this.counts.length();
+		for (int i= 0; i < length; i+= STRIPE_SIZE) {
+			for (int counter= 0; counter < COUNTERS; counter++) {
+				sums[counter]+= this.counts.getAndSet(i + counter, 0);
+			}
+		}
+		return new Snapshot(sums);
+	}
+	
+	
+	@Override
+	public String toString() {
+		return getSnapshot().toString();
+	}
+	
+}
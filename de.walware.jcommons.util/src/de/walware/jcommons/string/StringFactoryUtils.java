@@ -0,0 +1,164 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.jcommons.string;
+
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Hash and compare of char and UTF-8 byte ranges without creating a string.
+ */
+final class StringFactoryUtils {
+	
+	
+	/**
+	 * Computes the hash code of the char range like {@link String#hashCode()}.
+	 */
+	static int hashCode(final char[] array, int offset, int length) {
+		int hashCode= 0;
+		while (length-- != 0) {
+			hashCode= 31 * hashCode + array[offset++];
+		}
+		return hashCode;
+	}
+	
+	static boolean contentEquals(final String s, final char[] array, int offset, final int length) {
+		if (s.length() != length) {
+			return false;
+		}
+		for (int i= 0; i < length; i++) {
+			if (s.charAt(i) != array[offset++]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * Decodes the UTF-8 sequence at the specified offset.
+	 * 
+	 * @return the code point | (number of bytes &lt;&lt; 24), or <code>-1</code> if malformed
+	 */
+	private static int decodeUtf8Char(final byte[] bytes, final int offset, final int end) {
+		final int b0= bytes[offset];
+		if (b0 >= 0) {
+			return b0 | (1 << 24);
+		}
+		if ((b0 & 0xE0) == 0xC0) {
+			if (offset + 1 >= end) {
+				return -1;
+			}
+			final int b1= bytes[offset + 1];
+			if ((b1 & 0xC0) != 0x80) {
+				return -1;
+			}
+			final int c= ((b0 & 0x1F) << 6) | (b1 & 0x3F);
+			return (c >= 0x80) ? (c | (2 << 24)) : -1;
+		}
+		if ((b0 & 0xF0) == 0xE0) {
+			if (offset + 2 >= end) {
+				return -1;
+			}
+			final int b1= bytes[offset + 1];
+			final int b2= bytes[offset + 2];
+			if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80) {
+				return -1;
+			}
+			final int c= ((b0 & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F);
+			return (c >= 0x800 && (c < 0xD800 || c > 0xDFFF)) ? (c | (3 << 24)) : -1;
+		}
+		if ((b0 & 0xF8) == 0xF0) {
+			if (offset + 3 >= end) {
+				return -1;
+			}
+			final int b1= bytes[offset + 1];
+			final int b2= bytes[offset + 2];
+			final int b3= bytes[offset + 3];
+			if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80 || (b3 & 0xC0) != 0x80) {
+				return -1;
+			}
+			final int c= ((b0 & 0x07) << 18) | ((b1 & 0x3F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F);
+			return (c >= 0x10000 && c <= 0x10FFFF) ? (c | (4 << 24)) : -1;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Computes the hash code (like {@link String#hashCode()}) and the number of chars of the
+	 * UTF-8 encoded byte range.
+	 * 
+	 * @return the number of chars &lt;&lt; 32 | the hash code, or <code>-1</code> if the
+	 *     input is malformed
+	 */
+	static long hashCodeUtf8(final byte[] bytes, int offset, final int length) {
+		final int end= offset + length;
+		int hashCode= 0;
+		int count= 0;
+		while (offset < end) {
+			final int d= decodeUtf8Char(bytes, offset, end);
+			if (d < 0) {
+				return -1;
+			}
+			offset+= (d >>> 24);
+			final int c= (d & 0xFFFFFF);
+			if (c < 0x10000) {
+				hashCode= 31 * hashCode + c;
+				count++;
+			}
+			else {
+				hashCode= 31 * hashCode + Character.highSurrogate(c);
+				hashCode= 31 * hashCode + Character.lowSurrogate(c);
+				count+= 2;
+			}
+		}
+		return ((long) count << 32) | (hashCode & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Compares the string with the UTF-8 encoded byte range, which must be well-formed.
+	 */
+	static boolean contentEqualsUtf8(final String s, final byte[] bytes, int offset, final int length,
+			final int charLength) {
+		if (s.length() != charLength) {
+			return false;
+		}
+		final int end= offset + length;
+		int i= 0;
+		while (offset < end) {
+			final int d= decodeUtf8Char(bytes, offset, end);
+			offset+= (d >>> 24);
+			final int c= (d & 0xFFFFFF);
+			if (c < 0x10000) {
+				if (s.charAt(i++) != c) {
+					return false;
+				}
+			}
+			else {
+				if (s.charAt(i++) != Character.highSurrogate(c)
+						|| s.charAt(i++) != Character.lowSurrogate(c)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	static String createUtf8(final byte[] bytes, final int offset, final int length) {
+		return new String(bytes, offset, length, StandardCharsets.UTF_8);
+	}
+	
+	
+	private StringFactoryUtils() {
+	}
+	
+}
@@ -61,6 +61,10 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * An {@link DoubleList} backed by an array of <code>double</code>s.
@@ -194,6 +198,35 @@ public class ArrayDoubleList extends RandomAccessDoubleList implements DoubleLis
         _size++;
     }
 
+    // stream and bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Returns a {@link Spliterator} over my elements, splitting my backing
+     * array directly.  The spliterator binds to my current backing array 
+     * and size when created, so I must not be structurally modified
+     * during the traversal.
+     * 
+     * @return a spliterator over my elements
+     */
+    public Spliterator.OfDouble spliterator() {
+        return Spliterators.spliterator(_data, 0, _size, Spliterator.ORDERED);
+    }
+
+    public void replaceAll(DoubleUnaryOperator operator) {
+        incrModCount();
+        double[] data = _data;
+        for(int i = 0; i < _size; i++) {
+            data[i] = operator.applyAsDouble(data[i]);
+        }
+    }
+
+    public void parallelReplaceAll(final DoubleUnaryOperator operator) {
+        incrModCount();
+        final double[] data = _data;
+        IntStream.range(0, _size).parallel().forEach(i -> data[i] = operator.applyAsDouble(data[i]));
+    }
+
     // capacity methods
     //-------------------------------------------------------------------------
 
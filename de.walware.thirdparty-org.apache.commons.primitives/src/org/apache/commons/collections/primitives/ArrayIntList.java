@@ -61,6 +61,11 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * An {@link IntList} backed by an array of <code>int</code>s.
@@ -194,6 +199,262 @@ public class ArrayIntList extends RandomAccessIntList implements IntList, Serial
         _size++;
     }
 
+    // bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Appends the specified range of the given array to the end of me, 
+     * in order.
+     * 
+     * @param elements the array containing the elements to add
+     * @param offset the index of the first element to add
+     * @param length the number of elements to add
+     * @return <code>true</code> iff I changed as a result of this call
+     * 
+     * @throws NullPointerException if <i>elements</i> is <code>null</code>
+     * @throws IndexOutOfBoundsException if the specified range is out of 
+     *         the bounds of <i>elements</i>
+     */
+    public boolean addAll(int[] elements, int offset, int length) {
+        if(offset < 0 || length < 0 || offset > elements.length - length) {
+            throw new IndexOutOfBoundsException("Should be within 0 and " + elements.length + ", found " + offset + " with length " + length);
+        }
+        if(length == 0) {
+            return false;
+        }
+        ensureCapacity(_size+length);
+        System.arraycopy(elements,offset,_data,_size,length);
+        _size += length;
+        return true;
+    }
+
+    /** 
+     * Copies the elements in the specified range of me into the given
+     * array, starting at the specified position of the array.
+     * 
+     * @param fromIndex the index of the first element to copy
+     * @param toIndex the index after the last element to copy
+     * @param dest the destination array
+     * @param destOffset the index in <i>dest</i> of the first copied element
+     * @return <i>dest</i>
+     * 
+     * @throws NullPointerException if <i>dest</i> is <code>null</code>
+     * @throws IndexOutOfBoundsException if the specified ranges are out of 
+     *         bounds
+     */
+    public int[] toArray(int fromIndex, int toIndex, int[] dest, int destOffset) {
+        checkRangeIncludingEndpoint(toIndex);
+        if(fromIndex < 0 || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Should be at least 0 and at most " + toIndex + ", found " + fromIndex);
+        }
+        System.arraycopy(_data,fromIndex,dest,destOffset,toIndex-fromIndex);
+        return dest;
+    }
+
+    public int[] toArray() {
+        int[] array = new int[_size];
+        System.arraycopy(_data,0,array,0,_size);
+        return array;
+    }
+
+    public int[] toArray(int[] a) {
+        if(a.length < _size) {
+            return toArray();
+        }
+        System.arraycopy(_data,0,a,0,_size);
+        return a;
+    }
+
+    /** 
+     * Sorts my elements into ascending numerical order.
+     */
+    public void sort() {
+        incrModCount();
+        Arrays.sort(_data,0,_size);
+    }
+
+    /** 
+     * Searches the specified value using the binary search algorithm.
+     * I must be sorted in ascending order (as by {@link #sort}), 
+     * otherwise the result is undefined.
+     * 
+     * @param key the value to search for
+     * @return the index of the value, if it is contained; otherwise
+     *         <code>(-(<i>insertion point</i>) - 1)</code> 
+     * @see Arrays#binarySearch(int[], int, int, int)
+     */
+    public int binarySearch(int key) {
+        return Arrays.binarySearch(_data,0,_size,key);
+    }
+
+    /** 
+     * Merges the elements of the given list into me.
+     * <p />
+     * Both lists must be sorted in ascending order (as by {@link #sort}), 
+     * otherwise the result is undefined.  I remain sorted.  An element
+     * contained in both lists is contained in the result as often as in
+     * the list containing it more often; so if both lists contain distinct
+     * elements, the result is the set union.
+     * <p />
+     * The lists are merged in a single pass in <i>O(n+m)</i>.
+     * 
+     * @param that the sorted list to merge into me
+     * @return <code>true</code> iff I changed as a result of this call
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public boolean union(ArrayIntList that) {
+        int[] thatData = that._data;
+        int thatSize = that._size;
+        if(thatSize == 0) {
+            return false;
+        }
+        incrModCount();
+        int[] data = _data;
+        int size = _size;
+        int[] result = new int[Math.max(_data.length, size+thatSize)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while(i < size && j < thatSize) {
+            int a = data[i];
+            int b = thatData[j];
+            if(a < b) {
+                result[k++] = a;
+                i++;
+            } else if(a > b) {
+                result[k++] = b;
+                j++;
+            } else {
+                result[k++] = a;
+                i++;
+                j++;
+            }
+        }
+        System.arraycopy(data,i,result,k,size-i);
+        k += size-i;
+        System.arraycopy(thatData,j,result,k,thatSize-j);
+        k += thatSize-j;
+        _data = result;
+        _size = k;
+        return (k != size);
+    }
+
+    /** 
+     * Retains only the elements also contained in the given list.
+     * <p />
+     * Both lists must be sorted in ascending order (as by {@link #sort}), 
+     * otherwise the result is undefined.  I remain sorted.  An element
+     * contained in both lists is retained as often as in the list 
+     * containing it less often; so if both lists contain distinct elements,
+     * the result is the set intersection.
+     * <p />
+     * The lists are merged in a single pass in <i>O(n+m)</i>, without 
+     * allocating memory.
+     * 
+     * @param that the sorted list
+     * @return <code>true</code> iff I changed as a result of this call
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public boolean intersect(ArrayIntList that) {
+        incrModCount();
+        int[] data = _data;
+        int[] thatData = that._data;
+        int size = _size;
+        int thatSize = that._size;
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while(i < size && j < thatSize) {
+            int a = data[i];
+            int b = thatData[j];
+            if(a < b) {
+                i++;
+            } else if(a > b) {
+                j++;
+            } else {
+                data[k++] = a;
+                i++;
+                j++;
+            }
+        }
+        _size = k;
+        return (k != size);
+    }
+
+    /** 
+     * Removes the elements contained in the given list.
+     * <p />
+     * Both lists must be sorted in ascending order (as by {@link #sort}), 
+     * otherwise the result is undefined.  I remain sorted.  Each element
+     * of the given list removes at most one equal element of me; so if 
+     * both lists contain distinct elements, the result is the set 
+     * difference.
+     * <p />
+     * The lists are merged in a single pass in <i>O(n+m)</i>, without 
+     * allocating memory.
+     * 
+     * @param that the sorted list of the elements to remove
+     * @return <code>true</code> iff I changed as a result of this call
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public boolean difference(ArrayIntList that) {
+        incrModCount();
+        int[] data = _data;
+        int[] thatData = that._data;
+        int size = _size;
+        int thatSize = that._size;
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while(i < size && j < thatSize) {
+            int a = data[i];
+            int b = thatData[j];
+            if(a < b) {
+                data[k++] = a;
+                i++;
+            } else if(a > b) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        if(k != i) {
+            System.arraycopy(data,i,data,k,size-i);
+        }
+        _size = k + (size-i);
+        return (_size != size);
+    }
+
+    // stream and bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Returns a {@link Spliterator} over my elements, splitting my backing
+     * array directly.  The spliterator binds to my current backing array 
+     * and size when created, so I must not be structurally modified
+     * during the traversal.
+     * 
+     * @return a spliterator over my elements
+     */
+    public Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(_data, 0, _size, Spliterator.ORDERED);
+    }
+
+    public void replaceAll(IntUnaryOperator operator) {
+        incrModCount();
+        int[] data = _data;
+        for(int i = 0; i < _size; i++) {
+            data[i] = operator.applyAsInt(data[i]);
+        }
+    }
+
+    public void parallelReplaceAll(final IntUnaryOperator operator) {
+        incrModCount();
+        final int[] data = _data;
+        IntStream.range(0, _size).parallel().forEach(i -> data[i] = operator.applyAsInt(data[i]));
+    }
+
     // capacity methods
     //-------------------------------------------------------------------------
 
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An {@link IntList} backed by direct buffers, allocated outside of
+ * the Java heap.
+ * <p />
+ * The elements are stored in chunks of 2<sup>24</sup> elements each, so
+ * the list can hold up to {@link Integer#MAX_VALUE} elements, independent
+ * of the 2 GB limit of a single buffer.  The last chunk grows as 
+ * needed.
+ * <p />
+ * Since the Java heap contains only the chunk references, large lists
+ * cause neither heap pressure nor long garbage collection pauses.
+ * {@link #close Closing} the list only drops the references to the
+ * buffers, it doesn't free the native memory.  The memory is freed when
+ * the buffers are garbage collected; until then it counts against the
+ * limit for direct memory (<code>-XX:MaxDirectMemorySize</code>, which
+ * defaults to the maximum heap size <code>-Xmx</code>).  Creating many
+ * large lists in quick succession can therefore fail with an
+ * {@link OutOfMemoryError} although they are closed.
+ * <p />
+ * Like {@link ArrayIntList}, inserting or removing elements in the 
+ * middle of the list is <i>O(n)</i>.  This implementation supports all
+ * optional methods.
+ *
+ * @see MappedIntList
+ */
+public class DirectIntList extends RandomAccessIntList implements IntList, Closeable {
+
+    // constructors
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Construct an empty list with the default
+     * initial capacity.
+     */
+    public DirectIntList() {
+        this(DEFAULT_CAPACITY);
+    }    
+
+    /**
+     * Construct an empty list with the given
+     * initial capacity.
+     * @throws IllegalArgumentException when <i>initialCapacity</i> is negative
+     */
+    public DirectIntList(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity " + initialCapacity);
+        }
+        _chunks = new IntBuffer[0];
+        _size = 0;
+        ensureCapacity(initialCapacity);
+    }    
+
+    /** 
+     * Constructs a list containing the elements of the given collection, 
+     * in the order they are returned by that collection's iterator.
+     * 
+     * @see #addAll(IntCollection)
+     * @param that the non-<code>null</code> collection of <code>int</code>s 
+     *        to add
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public DirectIntList(IntCollection that) { 
+        this(that.size());
+        addAll(that);
+    }    
+
+    // IntList methods
+    //-------------------------------------------------------------------------
+
+    public int get(int index) {
+        checkRange(index);
+        return _chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+    
+    public int size() {
+        return _size;
+    }
+    
+    /** 
+     * Removes the element at the specified position in 
+     * (optional operation).  Any subsequent elements 
+     * are shifted to the left, subtracting one from their 
+     * indices.  Returns the element that was removed.
+     * 
+     * @param index the index of the element to remove
+     * @return the value of the element that was removed
+     * 
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     * @throws IndexOutOfBoundsException if the specified index is out of range
+     */
+    public int removeElementAt(int index) {
+        checkRange(index);
+        incrModCount();
+        int oldval = get(index);
+        for(int i = index + 1; i < _size; i++) {
+            put(i - 1, get(i));
+        }
+        _size--;
+        return oldval;
+    }
+    
+    /** 
+     * Replaces the element at the specified 
+     * position in me with the specified element
+     * (optional operation). 
+     * 
+     * @param index the index of the element to change
+     * @param element the value to be stored at the specified position
+     * @return the value previously stored at the specified position
+     * 
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     * @throws IndexOutOfBoundsException if the specified index is out of range
+     */
+    public int set(int index, int element) {
+        checkRange(index);
+        incrModCount();
+        int oldval = get(index);
+        put(index, element);
+        return oldval;
+    }
+        
+    /** 
+     * Inserts the specified element at the specified position 
+     * (optional operation). Shifts the element currently 
+     * at that position (if any) and any subsequent elements to the 
+     * right, increasing their indices.
+     * 
+     * @param index the index at which to insert the element
+     * @param element the value to insert
+     * 
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     * @throws IllegalArgumentException if some aspect of the specified element 
+     *         prevents it from being added to me
+     * @throws IndexOutOfBoundsException if the specified index is out of range
+     */
+    public void add(int index, int element) {
+        checkRangeIncludingEndpoint(index);
+        incrModCount();
+        ensureCapacity(_size+1);
+        for(int i = _size; i > index; i--) {
+            put(i, get(i - 1));
+        }
+        put(index, element);
+        _size++;
+    }
+
+    public void clear() {
+        checkOpen();
+        incrModCount();
+        _size = 0;
+    }
+
+    // bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Appends the specified range of the given array to the end of me, 
+     * in order.
+     * 
+     * @param elements the array containing the elements to add
+     * @param offset the index of the first element to add
+     * @param length the number of elements to add
+     * @return <code>true</code> iff I changed as a result of this call
+     * 
+     * @throws NullPointerException if <i>elements</i> is <code>null</code>
+     * @throws IndexOutOfBoundsException if the specified range is out of 
+     *         the bounds of <i>elements</i>
+     */
+    public boolean addAll(int[] elements, int offset, int length) {
+        if(offset < 0 || length < 0 || offset > elements.length - length) {
+            throw new IndexOutOfBoundsException("Should be within 0 and " + elements.length + ", found " + offset + " with length " + length);
+        }
+        if(length == 0) {
+            return false;
+        }
+        ensureCapacity(_size+length);
+        int index = _size;
+        while(length > 0) {
+            IntBuffer chunk = _chunks[index >>> CHUNK_SHIFT].duplicate();
+            int n = Math.min(length, CHUNK_LENGTH - (index & CHUNK_MASK));
+            chunk.position(index & CHUNK_MASK);
+            chunk.put(elements, offset, n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+        _size = index;
+        return true;
+    }
+
+    public int[] toArray() {
+        return toArray(new int[_size]);
+    }
+
+    public int[] toArray(int[] a) {
+        if(a.length < _size) {
+            a = new int[_size];
+        }
+        checkOpen();
+        for(int index = 0; index < _size; index += CHUNK_LENGTH) {
+            IntBuffer chunk = _chunks[index >>> CHUNK_SHIFT].duplicate();
+            chunk.position(0);
+            chunk.get(a, index, Math.min(_size - index, CHUNK_LENGTH));
+        }
+        return a;
+    }
+
+    // capacity methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Increases my capacity, if necessary, to ensure that I can hold at 
+     * least the number of elements specified by the minimum capacity 
+     * argument without growing.
+     */
+    public void ensureCapacity(int mincap) {
+        checkOpen();
+        incrModCount();
+        if(mincap <= 0) {
+            return;
+        }
+        int last = (mincap - 1) >>> CHUNK_SHIFT;
+        if(last >= _chunks.length) {
+            IntBuffer[] oldchunks = _chunks;
+            _chunks = new IntBuffer[last + 1];
+            System.arraycopy(oldchunks,0,_chunks,0,oldchunks.length);
+        }
+        for(int i = 0; i <= last; i++) {
+            IntBuffer chunk = _chunks[i];
+            int mincaplength = (i < last) ? CHUNK_LENGTH : mincap - (i << CHUNK_SHIFT);
+            if(chunk == null) {
+                _chunks[i] = allocate(mincaplength);
+            } else if(chunk.capacity() < mincaplength) {
+                int newcap = Math.min((chunk.capacity() * 3)/2 + 1, CHUNK_LENGTH);
+                _chunks[i] = copy(chunk, newcap < mincaplength ? mincaplength : newcap);
+            }
+        }
+    }
+
+    /** 
+     * Reduce my capacity, if necessary, to match my
+     * current {@link #size size}.
+     */
+    public void trimToSize() {
+        checkOpen();
+        incrModCount();
+        int count = (_size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if(count < _chunks.length) {
+            IntBuffer[] oldchunks = _chunks;
+            _chunks = new IntBuffer[count];
+            System.arraycopy(oldchunks,0,_chunks,0,count);
+        }
+        if(count > 0) {
+            int length = _size - ((count - 1) << CHUNK_SHIFT);
+            if(length < _chunks[count - 1].capacity()) {
+                _chunks[count - 1] = copy(_chunks[count - 1], length);
+            }
+        }
+    }
+
+    // closeable methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Closes me and drops the references to my buffers, see the class
+     * comment.  Subsequent attempts to access or modify my elements fail.
+     * Closing an already closed list has no effect.
+     */
+    public void close() {
+        if(_chunks != null) {
+            incrModCount();
+            _chunks = null;
+            _size = 0;
+        }
+    }
+
+    /** 
+     * Returns <code>true</code> iff I am {@link #close closed}.
+     */
+    public boolean isClosed() {
+        return (_chunks == null);
+    }
+
+    // private methods
+    //-------------------------------------------------------------------------
+    
+    private static IntBuffer allocate(int length) {
+        return ByteBuffer.allocateDirect(length * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static IntBuffer copy(IntBuffer chunk, int length) {
+        IntBuffer src = chunk.duplicate();
+        src.position(0);
+        src.limit(Math.min(length, src.capacity()));
+        IntBuffer dest = allocate(length);
+        dest.put(src);
+        dest.position(0);
+        return dest;
+    }
+
+    private final void put(int index, int element) {
+        _chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, element);
+    }
+
+    private final void checkOpen() {
+        if(_chunks == null) {
+            throw new IllegalStateException("This list is closed.");
+        }
+    }
+
+    private final void checkRange(int index) {
+        if(index < 0 || index >= _size) {
+            checkOpen();
+            throw new IndexOutOfBoundsException("Should be at least 0 and less than " + _size + ", found " + index);
+        }
+    }
+
+    private final void checkRangeIncludingEndpoint(int index) {
+        checkOpen();
+        if(index < 0 || index > _size) {
+            throw new IndexOutOfBoundsException("Should be at least 0 and at most " + _size + ", found " + index);
+        }
+    }
+
+    // attributes
+    //-------------------------------------------------------------------------
+    
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int CHUNK_SHIFT = 24;
+    private static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_LENGTH - 1;
+
+    private IntBuffer[] _chunks = null;
+    private int _size = 0;
+
+}
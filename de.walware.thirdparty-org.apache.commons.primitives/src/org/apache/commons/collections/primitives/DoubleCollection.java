@@ -57,6 +57,13 @@
 
 package org.apache.commons.collections.primitives;
 
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A collection of <code>double</code> values.
  *
@@ -243,4 +250,56 @@ public interface DoubleCollection {
      * @return an array containing all my elements
      */
     double[] toArray(double[] a);
+
+    /** 
+     * Returns a {@link Spliterator} over my elements.
+     * <p/>
+     * The default implementation wraps my {@link #iterator iterator} 
+     * and reports my {@link #size size}.
+     * 
+     * @return a spliterator over my elements
+     */
+    default Spliterator.OfDouble spliterator() {
+        final DoubleIterator iter = iterator();
+        return Spliterators.spliterator(new PrimitiveIterator.OfDouble() {
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            public double nextDouble() {
+                return iter.next();
+            }
+        }, size(), 0);
+    }
+
+    /** 
+     * Returns a sequential {@link DoubleStream} with my elements as source.
+     * 
+     * @return a sequential stream over my elements
+     */
+    default DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    /** 
+     * Returns a possibly parallel {@link DoubleStream} with my elements 
+     * as source.
+     * 
+     * @return a possibly parallel stream over my elements
+     */
+    default DoubleStream parallelStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    /** 
+     * Performs the given action for each of my elements, in the order
+     * of my {@link #iterator iterator}.
+     * 
+     * @param action the action to perform
+     */
+    default void forEach(DoubleConsumer action) {
+        for(DoubleIterator iter = iterator(); iter.hasNext();) {
+            action.accept(iter.next());
+        }
+    }
+
 }
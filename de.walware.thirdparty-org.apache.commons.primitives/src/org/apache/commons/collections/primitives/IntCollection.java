@@ -57,6 +57,13 @@
 
 package org.apache.commons.collections.primitives;
 
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A collection of <code>int</code> values.
  *
@@ -243,4 +250,56 @@ public interface IntCollection {
      * @return an array containing all my elements
      */
     int[] toArray(int[] a);
+
+    /** 
+     * Returns a {@link Spliterator} over my elements.
+     * <p/>
+     * The default implementation wraps my {@link #iterator iterator} 
+     * and reports my {@link #size size}.
+     * 
+     * @return a spliterator over my elements
+     */
+    default Spliterator.OfInt spliterator() {
+        final IntIterator iter = iterator();
+        return Spliterators.spliterator(new PrimitiveIterator.OfInt() {
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            public int nextInt() {
+                return iter.next();
+            }
+        }, size(), 0);
+    }
+
+    /** 
+     * Returns a sequential {@link IntStream} with my elements as source.
+     * 
+     * @return a sequential stream over my elements
+     */
+    default IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /** 
+     * Returns a possibly parallel {@link IntStream} with my elements 
+     * as source.
+     * 
+     * @return a possibly parallel stream over my elements
+     */
+    default IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    /** 
+     * Performs the given action for each of my elements, in the order
+     * of my {@link #iterator iterator}.
+     * 
+     * @param action the action to perform
+     */
+    default void forEach(IntConsumer action) {
+        for(IntIterator iter = iterator(); iter.hasNext();) {
+            action.accept(iter.next());
+        }
+    }
+
 }
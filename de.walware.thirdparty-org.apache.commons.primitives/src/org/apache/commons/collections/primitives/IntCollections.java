@@ -57,9 +57,12 @@
 
 package org.apache.commons.collections.primitives;
 
+import org.apache.commons.collections.primitives.decorators.UnmodifiableIntIntMap;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableIntIterator;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableIntList;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableIntListIterator;
+import org.apache.commons.collections.primitives.decorators.UnmodifiableIntLongMap;
+import org.apache.commons.collections.primitives.decorators.UnmodifiableIntSet;
 
 /**
  * This class consists exclusively of static methods that operate on or
@@ -146,6 +149,48 @@ public final class IntCollections {
         return UnmodifiableIntListIterator.wrap(iter);
     }
     
+    /**
+     * Returns an unmodifiable version of the given non-null IntSet.
+     * @param set the non-null IntSet to wrap in an unmodifiable decorator
+     * @return an unmodifiable version of the given non-null IntSet
+     * @throws NullPointerException if the given IntSet is null
+     * @see org.apache.commons.collections.primitives.decorators.UnmodifiableIntSet#wrap
+     */    
+    public static IntSet unmodifiableIntSet(IntSet set) {
+        if(null == set) {
+            throw new NullPointerException();
+        }
+        return UnmodifiableIntSet.wrap(set);
+    }
+    
+    /**
+     * Returns an unmodifiable version of the given non-null IntIntMap.
+     * @param map the non-null IntIntMap to wrap in an unmodifiable decorator
+     * @return an unmodifiable version of the given non-null IntIntMap
+     * @throws NullPointerException if the given IntIntMap is null
+     * @see org.apache.commons.collections.primitives.decorators.UnmodifiableIntIntMap#wrap
+     */    
+    public static IntIntMap unmodifiableIntIntMap(IntIntMap map) {
+        if(null == map) {
+            throw new NullPointerException();
+        }
+        return UnmodifiableIntIntMap.wrap(map);
+    }
+    
+    /**
+     * Returns an unmodifiable version of the given non-null IntLongMap.
+     * @param map the non-null IntLongMap to wrap in an unmodifiable decorator
+     * @return an unmodifiable version of the given non-null IntLongMap
+     * @throws NullPointerException if the given IntLongMap is null
+     * @see org.apache.commons.collections.primitives.decorators.UnmodifiableIntLongMap#wrap
+     */    
+    public static IntLongMap unmodifiableIntLongMap(IntLongMap map) {
+        if(null == map) {
+            throw new NullPointerException();
+        }
+        return UnmodifiableIntLongMap.wrap(map);
+    }
+    
     /**
      * Returns an unmodifiable, empty IntList.
      * @return an unmodifiable, empty IntList.
@@ -0,0 +1,627 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link IntLongMap} backed by an open addressing hash table.
+ * <p />
+ * The keys and values are stored directly in an <code>int</code> and a 
+ * <code>long</code> array using linear probing, no wrapper objects are 
+ * created to put, get or iterate the mappings.  The key <code>0</code>,
+ * which marks free slots in the table, is supported and tracked separately.
+ * <p />
+ * The views and iterators are fail-fast and support removal.  The
+ * iteration order is unspecified.
+ * <p />
+ * This implementation supports all optional methods.
+ *
+ * @see IntHashSet
+ */
+public class IntLongHashMap implements IntLongMap, Serializable {
+
+    // constructors
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Construct an empty map with the default initial capacity.
+     */
+    public IntLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }    
+
+    /**
+     * Construct an empty map with the given initial capacity.
+     * @throws IllegalArgumentException when <i>initialCapacity</i> is negative
+     */
+    public IntLongHashMap(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity " + initialCapacity);
+        }
+        initTable(tableLengthFor(initialCapacity));
+    }    
+
+    /** 
+     * Constructs a map containing the mappings of the given map.
+     * 
+     * @param that the non-<code>null</code> map whose mappings to add
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public IntLongHashMap(IntLongMap that) { 
+        this(that.size());
+        putAll(that);
+    }    
+
+    // IntLongMap methods
+    //-------------------------------------------------------------------------
+    
+    public int size() {
+        return _size;
+    }
+
+    public boolean isEmpty() {
+        return (_size == 0);
+    }
+
+    public boolean containsKey(int key) {
+        if(key == 0) {
+            return _containsZeroKey;
+        }
+        return (indexOf(key) >= 0);
+    }
+
+    public boolean containsValue(long value) {
+        if(_containsZeroKey && _zeroKeyValue == value) {
+            return true;
+        }
+        int[] keys = _keys;
+        long[] values = _values;
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0 && values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long get(int key) {
+        return get(key, 0);
+    }
+
+    public long get(int key, long defaultValue) {
+        if(key == 0) {
+            return (_containsZeroKey) ? _zeroKeyValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return (index >= 0) ? _values[index] : defaultValue;
+    }
+
+    public long put(int key, long value) {
+        if(key == 0) {
+            long old = _zeroKeyValue;
+            _zeroKeyValue = value;
+            if(_containsZeroKey) {
+                return old;
+            }
+            _containsZeroKey = true;
+            _size++;
+            _modCount++;
+            return 0;
+        }
+        int index = indexOf(key);
+        if(index >= 0) {
+            long old = _values[index];
+            _values[index] = value;
+            return old;
+        }
+        if(_size - (_containsZeroKey ? 1 : 0) >= _threshold) {
+            resize(_keys.length << 1);
+            index = indexOf(key);
+        }
+        index = -(index + 1);
+        _keys[index] = key;
+        _values[index] = value;
+        _size++;
+        _modCount++;
+        return 0;
+    }
+
+    public void putAll(IntLongMap map) {
+        if(map.size() > _size) {
+            ensureCapacity(map.size());
+        }
+        for(EntryIterator iter = map.entryIterator(); iter.hasNext();) {
+            iter.next();
+            put(iter.getKey(), iter.getValue());
+        }
+    }
+
+    public long remove(int key) {
+        if(key == 0) {
+            if(!_containsZeroKey) {
+                return 0;
+            }
+            return removeZeroKey();
+        }
+        int index = indexOf(key);
+        if(index < 0) {
+            return 0;
+        }
+        return removeAt(index);
+    }
+
+    public void clear() {
+        if(_size == 0) {
+            return;
+        }
+        Arrays.fill(_keys, 0);
+        _containsZeroKey = false;
+        _zeroKeyValue = 0;
+        _size = 0;
+        _modCount++;
+    }
+
+    public IntSet keySet() {
+        if(_keySet == null) {
+            _keySet = new KeySet();
+        }
+        return _keySet;
+    }
+
+    public LongCollection values() {
+        if(_valueCollection == null) {
+            _valueCollection = new ValueCollection();
+        }
+        return _valueCollection;
+    }
+
+    public EntryIterator entryIterator() {
+        return new MapEntryIterator();
+    }
+
+    // object methods
+    //-------------------------------------------------------------------------
+
+    public boolean equals(Object that) {
+        if(this == that) {
+            return true;
+        } else if(that instanceof IntLongMap) {
+            IntLongMap thatMap = (IntLongMap)that;
+            if(size() != thatMap.size()) {
+                return false;
+            }
+            for(EntryIterator iter = thatMap.entryIterator(); iter.hasNext();) {
+                iter.next();
+                int key = iter.getKey();
+                if(!containsKey(key) || get(key) != iter.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public int hashCode() {
+        int hash = 0;
+        if(_containsZeroKey) {
+            hash += valueHashCode(_zeroKeyValue);
+        }
+        int[] keys = _keys;
+        long[] values = _values;
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0) {
+                hash += keyHashCode(keys[i]) ^ valueHashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("{");
+        for(EntryIterator iter = entryIterator(); iter.hasNext();) {
+            iter.next();
+            buf.append(iter.getKey());
+            buf.append("=");
+            buf.append(iter.getValue());
+            if(iter.hasNext()) {
+                buf.append(", ");
+            }
+        }
+        buf.append("}");
+        return buf.toString();
+    }
+
+    // capacity methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Increases my capacity, if necessary, to ensure that I can hold at 
+     * least the number of mappings specified by the minimum capacity 
+     * argument without rehashing.
+     */
+    public void ensureCapacity(int mincap) {
+        int length = tableLengthFor(mincap);
+        if(length > _keys.length) {
+            resize(length);
+        }
+    }
+
+    /** 
+     * Reduce my capacity, if necessary, to match my
+     * current {@link #size size}.
+     */
+    public void trimToSize() {
+        int length = tableLengthFor(_size);
+        if(length < _keys.length) {
+            resize(length);
+        }
+    }
+
+    // private methods
+    //-------------------------------------------------------------------------
+    
+    private static int tableLengthFor(int capacity) {
+        int length = MIN_TABLE_LENGTH;
+        while(length < MAX_TABLE_LENGTH && (length >>> 2) * 3 < capacity) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int keyHashCode(int key) {
+        return key;
+    }
+
+    private static int valueHashCode(long value) {
+        return (int)(value ^ (value >>> 32));
+    }
+
+    private void initTable(int length) {
+        _keys = new int[length];
+        _values = new long[length];
+        _threshold = (length == MAX_TABLE_LENGTH) ? length - 1 : (length >>> 2) * 3;
+    }
+
+    /**
+     * Returns the index of the given non-zero key or, if it is not
+     * contained, <code>-(index of the free slot + 1)</code>.
+     */
+    private int indexOf(int key) {
+        int[] keys = _keys;
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        int k;
+        while((k = keys[index]) != 0) {
+            if(k == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -(index + 1);
+    }
+
+    private long removeZeroKey() {
+        long old = _zeroKeyValue;
+        _containsZeroKey = false;
+        _zeroKeyValue = 0;
+        _size--;
+        _modCount++;
+        return old;
+    }
+
+    private long removeAt(int index) {
+        int[] keys = _keys;
+        long[] values = _values;
+        long old = values[index];
+        int mask = keys.length - 1;
+        int free = index;
+        index = (index + 1) & mask;
+        int k;
+        while((k = keys[index]) != 0) {
+            int home = hash(k) & mask;
+            // move the mapping back if its home slot is not within (free, index]
+            if(((index - home) & mask) >= ((index - free) & mask)) {
+                keys[free] = k;
+                values[free] = values[index];
+                free = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[free] = 0;
+        values[free] = 0;
+        _size--;
+        _modCount++;
+        return old;
+    }
+
+    private void resize(int length) {
+        if(length > MAX_TABLE_LENGTH) {
+            throw new IllegalStateException("capacity " + _size);
+        }
+        int[] oldKeys = _keys;
+        long[] oldValues = _values;
+        initTable(length);
+        int[] keys = _keys;
+        long[] values = _values;
+        int mask = length - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if(k != 0) {
+                int index = hash(k) & mask;
+                while(keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = k;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        out.writeInt(_keys.length);
+        for(EntryIterator iter = entryIterator(); iter.hasNext();) {
+            iter.next();
+            out.writeInt(iter.getKey());
+            out.writeLong(iter.getValue());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTable(in.readInt());
+        int size = _size;
+        _size = 0;
+        for(int i = 0; i < size; i++) {
+            int key = in.readInt();
+            put(key, in.readLong());
+        }
+    }
+
+    // iterators and views
+    //-------------------------------------------------------------------------
+
+    private abstract class SlotIterator {
+
+        SlotIterator() {
+            // start behind a free slot, so no mapping is shifted across
+            // the start by a removal
+            int[] keys = _keys;
+            int start = 0;
+            while(keys[start] != 0) {
+                start++;
+            }
+            _start = start;
+            _nextIndex = _containsZeroKey ? ZERO_INDEX : UNKNOWN_INDEX;
+        }
+
+        public boolean hasNext() {
+            if(_nextIndex == UNKNOWN_INDEX) {
+                _nextIndex = findNext();
+            }
+            return (_nextIndex != END_INDEX);
+        }
+
+        /** Moves to the next mapping and returns its slot index. */
+        protected int nextIndex() {
+            checkForComodification();
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _lastIndex = _nextIndex;
+            _nextIndex = UNKNOWN_INDEX;
+            return _lastIndex;
+        }
+
+        /** Returns the slot index of the current mapping. */
+        protected int lastIndex() {
+            checkForComodification();
+            if(_lastIndex == UNKNOWN_INDEX) {
+                throw new IllegalStateException();
+            }
+            return _lastIndex;
+        }
+
+        public void remove() {
+            int lastIndex = lastIndex();
+            if(lastIndex == ZERO_INDEX) {
+                removeZeroKey();
+            } else {
+                removeAt(lastIndex);
+                // a mapping may have been shifted into the removed slot
+                _visited = (lastIndex - _start - 1) & (_keys.length - 1);
+                _nextIndex = UNKNOWN_INDEX;
+            }
+            _lastIndex = UNKNOWN_INDEX;
+            _expectedModCount = _modCount;
+        }
+
+        private int findNext() {
+            int[] keys = _keys;
+            int mask = keys.length - 1;
+            while(_visited < mask) {
+                int index = (_start + 1 + _visited++) & mask;
+                if(keys[index] != 0) {
+                    return index;
+                }
+            }
+            return END_INDEX;
+        }
+
+        private void checkForComodification() {
+            if(_expectedModCount != _modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private final int _start;
+        private int _visited = 0;
+        private int _nextIndex;
+        private int _lastIndex = UNKNOWN_INDEX;
+        private int _expectedModCount = _modCount;
+    }
+
+    private class MapEntryIterator extends SlotIterator implements EntryIterator {
+
+        public void next() {
+            nextIndex();
+        }
+
+        public int getKey() {
+            int index = lastIndex();
+            return (index == ZERO_INDEX) ? 0 : _keys[index];
+        }
+
+        public long getValue() {
+            int index = lastIndex();
+            return (index == ZERO_INDEX) ? _zeroKeyValue : _values[index];
+        }
+
+        public long setValue(long value) {
+            int index = lastIndex();
+            long old;
+            if(index == ZERO_INDEX) {
+                old = _zeroKeyValue;
+                _zeroKeyValue = value;
+            } else {
+                old = _values[index];
+                _values[index] = value;
+            }
+            return old;
+        }
+    }
+
+    private class KeyIterator extends SlotIterator implements IntIterator {
+
+        public int next() {
+            int index = nextIndex();
+            return (index == ZERO_INDEX) ? 0 : _keys[index];
+        }
+    }
+
+    private class ValueIterator extends SlotIterator implements LongIterator {
+
+        public long next() {
+            int index = nextIndex();
+            return (index == ZERO_INDEX) ? _zeroKeyValue : _values[index];
+        }
+    }
+
+    private class KeySet extends AbstractIntCollection implements IntSet {
+
+        public int size() {
+            return _size;
+        }
+
+        public boolean contains(int element) {
+            return containsKey(element);
+        }
+
+        public boolean removeElement(int element) {
+            if(!containsKey(element)) {
+                return false;
+            }
+            remove(element);
+            return true;
+        }
+
+        public void clear() {
+            IntLongHashMap.this.clear();
+        }
+
+        public IntIterator iterator() {
+            return new KeyIterator();
+        }
+
+        public boolean equals(Object that) {
+            if(this == that) {
+                return true;
+            } else if(that instanceof IntSet) {
+                IntSet thatSet = (IntSet)that;
+                return (size() == thatSet.size() && containsAll(thatSet));
+            } else {
+                return false;
+            }
+        }
+
+        public int hashCode() {
+            int hash = 0;
+            for(IntIterator iter = iterator(); iter.hasNext();) {
+                hash += keyHashCode(iter.next());
+            }
+            return hash;
+        }
+    }
+
+    private class ValueCollection extends AbstractLongCollection {
+
+        public int size() {
+            return _size;
+        }
+
+        public boolean contains(long element) {
+            return containsValue(element);
+        }
+
+        public void clear() {
+            IntLongHashMap.this.clear();
+        }
+
+        public LongIterator iterator() {
+            return new ValueIterator();
+        }
+    }
+
+    // attributes
+    //-------------------------------------------------------------------------
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int MIN_TABLE_LENGTH = 4;
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    private static final int ZERO_INDEX = -1;
+    private static final int END_INDEX = -2;
+    private static final int UNKNOWN_INDEX = -3;
+
+    private transient int[] _keys = null;
+    private transient long[] _values = null;
+    private transient boolean _containsZeroKey = false;
+    private transient long _zeroKeyValue = 0;
+    private transient int _threshold;
+    private transient int _modCount = 0;
+    private int _size = 0;
+
+    private transient IntSet _keySet = null;
+    private transient LongCollection _valueCollection = null;
+
+}
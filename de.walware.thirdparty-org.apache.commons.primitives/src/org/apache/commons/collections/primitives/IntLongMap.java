@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+/**
+ * An object that maps <code>int</code> keys to <code>long</code> values.
+ * A map cannot contain duplicate keys; each key can map to at most one
+ * value.
+ * <p />
+ * Since there is no <code>null</code> for primitive values, the 
+ * {@link #get(int) get}, {@link #put put} and {@link #remove remove} 
+ * methods return <code>0</code> if no mapping exists for a key; use 
+ * {@link #containsKey containsKey} or {@link #get(int, long)} to 
+ * distinguish the cases.
+ * <p />
+ * The {@link #equals equals} and {@link #hashCode hashCode} contract
+ * matches the one of {@link java.util.Map}, where the hash codes of
+ * keys and values are computed as by {@link Integer#hashCode} and 
+ * {@link Long#hashCode}.
+ *
+ * @see IntLongHashMap
+ */
+public interface IntLongMap {
+
+    /** 
+     * Returns the number of key-value mappings in me.
+     *  
+     * @return the number of key-value mappings in me
+     */
+    int size();
+
+    /** 
+     * Returns <code>true</code> iff I contain no key-value mappings.
+     *  
+     * @return <code>true</code> iff I contain no key-value mappings
+     */
+    boolean isEmpty();
+
+    /** 
+     * Returns <code>true</code> iff I contain a mapping for the specified key.
+     * 
+     * @param key the key whose presence to test
+     * @return <code>true</code> iff I contain a mapping for <i>key</i>
+     */
+    boolean containsKey(int key);
+
+    /** 
+     * Returns <code>true</code> iff I map one or more keys to the specified
+     * value.
+     * 
+     * @param value the value whose presence to test
+     * @return <code>true</code> iff I contain a mapping to <i>value</i>
+     */
+    boolean containsValue(long value);
+
+    /** 
+     * Returns the value to which the specified key is mapped, or 
+     * <code>0</code> if I contain no mapping for the key.
+     * 
+     * @param key the key whose associated value is to be returned
+     * @return the value mapped to <i>key</i>, or <code>0</code>
+     */
+    long get(int key);
+
+    /** 
+     * Returns the value to which the specified key is mapped, or 
+     * the given default value if I contain no mapping for the key.
+     * 
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to return if no mapping exists
+     * @return the value mapped to <i>key</i>, or <i>defaultValue</i>
+     */
+    long get(int key, long defaultValue);
+
+    /** 
+     * Associates the specified value with the specified key 
+     * (optional operation).
+     * 
+     * @param key the key 
+     * @param value the value to associate with <i>key</i>
+     * @return the previous value mapped to <i>key</i>, or <code>0</code>
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     */
+    long put(int key, long value);
+
+    /** 
+     * Copies all mappings of the specified map to me (optional operation).
+     * 
+     * @param map the mappings to add
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     */
+    void putAll(IntLongMap map);
+
+    /** 
+     * Removes the mapping for the specified key, if present 
+     * (optional operation).
+     * 
+     * @param key the key whose mapping is to be removed
+     * @return the previous value mapped to <i>key</i>, or <code>0</code>
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     */
+    long remove(int key);
+
+    /** 
+     * Removes all mappings from me (optional operation).
+     * 
+     * @throws UnsupportedOperationException when this operation is not 
+     *         supported
+     */
+    void clear();
+
+    /** 
+     * Returns a {@link IntSet set} view of my keys.  The view supports
+     * element removal, but not addition.
+     * 
+     * @return a set view of my keys
+     */
+    IntSet keySet();
+
+    /** 
+     * Returns a {@link LongCollection collection} view of my values.  The
+     * view supports element removal, but not addition.
+     * 
+     * @return a collection view of my values
+     */
+    LongCollection values();
+
+    /** 
+     * Returns an iterator over my mappings.  The iterator reads the keys
+     * and values directly, without creating entry objects.
+     * 
+     * @return an iterator over my mappings
+     */
+    EntryIterator entryIterator();
+
+    /**
+     * Returns <code>true</code> iff <i>that</i> is an <code>IntLongMap</code>
+     * that contains exactly the same mappings as me.
+     *
+     * @param that the object to compare to me
+     * @return <code>true</code> iff <i>that</i> is an <code>IntLongMap</code>
+     *         with the same mappings as me
+     */
+    boolean equals(Object that);
+
+    /**
+     * Returns my hash code: the sum of the hash codes of my mappings, each
+     * computed as the hash code of the key XOR the hash code of the value.
+     *
+     * @return my hash code
+     */
+    int hashCode();
+
+    /**
+     * An iterator over the mappings of an {@link IntLongMap}.
+     * <p />
+     * Unlike {@link java.util.Iterator}, {@link #next next} only moves the
+     * iterator to the next mapping; the key and value of the current
+     * mapping are read by {@link #getKey getKey} and {@link #getValue getValue}.
+     */
+    public static interface EntryIterator {
+
+        /** 
+         * Returns <code>true</code> iff I have more mappings. 
+         * @return <code>true</code> iff I have more mappings
+         */
+        boolean hasNext();
+
+        /** 
+         * Moves me to the next mapping.
+         * @throws java.util.NoSuchElementException if there is no next mapping
+         */
+        void next();
+
+        /** 
+         * Returns the key of the current mapping.
+         * @return the key of the current mapping
+         * @throws IllegalStateException if {@link #next} has not yet been
+         *         called, or {@link #remove} has been called since 
+         *         the last call to {@link #next}
+         */
+        int getKey();
+
+        /** 
+         * Returns the value of the current mapping.
+         * @return the value of the current mapping
+         * @throws IllegalStateException if {@link #next} has not yet been
+         *         called, or {@link #remove} has been called since 
+         *         the last call to {@link #next}
+         */
+        long getValue();
+
+        /** 
+         * Replaces the value of the current mapping (optional operation).
+         * @param value the new value
+         * @return the previous value
+         * @throws UnsupportedOperationException when this operation is not 
+         *         supported
+         * @throws IllegalStateException if {@link #next} has not yet been
+         *         called, or {@link #remove} has been called since 
+         *         the last call to {@link #next}
+         */
+        long setValue(long value);
+
+        /** 
+         * Removes the current mapping from my underlying map 
+         * (optional operation).
+         * @throws UnsupportedOperationException when this operation is not 
+         *         supported
+         * @throws IllegalStateException if {@link #next} has not yet been
+         *         called, or {@link #remove} has been called since 
+         *         the last call to {@link #next}
+         */
+        void remove();
+
+    }
+
+}
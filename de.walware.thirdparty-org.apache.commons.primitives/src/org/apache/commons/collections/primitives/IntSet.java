@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+/**
+ * A collection of <code>int</code> values that contains no duplicate elements.
+ * <p />
+ * The {@link #equals equals} and {@link #hashCode hashCode} contract
+ * matches the one of {@link java.util.Set}: two sets are equal if they
+ * contain the same elements, the hash code is the sum of the hash codes
+ * of the elements, where the hash code of an element is computed as
+ * by {@link Integer#hashCode}.
+ *
+ * @see IntHashSet
+ */
+public interface IntSet extends IntCollection {
+
+    /**
+     * Returns <code>true</code> iff <i>that</i> is an <code>IntSet</code>
+     * that contains exactly the same elements as me.
+     *
+     * @param that the object to compare to me
+     * @return <code>true</code> iff <i>that</i> is an <code>IntSet</code>
+     *         with the same elements as me
+     */
+    boolean equals(Object that);
+
+    /**
+     * Returns my hash code: the sum of the hash codes of my elements.
+     *
+     * @return my hash code
+     */
+    int hashCode();
+
+}
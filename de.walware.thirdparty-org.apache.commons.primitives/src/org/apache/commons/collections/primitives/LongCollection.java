@@ -57,6 +57,13 @@
 
 package org.apache.commons.collections.primitives;
 
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A collection of <code>long</code> values.
  *
@@ -243,4 +250,56 @@ public interface LongCollection {
      * @return an array containing all my elements
      */
     long[] toArray(long[] a);
+
+    /** 
+     * Returns a {@link Spliterator} over my elements.
+     * <p/>
+     * The default implementation wraps my {@link #iterator iterator} 
+     * and reports my {@link #size size}.
+     * 
+     * @return a spliterator over my elements
+     */
+    default Spliterator.OfLong spliterator() {
+        final LongIterator iter = iterator();
+        return Spliterators.spliterator(new PrimitiveIterator.OfLong() {
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+            public long nextLong() {
+                return iter.next();
+            }
+        }, size(), 0);
+    }
+
+    /** 
+     * Returns a sequential {@link LongStream} with my elements as source.
+     * 
+     * @return a sequential stream over my elements
+     */
+    default LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /** 
+     * Returns a possibly parallel {@link LongStream} with my elements 
+     * as source.
+     * 
+     * @return a possibly parallel stream over my elements
+     */
+    default LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /** 
+     * Performs the given action for each of my elements, in the order
+     * of my {@link #iterator iterator}.
+     * 
+     * @param action the action to perform
+     */
+    default void forEach(LongConsumer action) {
+        for(LongIterator iter = iterator(); iter.hasNext();) {
+            action.accept(iter.next());
+        }
+    }
+
 }
@@ -60,6 +60,8 @@ package org.apache.commons.collections.primitives;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableLongIterator;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableLongList;
 import org.apache.commons.collections.primitives.decorators.UnmodifiableLongListIterator;
+import org.apache.commons.collections.primitives.decorators.UnmodifiableLongObjectMap;
+import org.apache.commons.collections.primitives.decorators.UnmodifiableLongSet;
 
 /**
  * This class consists exclusively of static methods that operate on or
@@ -146,6 +148,34 @@ public final class LongCollections {
         return UnmodifiableLongListIterator.wrap(iter);
     }
     
+    /**
+     * Returns an unmodifiable version of the given non-null LongSet.
+     * @param set the non-null LongSet to wrap in an unmodifiable decorator
+     * @return an unmodifiable version of the given non-null LongSet
+     * @throws NullPointerException if the given LongSet is null
+     * @see org.apache.commons.collections.primitives.decorators.UnmodifiableLongSet#wrap
+     */    
+    public static LongSet unmodifiableLongSet(LongSet set) {
+        if(null == set) {
+            throw new NullPointerException();
+        }
+        return UnmodifiableLongSet.wrap(set);
+    }
+    
+    /**
+     * Returns an unmodifiable version of the given non-null LongObjectMap.
+     * @param map the non-null LongObjectMap to wrap in an unmodifiable decorator
+     * @return an unmodifiable version of the given non-null LongObjectMap
+     * @throws NullPointerException if the given LongObjectMap is null
+     * @see org.apache.commons.collections.primitives.decorators.UnmodifiableLongObjectMap#wrap
+     */    
+    public static <V> LongObjectMap<V> unmodifiableLongObjectMap(LongObjectMap<V> map) {
+        if(null == map) {
+            throw new NullPointerException();
+        }
+        return UnmodifiableLongObjectMap.wrap(map);
+    }
+    
     /**
      * Returns an unmodifiable, empty LongList.
      * @return an unmodifiable, empty LongList.
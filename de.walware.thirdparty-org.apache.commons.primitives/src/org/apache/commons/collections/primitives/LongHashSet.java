@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link LongSet} backed by an open addressing hash table of 
+ * <code>long</code> values.
+ * <p />
+ * The elements are stored directly in a <code>long</code> array using linear
+ * probing, no wrapper objects are created to add, test or iterate the
+ * elements.  The value <code>0</code>, which marks free slots in the table,
+ * is supported as element and tracked separately.
+ * <p />
+ * The iterators are fail-fast and support {@link LongIterator#remove remove}.
+ * The iteration order is unspecified.
+ * <p />
+ * This implementation supports all optional methods.
+ *
+ * @see LongCollections#unmodifiableLongSet
+ */
+public class LongHashSet extends AbstractLongCollection implements LongSet, Serializable {
+
+    // constructors
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Construct an empty set with the default initial capacity.
+     */
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }    
+
+    /**
+     * Construct an empty set with the given initial capacity.
+     * @throws IllegalArgumentException when <i>initialCapacity</i> is negative
+     */
+    public LongHashSet(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity " + initialCapacity);
+        }
+        initTable(tableLengthFor(initialCapacity));
+    }    
+
+    /** 
+     * Constructs a set containing the elements of the given collection, 
+     * in the order they are returned by that collection's iterator.
+     * 
+     * @see AbstractLongCollection#addAll(LongCollection)
+     * @param that the non-<code>null</code> collection of <code>long</code>s 
+     *        to add to this set
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public LongHashSet(LongCollection that) { 
+        this(that.size());
+        addAll(that);
+    }    
+
+    // LongCollection methods
+    //-------------------------------------------------------------------------
+    
+    public int size() {
+        return _size;
+    }
+
+    public boolean contains(long element) {
+        if(element == 0) {
+            return _containsZero;
+        }
+        return (indexOf(element) >= 0);
+    }
+
+    public boolean add(long element) {
+        if(element == 0) {
+            if(_containsZero) {
+                return false;
+            }
+            _containsZero = true;
+        } else {
+            int index = indexOf(element);
+            if(index >= 0) {
+                return false;
+            }
+            if(_size - (_containsZero ? 1 : 0) >= _threshold) {
+                resize(_elements.length << 1);
+                index = indexOf(element);
+            }
+            _elements[-(index + 1)] = element;
+        }
+        _size++;
+        _modCount++;
+        return true;
+    }
+
+    public boolean removeElement(long element) {
+        if(element == 0) {
+            if(!_containsZero) {
+                return false;
+            }
+            _containsZero = false;
+            _size--;
+            _modCount++;
+            return true;
+        }
+        int index = indexOf(element);
+        if(index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public void clear() {
+        if(_size == 0) {
+            return;
+        }
+        Arrays.fill(_elements, 0);
+        _containsZero = false;
+        _size = 0;
+        _modCount++;
+    }
+
+    public LongIterator iterator() {
+        return new SetIterator();
+    }
+
+    // object methods
+    //-------------------------------------------------------------------------
+
+    public boolean equals(Object that) {
+        if(this == that) {
+            return true;
+        } else if(that instanceof LongSet) {
+            LongSet thatSet = (LongSet)that;
+            if(size() != thatSet.size()) {
+                return false;
+            }
+            for(LongIterator iter = thatSet.iterator(); iter.hasNext();) {
+                if(!contains(iter.next())) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public int hashCode() {
+        int hash = 0;
+        for(int i = 0; i < _elements.length; i++) {
+            hash += elementHashCode(_elements[i]);
+        }
+        return hash;
+    }
+
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("[");
+        for(LongIterator iter = iterator(); iter.hasNext();) {
+            buf.append(iter.next());
+            if(iter.hasNext()) {
+                buf.append(", ");
+            }
+        }
+        buf.append("]");
+        return buf.toString();
+    }
+
+    // capacity methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Increases my capacity, if necessary, to ensure that I can hold at 
+     * least the number of elements specified by the minimum capacity 
+     * argument without rehashing.
+     */
+    public void ensureCapacity(int mincap) {
+        int length = tableLengthFor(mincap);
+        if(length > _elements.length) {
+            resize(length);
+        }
+    }
+
+    /** 
+     * Reduce my capacity, if necessary, to match my
+     * current {@link #size size}.
+     */
+    public void trimToSize() {
+        int length = tableLengthFor(_size);
+        if(length < _elements.length) {
+            resize(length);
+        }
+    }
+
+    // private methods
+    //-------------------------------------------------------------------------
+    
+    private static int tableLengthFor(int capacity) {
+        int length = MIN_TABLE_LENGTH;
+        while(length < MAX_TABLE_LENGTH && (length >>> 2) * 3 < capacity) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static int hash(long element) {
+        long h = element * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private static int elementHashCode(long element) {
+        return (int)(element ^ (element >>> 32));
+    }
+
+    private void initTable(int length) {
+        _elements = new long[length];
+        _threshold = (length == MAX_TABLE_LENGTH) ? length - 1 : (length >>> 2) * 3;
+    }
+
+    /**
+     * Returns the index of the given non-zero element or, if it is not
+     * contained, <code>-(index of the free slot + 1)</code>.
+     */
+    private int indexOf(long element) {
+        long[] elements = _elements;
+        int mask = elements.length - 1;
+        int index = hash(element) & mask;
+        long e;
+        while((e = elements[index]) != 0) {
+            if(e == element) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -(index + 1);
+    }
+
+    private void removeAt(int index) {
+        long[] elements = _elements;
+        int mask = elements.length - 1;
+        int free = index;
+        index = (index + 1) & mask;
+        long e;
+        while((e = elements[index]) != 0) {
+            int home = hash(e) & mask;
+            // move the element back if its home slot is not within (free, index]
+            if(((index - home) & mask) >= ((index - free) & mask)) {
+                elements[free] = e;
+                free = index;
+            }
+            index = (index + 1) & mask;
+        }
+        elements[free] = 0;
+        _size--;
+        _modCount++;
+    }
+
+    private void resize(int length) {
+        if(length > MAX_TABLE_LENGTH) {
+            throw new IllegalStateException("capacity " + _size);
+        }
+        long[] old = _elements;
+        initTable(length);
+        long[] elements = _elements;
+        int mask = length - 1;
+        for(int i = 0; i < old.length; i++) {
+            long e = old[i];
+            if(e != 0) {
+                int index = hash(e) & mask;
+                while(elements[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                elements[index] = e;
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        out.writeInt(_elements.length);
+        for(LongIterator iter = iterator(); iter.hasNext();) {
+            out.writeLong(iter.next());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTable(in.readInt());
+        int size = _size;
+        _size = 0;
+        for(int i = 0; i < size; i++) {
+            add(in.readLong());
+        }
+    }
+
+    // iterator
+    //-------------------------------------------------------------------------
+
+    private class SetIterator implements LongIterator {
+
+        SetIterator() {
+            // start behind a free slot, so no element is shifted across
+            // the start by a removal
+            long[] elements = _elements;
+            int start = 0;
+            while(elements[start] != 0) {
+                start++;
+            }
+            _start = start;
+            _nextIndex = _containsZero ? ZERO_INDEX : UNKNOWN_INDEX;
+        }
+
+        public boolean hasNext() {
+            if(_nextIndex == UNKNOWN_INDEX) {
+                _nextIndex = findNext();
+            }
+            return (_nextIndex != END_INDEX);
+        }
+
+        public long next() {
+            checkForComodification();
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _lastIndex = _nextIndex;
+            _nextIndex = UNKNOWN_INDEX;
+            return (_lastIndex == ZERO_INDEX) ? 0 : _elements[_lastIndex];
+        }
+
+        public void remove() {
+            checkForComodification();
+            if(_lastIndex == UNKNOWN_INDEX) {
+                throw new IllegalStateException();
+            }
+            if(_lastIndex == ZERO_INDEX) {
+                removeElement(0);
+            } else {
+                removeAt(_lastIndex);
+                // an element may have been shifted into the removed slot
+                _visited = (_lastIndex - _start - 1) & (_elements.length - 1);
+                _nextIndex = UNKNOWN_INDEX;
+            }
+            _lastIndex = UNKNOWN_INDEX;
+            _expectedModCount = _modCount;
+        }
+
+        private int findNext() {
+            long[] elements = _elements;
+            int mask = elements.length - 1;
+            while(_visited < mask) {
+                int index = (_start + 1 + _visited++) & mask;
+                if(elements[index] != 0) {
+                    return index;
+                }
+            }
+            return END_INDEX;
+        }
+
+        private void checkForComodification() {
+            if(_expectedModCount != _modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private final int _start;
+        private int _visited = 0;
+        private int _nextIndex;
+        private int _lastIndex = UNKNOWN_INDEX;
+        private int _expectedModCount = _modCount;
+    }
+
+    // attributes
+    //-------------------------------------------------------------------------
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int MIN_TABLE_LENGTH = 4;
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    private static final int ZERO_INDEX = -1;
+    private static final int END_INDEX = -2;
+    private static final int UNKNOWN_INDEX = -3;
+
+    private transient long[] _elements = null;
+    private transient boolean _containsZero = false;
+    private transient int _threshold;
+    private transient int _modCount = 0;
+    private int _size = 0;
+
+}
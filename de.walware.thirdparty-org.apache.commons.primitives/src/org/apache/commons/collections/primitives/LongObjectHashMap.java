@@ -0,0 +1,637 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link LongObjectMap} backed by an open addressing hash table.
+ * <p />
+ * The keys are stored directly in a <code>long</code> array using linear 
+ * probing, no wrapper objects are created for the keys to put, get or
+ * iterate the mappings.  The key <code>0</code>, which marks free slots in
+ * the table, is supported and tracked separately.  <code>null</code> values
+ * are supported.
+ * <p />
+ * The views and iterators are fail-fast and support removal.  The
+ * iteration order is unspecified.
+ * <p />
+ * This implementation supports all optional methods.
+ *
+ * @see LongHashSet
+ */
+@SuppressWarnings("unchecked")
+public class LongObjectHashMap<V> implements LongObjectMap<V>, Serializable {
+
+    // constructors
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Construct an empty map with the default initial capacity.
+     */
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }    
+
+    /**
+     * Construct an empty map with the given initial capacity.
+     * @throws IllegalArgumentException when <i>initialCapacity</i> is negative
+     */
+    public LongObjectHashMap(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity " + initialCapacity);
+        }
+        initTable(tableLengthFor(initialCapacity));
+    }    
+
+    /** 
+     * Constructs a map containing the mappings of the given map.
+     * 
+     * @param that the non-<code>null</code> map whose mappings to add
+     * @throws NullPointerException if <i>that</i> is <code>null</code>
+     */
+    public LongObjectHashMap(LongObjectMap<? extends V> that) { 
+        this(that.size());
+        putAll(that);
+    }    
+
+    // LongObjectMap methods
+    //-------------------------------------------------------------------------
+    
+    public int size() {
+        return _size;
+    }
+
+    public boolean isEmpty() {
+        return (_size == 0);
+    }
+
+    public boolean containsKey(long key) {
+        if(key == 0) {
+            return _containsZeroKey;
+        }
+        return (indexOf(key) >= 0);
+    }
+
+    public boolean containsValue(Object value) {
+        if(_containsZeroKey && valueEquals(_zeroKeyValue, value)) {
+            return true;
+        }
+        long[] keys = _keys;
+        Object[] values = _values;
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0 && valueEquals(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(long key) {
+        return get(key, null);
+    }
+
+    public V get(long key, V defaultValue) {
+        if(key == 0) {
+            return (_containsZeroKey) ? _zeroKeyValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return (index >= 0) ? (V)_values[index] : defaultValue;
+    }
+
+    public V put(long key, V value) {
+        if(key == 0) {
+            V old = _zeroKeyValue;
+            _zeroKeyValue = value;
+            if(_containsZeroKey) {
+                return old;
+            }
+            _containsZeroKey = true;
+            _size++;
+            _modCount++;
+            return null;
+        }
+        int index = indexOf(key);
+        if(index >= 0) {
+            V old = (V)_values[index];
+            _values[index] = value;
+            return old;
+        }
+        if(_size - (_containsZeroKey ? 1 : 0) >= _threshold) {
+            resize(_keys.length << 1);
+            index = indexOf(key);
+        }
+        index = -(index + 1);
+        _keys[index] = key;
+        _values[index] = value;
+        _size++;
+        _modCount++;
+        return null;
+    }
+
+    public void putAll(LongObjectMap<? extends V> map) {
+        if(map.size() > _size) {
+            ensureCapacity(map.size());
+        }
+        for(EntryIterator<? extends V> iter = map.entryIterator(); iter.hasNext();) {
+            iter.next();
+            put(iter.getKey(), iter.getValue());
+        }
+    }
+
+    public V remove(long key) {
+        if(key == 0) {
+            if(!_containsZeroKey) {
+                return null;
+            }
+            return removeZeroKey();
+        }
+        int index = indexOf(key);
+        if(index < 0) {
+            return null;
+        }
+        return removeAt(index);
+    }
+
+    public void clear() {
+        if(_size == 0) {
+            return;
+        }
+        Arrays.fill(_keys, 0);
+        Arrays.fill(_values, null);
+        _containsZeroKey = false;
+        _zeroKeyValue = null;
+        _size = 0;
+        _modCount++;
+    }
+
+    public LongSet keySet() {
+        if(_keySet == null) {
+            _keySet = new KeySet();
+        }
+        return _keySet;
+    }
+
+    public Collection<V> values() {
+        if(_valueCollection == null) {
+            _valueCollection = new ValueCollection();
+        }
+        return _valueCollection;
+    }
+
+    public EntryIterator<V> entryIterator() {
+        return new MapEntryIterator();
+    }
+
+    // object methods
+    //-------------------------------------------------------------------------
+
+    public boolean equals(Object that) {
+        if(this == that) {
+            return true;
+        } else if(that instanceof LongObjectMap) {
+            LongObjectMap<?> thatMap = (LongObjectMap<?>)that;
+            if(size() != thatMap.size()) {
+                return false;
+            }
+            for(EntryIterator<?> iter = thatMap.entryIterator(); iter.hasNext();) {
+                iter.next();
+                long key = iter.getKey();
+                if(!containsKey(key) || !valueEquals(get(key), iter.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public int hashCode() {
+        int hash = 0;
+        if(_containsZeroKey) {
+            hash += valueHashCode(_zeroKeyValue);
+        }
+        long[] keys = _keys;
+        Object[] values = _values;
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0) {
+                hash += keyHashCode(keys[i]) ^ valueHashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("{");
+        for(EntryIterator<V> iter = entryIterator(); iter.hasNext();) {
+            iter.next();
+            buf.append(iter.getKey());
+            buf.append("=");
+            buf.append(iter.getValue());
+            if(iter.hasNext()) {
+                buf.append(", ");
+            }
+        }
+        buf.append("}");
+        return buf.toString();
+    }
+
+    // capacity methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Increases my capacity, if necessary, to ensure that I can hold at 
+     * least the number of mappings specified by the minimum capacity 
+     * argument without rehashing.
+     */
+    public void ensureCapacity(int mincap) {
+        int length = tableLengthFor(mincap);
+        if(length > _keys.length) {
+            resize(length);
+        }
+    }
+
+    /** 
+     * Reduce my capacity, if necessary, to match my
+     * current {@link #size size}.
+     */
+    public void trimToSize() {
+        int length = tableLengthFor(_size);
+        if(length < _keys.length) {
+            resize(length);
+        }
+    }
+
+    // private methods
+    //-------------------------------------------------------------------------
+    
+    private static int tableLengthFor(int capacity) {
+        int length = MIN_TABLE_LENGTH;
+        while(length < MAX_TABLE_LENGTH && (length >>> 2) * 3 < capacity) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private static int keyHashCode(long key) {
+        return (int)(key ^ (key >>> 32));
+    }
+
+    private static int valueHashCode(Object value) {
+        return (value == null) ? 0 : value.hashCode();
+    }
+
+    private static boolean valueEquals(Object value1, Object value2) {
+        return (value1 == null) ? (value2 == null) : value1.equals(value2);
+    }
+
+    private void initTable(int length) {
+        _keys = new long[length];
+        _values = new Object[length];
+        _threshold = (length == MAX_TABLE_LENGTH) ? length - 1 : (length >>> 2) * 3;
+    }
+
+    /**
+     * Returns the index of the given non-zero key or, if it is not
+     * contained, <code>-(index of the free slot + 1)</code>.
+     */
+    private int indexOf(long key) {
+        long[] keys = _keys;
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        long k;
+        while((k = keys[index]) != 0) {
+            if(k == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -(index + 1);
+    }
+
+    private V removeZeroKey() {
+        V old = _zeroKeyValue;
+        _containsZeroKey = false;
+        _zeroKeyValue = null;
+        _size--;
+        _modCount++;
+        return old;
+    }
+
+    private V removeAt(int index) {
+        long[] keys = _keys;
+        Object[] values = _values;
+        V old = (V)values[index];
+        int mask = keys.length - 1;
+        int free = index;
+        index = (index + 1) & mask;
+        long k;
+        while((k = keys[index]) != 0) {
+            int home = hash(k) & mask;
+            // move the mapping back if its home slot is not within (free, index]
+            if(((index - home) & mask) >= ((index - free) & mask)) {
+                keys[free] = k;
+                values[free] = values[index];
+                free = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[free] = 0;
+        values[free] = null;
+        _size--;
+        _modCount++;
+        return old;
+    }
+
+    private void resize(int length) {
+        if(length > MAX_TABLE_LENGTH) {
+            throw new IllegalStateException("capacity " + _size);
+        }
+        long[] oldKeys = _keys;
+        Object[] oldValues = _values;
+        initTable(length);
+        long[] keys = _keys;
+        Object[] values = _values;
+        int mask = length - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if(k != 0) {
+                int index = hash(k) & mask;
+                while(keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = k;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        out.writeInt(_keys.length);
+        for(EntryIterator<V> iter = entryIterator(); iter.hasNext();) {
+            iter.next();
+            out.writeLong(iter.getKey());
+            out.writeObject(iter.getValue());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTable(in.readInt());
+        int size = _size;
+        _size = 0;
+        for(int i = 0; i < size; i++) {
+            long key = in.readLong();
+            put(key, (V)in.readObject());
+        }
+    }
+
+    // iterators and views
+    //-------------------------------------------------------------------------
+
+    private abstract class SlotIterator {
+
+        SlotIterator() {
+            // start behind a free slot, so no mapping is shifted across
+            // the start by a removal
+            long[] keys = _keys;
+            int start = 0;
+            while(keys[start] != 0) {
+                start++;
+            }
+            _start = start;
+            _nextIndex = _containsZeroKey ? ZERO_INDEX : UNKNOWN_INDEX;
+        }
+
+        public boolean hasNext() {
+            if(_nextIndex == UNKNOWN_INDEX) {
+                _nextIndex = findNext();
+            }
+            return (_nextIndex != END_INDEX);
+        }
+
+        /** Moves to the next mapping and returns its slot index. */
+        protected int nextIndex() {
+            checkForComodification();
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _lastIndex = _nextIndex;
+            _nextIndex = UNKNOWN_INDEX;
+            return _lastIndex;
+        }
+
+        /** Returns the slot index of the current mapping. */
+        protected int lastIndex() {
+            checkForComodification();
+            if(_lastIndex == UNKNOWN_INDEX) {
+                throw new IllegalStateException();
+            }
+            return _lastIndex;
+        }
+
+        public void remove() {
+            int lastIndex = lastIndex();
+            if(lastIndex == ZERO_INDEX) {
+                removeZeroKey();
+            } else {
+                removeAt(lastIndex);
+                // a mapping may have been shifted into the removed slot
+                _visited = (lastIndex - _start - 1) & (_keys.length - 1);
+                _nextIndex = UNKNOWN_INDEX;
+            }
+            _lastIndex = UNKNOWN_INDEX;
+            _expectedModCount = _modCount;
+        }
+
+        private int findNext() {
+            long[] keys = _keys;
+            int mask = keys.length - 1;
+            while(_visited < mask) {
+                int index = (_start + 1 + _visited++) & mask;
+                if(keys[index] != 0) {
+                    return index;
+                }
+            }
+            return END_INDEX;
+        }
+
+        private void checkForComodification() {
+            if(_expectedModCount != _modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private final int _start;
+        private int _visited = 0;
+        private int _nextIndex;
+        private int _lastIndex = UNKNOWN_INDEX;
+        private int _expectedModCount = _modCount;
+    }
+
+    private class MapEntryIterator extends SlotIterator implements EntryIterator<V> {
+
+        public void next() {
+            nextIndex();
+        }
+
+        public long getKey() {
+            int index = lastIndex();
+            return (index == ZERO_INDEX) ? 0 : _keys[index];
+        }
+
+        public V getValue() {
+            int index = lastIndex();
+            return (index == ZERO_INDEX) ? _zeroKeyValue : (V)_values[index];
+        }
+
+        public V setValue(V value) {
+            int index = lastIndex();
+            V old;
+            if(index == ZERO_INDEX) {
+                old = _zeroKeyValue;
+                _zeroKeyValue = value;
+            } else {
+                old = (V)_values[index];
+                _values[index] = value;
+            }
+            return old;
+        }
+    }
+
+    private class KeyIterator extends SlotIterator implements LongIterator {
+
+        public long next() {
+            int index = nextIndex();
+            return (index == ZERO_INDEX) ? 0 : _keys[index];
+        }
+    }
+
+    private class ValueIterator extends SlotIterator implements Iterator<V> {
+
+        public V next() {
+            int index = nextIndex();
+            return (index == ZERO_INDEX) ? _zeroKeyValue : (V)_values[index];
+        }
+    }
+
+    private class KeySet extends AbstractLongCollection implements LongSet {
+
+        public int size() {
+            return _size;
+        }
+
+        public boolean contains(long element) {
+            return containsKey(element);
+        }
+
+        public boolean removeElement(long element) {
+            if(!containsKey(element)) {
+                return false;
+            }
+            remove(element);
+            return true;
+        }
+
+        public void clear() {
+            LongObjectHashMap.this.clear();
+        }
+
+        public LongIterator iterator() {
+            return new KeyIterator();
+        }
+
+        public boolean equals(Object that) {
+            if(this == that) {
+                return true;
+            } else if(that instanceof LongSet) {
+                LongSet thatSet = (LongSet)that;
+                return (size() == thatSet.size() && containsAll(thatSet));
+            } else {
+                return false;
+            }
+        }
+
+        public int hashCode() {
+            int hash = 0;
+            for(LongIterator iter = iterator(); iter.hasNext();) {
+                hash += keyHashCode(iter.next());
+            }
+            return hash;
+        }
+    }
+
+    private class ValueCollection extends AbstractCollection<V> {
+
+        public int size() {
+            return _size;
+        }
+
+        public boolean contains(Object element) {
+            return containsValue(element);
+        }
+
+        public void clear() {
+            LongObjectHashMap.this.clear();
+        }
+
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+    }
+
+    // attributes
+    //-------------------------------------------------------------------------
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int MIN_TABLE_LENGTH = 4;
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    private static final int ZERO_INDEX = -1;
+    private static final int END_INDEX = -2;
+    private static final int UNKNOWN_INDEX = -3;
+
+    private transient long[] _keys = null;
+    private transient Object[] _values = null;
+    private transient boolean _containsZeroKey = false;
+    private transient V _zeroKeyValue = null;
+    private transient int _threshold;
+    private transient int _modCount = 0;
+    private int _size = 0;
+
+    private transient LongSet _keySet = null;
+    private transient Collection<V> _valueCollection = null;
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only {@link IntList} backed by memory-mapped regions of a file.
+ * <p />
+ * The file is mapped in chunks of 2<sup>24</sup> elements each, so the
+ * list can cover up to {@link Integer#MAX_VALUE} elements, independent
+ * of the 2 GB limit of a single mapped buffer.  The elements are read
+ * directly from the mapped memory, the Java heap contains only the chunk
+ * references.
+ * <p />
+ * {@link #close Closing} the list only drops the references to the mapped
+ * buffers, it doesn't unmap the file.  The mapping is released when the
+ * buffers are garbage collected; until then it occupies address space and,
+ * on some platforms, prevents the file from being deleted or truncated.
+ * The list does not close the file channel.
+ *
+ * @see DirectIntList
+ */
+public class MappedIntList extends RandomAccessIntList implements IntList, Closeable {
+
+    // constructors
+    //-------------------------------------------------------------------------
+
+    /**
+     * Maps the whole file of the given channel.
+     * 
+     * @param channel the file channel, must be readable
+     * @param order the byte order of the elements in the file
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the file contains more than 
+     *         {@link Integer#MAX_VALUE} elements
+     */
+    public MappedIntList(FileChannel channel, ByteOrder order) throws IOException {
+        this(channel, 0, elementCount(channel.size()), order);
+    }
+
+    /**
+     * Maps the given region of the file of the given channel.
+     * 
+     * @param channel the file channel, must be readable
+     * @param position the position in the file of the first element 
+     * @param size the number of elements
+     * @param order the byte order of the elements in the file
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the region is not contained
+     *         in the file
+     */
+    public MappedIntList(FileChannel channel, long position, int size, ByteOrder order) throws IOException {
+        if(position < 0 || size < 0 || position + (long)size * ELEMENT_SIZE > channel.size()) {
+            throw new IllegalArgumentException("region " + position + " with size " + size);
+        }
+        int count = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        _chunks = new IntBuffer[count];
+        for(int i = 0; i < count; i++) {
+            int length = Math.min(size - (i << CHUNK_SHIFT), CHUNK_LENGTH);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 
+                    position + ((long)i << CHUNK_SHIFT) * ELEMENT_SIZE, (long)length * ELEMENT_SIZE);
+            _chunks[i] = buffer.order(order).asIntBuffer();
+        }
+        _size = size;
+    }
+
+    private static int elementCount(long fileSize) {
+        long count = fileSize / ELEMENT_SIZE;
+        if(count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("size " + count);
+        }
+        return (int)count;
+    }
+
+    // IntList methods
+    //-------------------------------------------------------------------------
+
+    public int get(int index) {
+        if(index < 0 || index >= _size) {
+            checkOpen();
+            throw new IndexOutOfBoundsException("Should be at least 0 and less than " + _size + ", found " + index);
+        }
+        return _chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+    
+    public int size() {
+        return _size;
+    }
+
+    public int[] toArray() {
+        return toArray(new int[_size]);
+    }
+
+    public int[] toArray(int[] a) {
+        if(a.length < _size) {
+            a = new int[_size];
+        }
+        checkOpen();
+        for(int index = 0; index < _size; index += CHUNK_LENGTH) {
+            IntBuffer chunk = _chunks[index >>> CHUNK_SHIFT].duplicate();
+            chunk.position(0);
+            chunk.get(a, index, Math.min(_size - index, CHUNK_LENGTH));
+        }
+        return a;
+    }
+
+    // closeable methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Closes me and drops the references to my mapped buffers, see the
+     * class comment.  Subsequent attempts to access my elements fail.
+     * Closing an already closed list has no effect.
+     */
+    public void close() {
+        if(_chunks != null) {
+            incrModCount();
+            _chunks = null;
+            _size = 0;
+        }
+    }
+
+    /** 
+     * Returns <code>true</code> iff I am {@link #close closed}.
+     */
+    public boolean isClosed() {
+        return (_chunks == null);
+    }
+
+    // private methods
+    //-------------------------------------------------------------------------
+
+    private final void checkOpen() {
+        if(_chunks == null) {
+            throw new IllegalStateException("This list is closed.");
+        }
+    }
+
+    // attributes
+    //-------------------------------------------------------------------------
+    
+    private static final int ELEMENT_SIZE = 4;
+
+    private static final int CHUNK_SHIFT = 24;
+    private static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_LENGTH - 1;
+
+    private IntBuffer[] _chunks = null;
+    private int _size = 0;
+
+}
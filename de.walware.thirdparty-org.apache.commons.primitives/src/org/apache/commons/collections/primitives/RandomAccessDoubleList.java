@@ -59,6 +59,11 @@ package org.apache.commons.collections.primitives;
 
 import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Abstract base class for {@link DoubleList}s backed 
@@ -216,6 +221,107 @@ public abstract class RandomAccessDoubleList extends AbstractDoubleCollection im
         return buf.toString();
     }
     
+    // stream and bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Returns a {@link Spliterator} over my elements, reporting 
+     * {@link Spliterator#ORDERED ORDERED}, {@link Spliterator#SIZED SIZED}
+     * and {@link Spliterator#SUBSIZED SUBSIZED}.
+     * <p/>
+     * The spliterator splits by index ranges and reads the elements by
+     * {@link #get get}.  It binds to my size when first traversed, split
+     * or queried for its size, and throws a 
+     * {@link ConcurrentModificationException} if I am structurally 
+     * modified during the traversal.
+     * 
+     * @return a spliterator over my elements
+     */
+    public Spliterator.OfDouble spliterator() {
+        return new RandomAccessSpliterator(this, 0, -1, 0);
+    }
+
+    public void forEach(DoubleConsumer action) {
+        int size = size();
+        for(int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
+    }
+
+    /** 
+     * Performs the given action for each of my elements in parallel, 
+     * using the common fork join pool.  The order in which the elements
+     * are passed to the action is unspecified, so the action must be 
+     * thread-safe.
+     * 
+     * @param action the action to perform
+     */
+    public void parallelForEach(DoubleConsumer action) {
+        parallelStream().forEach(action);
+    }
+
+    /** 
+     * Replaces each of my elements with the result of applying the
+     * given operator to that element (optional operation).
+     * 
+     * @param operator the operator to apply to each element
+     * @throws UnsupportedOperationException when {@link #set set} is not 
+     *         supported
+     */
+    public void replaceAll(DoubleUnaryOperator operator) {
+        int size = size();
+        for(int i = 0; i < size; i++) {
+            set(i, operator.applyAsDouble(get(i)));
+        }
+    }
+
+    /** 
+     * Replaces each of my elements with the result of applying the
+     * given operator to that element, in parallel if supported by my
+     * implementation (optional operation).  The operator must be
+     * thread-safe.
+     * <p/>
+     * The default implementation calls {@link #replaceAll replaceAll},
+     * since {@link #set set} is not required to allow concurrent calls.
+     * Subclasses storing the elements in a way allowing concurrent updates
+     * of different elements can override this method to process the
+     * elements in parallel.
+     * 
+     * @param operator the operator to apply to each element
+     * @throws UnsupportedOperationException when {@link #set set} is not 
+     *         supported
+     */
+    public void parallelReplaceAll(DoubleUnaryOperator operator) {
+        replaceAll(operator);
+    }
+
+    /** 
+     * Returns the sum of my elements.
+     * 
+     * @return the sum of my elements, or <code>0</code> if I am empty
+     */
+    public double sum() {
+        return stream().sum();
+    }
+
+    /** 
+     * Returns my smallest element.
+     * 
+     * @return my smallest element, or an empty optional if I am empty
+     */
+    public OptionalDouble min() {
+        return stream().min();
+    }
+
+    /** 
+     * Returns my largest element.
+     * 
+     * @return my largest element, or an empty optional if I am empty
+     */
+    public OptionalDouble max() {
+        return stream().max();
+    }
+
     // protected utilities
     //-------------------------------------------------------------------------
     
@@ -237,6 +343,70 @@ public abstract class RandomAccessDoubleList extends AbstractDoubleCollection im
     // inner classes
     //-------------------------------------------------------------------------
     
+    private static class RandomAccessSpliterator implements Spliterator.OfDouble {
+        RandomAccessSpliterator(RandomAccessDoubleList list, int index, int fence, int expectedModCount) {
+            _list = list;
+            _index = index;
+            _fence = fence;
+            _expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if(_fence < 0) {
+                _expectedModCount = _list.getModCount();
+                _fence = _list.size();
+            }
+            return _fence;
+        }
+
+        public boolean tryAdvance(DoubleConsumer action) {
+            int fence = getFence();
+            if(_index < fence) {
+                action.accept(_list.get(_index++));
+                assertNotComodified();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(DoubleConsumer action) {
+            int fence = getFence();
+            for(; _index < fence; _index++) {
+                action.accept(_list.get(_index));
+            }
+            assertNotComodified();
+        }
+
+        public Spliterator.OfDouble trySplit() {
+            int lo = _index;
+            int mid = (lo + getFence()) >>> 1;
+            if(lo >= mid) {
+                return null;
+            }
+            _index = mid;
+            return new RandomAccessSpliterator(_list, lo, mid, _expectedModCount);
+        }
+
+        public long estimateSize() {
+            return getFence() - _index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        private void assertNotComodified() throws ConcurrentModificationException {
+            if(_expectedModCount != _list.getModCount()) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private final RandomAccessDoubleList _list;
+        private int _index;
+        private int _fence;
+        private int _expectedModCount;
+    }
+
     private static class ComodChecker {
         ComodChecker(RandomAccessDoubleList source) {
             _source = source;  
@@ -59,6 +59,10 @@ package org.apache.commons.collections.primitives;
 
 import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Abstract base class for {@link IntList}s backed 
@@ -215,6 +219,107 @@ public abstract class RandomAccessIntList extends AbstractIntCollection implemen
         return buf.toString();
     }
     
+    // stream and bulk methods
+    //-------------------------------------------------------------------------
+
+    /** 
+     * Returns a {@link Spliterator} over my elements, reporting 
+     * {@link Spliterator#ORDERED ORDERED}, {@link Spliterator#SIZED SIZED}
+     * and {@link Spliterator#SUBSIZED SUBSIZED}.
+     * <p/>
+     * The spliterator splits by index ranges and reads the elements by
+     * {@link #get get}.  It binds to my size when first traversed, split
+     * or queried for its size, and throws a 
+     * {@link ConcurrentModificationException} if I am structurally 
+     * modified during the traversal.
+     * 
+     * @return a spliterator over my elements
+     */
+    public Spliterator.OfInt spliterator() {
+        return new RandomAccessSpliterator(this, 0, -1, 0);
+    }
+
+    public void forEach(IntConsumer action) {
+        int size = size();
+        for(int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
+    }
+
+    /** 
+     * Performs the given action for each of my elements in parallel, 
+     * using the common fork join pool.  The order in which the elements
+     * are passed to the action is unspecified, so the action must be 
+     * thread-safe.
+     * 
+     * @param action the action to perform
+     */
+    public void parallelForEach(IntConsumer action) {
+        parallelStream().forEach(action);
+    }
+
+    /** 
+     * Replaces each of my elements with the result of applying the
+     * given operator to that element (optional operation).
+     * 
+     * @param operator the operator to apply to each element
+     * @throws UnsupportedOperationException when {@link #set set} is not 
+     *         supported
+     */
+    public void replaceAll(IntUnaryOperator operator) {
+        int size = size();
+        for(int i = 0; i < size; i++) {
+            set(i, operator.applyAsInt(get(i)));
+        }
+    }
+
+    /** 
+     * Replaces each of my elements with the result of applying the
+     * given operator to that element, in parallel if supported by my
+     * implementation (optional operation).  The operator must be
+     * thread-safe.
+     * <p/>
+     * The default implementation calls {@link #replaceAll replaceAll},
+     * since {@link #set set} is not required to allow concurrent calls.
+     * Subclasses storing the elements in a way allowing concurrent updates
+     * of different elements can override this method to process the
+     * elements in parallel.
+     * 
+     * @param operator the operator to apply to each element
+     * @throws UnsupportedOperationException when {@link #set set} is not 
+     *         supported
+     */
+    public void parallelReplaceAll(IntUnaryOperator operator) {
+        replaceAll(operator);
+    }
+
+    /** 
+     * Returns the sum of my elements.
+     * 
+     * @return the sum of my elements, or <code>0</code> if I am empty
+     */
+    public long sum() {
+        return stream().asLongStream().sum();
+    }
+
+    /** 
+     * Returns my smallest element.
+     * 
+     * @return my smallest element, or an empty optional if I am empty
+     */
+    public OptionalInt min() {
+        return stream().min();
+    }
+
+    /** 
+     * Returns my largest element.
+     * 
+     * @return my largest element, or an empty optional if I am empty
+     */
+    public OptionalInt max() {
+        return stream().max();
+    }
+
     // protected utilities
     //-------------------------------------------------------------------------
     
@@ -236,6 +341,70 @@ public abstract class RandomAccessIntList extends AbstractIntCollection implemen
     // inner classes
     //-------------------------------------------------------------------------
     
+    private static class RandomAccessSpliterator implements Spliterator.OfInt {
+        RandomAccessSpliterator(RandomAccessIntList list, int index, int fence, int expectedModCount) {
+            _list = list;
+            _index = index;
+            _fence = fence;
+            _expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if(_fence < 0) {
+                _expectedModCount = _list.getModCount();
+                _fence = _list.size();
+            }
+            return _fence;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            int fence = getFence();
+            if(_index < fence) {
+                action.accept(_list.get(_index++));
+                assertNotComodified();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            int fence = getFence();
+            for(; _index < fence; _index++) {
+                action.accept(_list.get(_index));
+            }
+            assertNotComodified();
+        }
+
+        public Spliterator.OfInt trySplit() {
+            int lo = _index;
+            int mid = (lo + getFence()) >>> 1;
+            if(lo >= mid) {
+                return null;
+            }
+            _index = mid;
+            return new RandomAccessSpliterator(_list, lo, mid, _expectedModCount);
+        }
+
+        public long estimateSize() {
+            return getFence() - _index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        private void assertNotComodified() throws ConcurrentModificationException {
+            if(_expectedModCount != _list.getModCount()) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private final RandomAccessIntList _list;
+        private int _index;
+        private int _fence;
+        private int _expectedModCount;
+    }
+
     private static class ComodChecker {
         ComodChecker(RandomAccessIntList source) {
             _source = source;  
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.IntCollection;
+import org.apache.commons.collections.primitives.IntIntMap;
+import org.apache.commons.collections.primitives.IntSet;
+
+/**
+ * Base class for {@link IntIntMap}s delegating all methods to the
+ * {@link #getProxiedMap proxied} map.
+ */
+abstract class BaseProxyIntIntMap implements IntIntMap {
+    protected abstract IntIntMap getProxiedMap();
+
+    protected BaseProxyIntIntMap() {
+    }
+
+    public int size() {
+        return getProxiedMap().size();
+    }
+
+    public boolean isEmpty() {
+        return getProxiedMap().isEmpty();
+    }
+
+    public boolean containsKey(int key) {
+        return getProxiedMap().containsKey(key);
+    }
+
+    public boolean containsValue(int value) {
+        return getProxiedMap().containsValue(value);
+    }
+
+    public int get(int key) {
+        return getProxiedMap().get(key);
+    }
+
+    public int get(int key, int defaultValue) {
+        return getProxiedMap().get(key, defaultValue);
+    }
+
+    public int put(int key, int value) {
+        return getProxiedMap().put(key, value);
+    }
+
+    public void putAll(IntIntMap map) {
+        getProxiedMap().putAll(map);
+    }
+
+    public int remove(int key) {
+        return getProxiedMap().remove(key);
+    }
+
+    public void clear() {
+        getProxiedMap().clear();
+    }
+
+    public IntSet keySet() {
+        return getProxiedMap().keySet();
+    }
+
+    public IntCollection values() {
+        return getProxiedMap().values();
+    }
+
+    public IntIntMap.EntryIterator entryIterator() {
+        return getProxiedMap().entryIterator();
+    }
+
+    public boolean equals(Object obj) {
+        return getProxiedMap().equals(obj);
+    }
+
+    public int hashCode() {
+        return getProxiedMap().hashCode();
+    }
+
+    public String toString() {
+        return getProxiedMap().toString();
+    }
+
+}
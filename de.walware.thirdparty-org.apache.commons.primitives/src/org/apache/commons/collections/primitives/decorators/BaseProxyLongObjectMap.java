@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import java.util.Collection;
+
+import org.apache.commons.collections.primitives.LongObjectMap;
+import org.apache.commons.collections.primitives.LongSet;
+
+/**
+ * Base class for {@link LongObjectMap}s delegating all methods to the
+ * {@link #getProxiedMap proxied} map.
+ */
+abstract class BaseProxyLongObjectMap<V> implements LongObjectMap<V> {
+    protected abstract LongObjectMap<V> getProxiedMap();
+
+    protected BaseProxyLongObjectMap() {
+    }
+
+    public int size() {
+        return getProxiedMap().size();
+    }
+
+    public boolean isEmpty() {
+        return getProxiedMap().isEmpty();
+    }
+
+    public boolean containsKey(long key) {
+        return getProxiedMap().containsKey(key);
+    }
+
+    public boolean containsValue(Object value) {
+        return getProxiedMap().containsValue(value);
+    }
+
+    public V get(long key) {
+        return getProxiedMap().get(key);
+    }
+
+    public V get(long key, V defaultValue) {
+        return getProxiedMap().get(key, defaultValue);
+    }
+
+    public V put(long key, V value) {
+        return getProxiedMap().put(key, value);
+    }
+
+    public void putAll(LongObjectMap<? extends V> map) {
+        getProxiedMap().putAll(map);
+    }
+
+    public V remove(long key) {
+        return getProxiedMap().remove(key);
+    }
+
+    public void clear() {
+        getProxiedMap().clear();
+    }
+
+    public LongSet keySet() {
+        return getProxiedMap().keySet();
+    }
+
+    public Collection<V> values() {
+        return getProxiedMap().values();
+    }
+
+    public LongObjectMap.EntryIterator<V> entryIterator() {
+        return getProxiedMap().entryIterator();
+    }
+
+    public boolean equals(Object obj) {
+        return getProxiedMap().equals(obj);
+    }
+
+    public int hashCode() {
+        return getProxiedMap().hashCode();
+    }
+
+    public String toString() {
+        return getProxiedMap().toString();
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.IntCollection;
+import org.apache.commons.collections.primitives.IntIntMap;
+import org.apache.commons.collections.primitives.IntIterator;
+import org.apache.commons.collections.primitives.IntSet;
+
+/**
+ * Base class for unmodifiable views of an {@link IntIntMap}: the
+ * mutators throw an {@link UnsupportedOperationException}, the views
+ * and iterators are unmodifiable too.
+ */
+abstract class BaseUnmodifiableIntIntMap extends BaseProxyIntIntMap {
+
+    public final int put(int key, int value) {
+        throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+    }
+
+    public final void putAll(IntIntMap map) {
+        throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+    }
+
+    public final int remove(int key) {
+        throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+    }
+
+    public final void clear() {
+        throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+    }
+
+    public final IntSet keySet() {
+        return UnmodifiableIntSet.wrap(getProxiedMap().keySet());
+    }
+
+    public final IntCollection values() {
+        return new UnmodifiableValues(getProxiedMap().values());
+    }
+
+    public final IntIntMap.EntryIterator entryIterator() {
+        return new UnmodifiableEntryIterator(getProxiedMap().entryIterator());
+    }
+
+    private static final class UnmodifiableEntryIterator implements IntIntMap.EntryIterator {
+        UnmodifiableEntryIterator(IntIntMap.EntryIterator iterator) {
+            this.proxied = iterator;
+        }
+
+        public boolean hasNext() {
+            return proxied.hasNext();
+        }
+
+        public void next() {
+            proxied.next();
+        }
+
+        public int getKey() {
+            return proxied.getKey();
+        }
+
+        public int getValue() {
+            return proxied.getValue();
+        }
+
+        public int setValue(int value) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        private IntIntMap.EntryIterator proxied = null;
+    }
+
+    private static final class UnmodifiableValues extends BaseProxyIntCollection {
+        UnmodifiableValues(IntCollection collection) {
+            this.proxied = collection;
+        }
+
+        protected IntCollection getProxiedCollection() {
+            return proxied;
+        }
+
+        public boolean add(int element) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public boolean addAll(IntCollection c) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public void clear() {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public boolean removeAll(IntCollection c) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public boolean removeElement(int element) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }
+
+        public boolean retainAll(IntCollection c) {
+            throw new UnsupportedOperationException("This IntIntMap is not modifiable.");
+        }    
+
+        public IntIterator iterator() {
+            return UnmodifiableIntIterator.wrap(proxied.iterator());
+        }
+
+        private IntCollection proxied = null;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.IntLongMap;
+import org.apache.commons.collections.primitives.IntSet;
+import org.apache.commons.collections.primitives.LongCollection;
+import org.apache.commons.collections.primitives.LongIterator;
+
+/**
+ * Base class for unmodifiable views of an {@link IntLongMap}: the
+ * mutators throw an {@link UnsupportedOperationException}, the views
+ * and iterators are unmodifiable too.
+ */
+abstract class BaseUnmodifiableIntLongMap extends BaseProxyIntLongMap {
+
+    public final long put(int key, long value) {
+        throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+    }
+
+    public final void putAll(IntLongMap map) {
+        throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+    }
+
+    public final long remove(int key) {
+        throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+    }
+
+    public final void clear() {
+        throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+    }
+
+    public final IntSet keySet() {
+        return UnmodifiableIntSet.wrap(getProxiedMap().keySet());
+    }
+
+    public final LongCollection values() {
+        return new UnmodifiableValues(getProxiedMap().values());
+    }
+
+    public final IntLongMap.EntryIterator entryIterator() {
+        return new UnmodifiableEntryIterator(getProxiedMap().entryIterator());
+    }
+
+    private static final class UnmodifiableEntryIterator implements IntLongMap.EntryIterator {
+        UnmodifiableEntryIterator(IntLongMap.EntryIterator iterator) {
+            this.proxied = iterator;
+        }
+
+        public boolean hasNext() {
+            return proxied.hasNext();
+        }
+
+        public void next() {
+            proxied.next();
+        }
+
+        public int getKey() {
+            return proxied.getKey();
+        }
+
+        public long getValue() {
+            return proxied.getValue();
+        }
+
+        public long setValue(long value) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        private IntLongMap.EntryIterator proxied = null;
+    }
+
+    private static final class UnmodifiableValues extends BaseProxyLongCollection {
+        UnmodifiableValues(LongCollection collection) {
+            this.proxied = collection;
+        }
+
+        protected LongCollection getProxiedCollection() {
+            return proxied;
+        }
+
+        public boolean add(long element) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public boolean addAll(LongCollection c) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public void clear() {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public boolean removeAll(LongCollection c) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public boolean removeElement(long element) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }
+
+        public boolean retainAll(LongCollection c) {
+            throw new UnsupportedOperationException("This IntLongMap is not modifiable.");
+        }    
+
+        public LongIterator iterator() {
+            return UnmodifiableLongIterator.wrap(proxied.iterator());
+        }
+
+        private LongCollection proxied = null;
+    }
+
+}
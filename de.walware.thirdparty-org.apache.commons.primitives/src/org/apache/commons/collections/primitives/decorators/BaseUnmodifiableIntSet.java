@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.IntCollection;
+import org.apache.commons.collections.primitives.IntIterator;
+
+/**
+ * Base class for unmodifiable views of an {@link IntSet}: the
+ * mutators throw an {@link UnsupportedOperationException}, the views
+ * and iterators are unmodifiable too.
+ */
+abstract class BaseUnmodifiableIntSet extends BaseProxyIntSet {
+
+    public final boolean add(int element) {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }
+
+    public final boolean addAll(IntCollection c) {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }
+
+    public final void clear() {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }
+
+    public final boolean removeAll(IntCollection c) {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }
+
+    public final boolean removeElement(int element) {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }
+
+    public final boolean retainAll(IntCollection c) {
+        throw new UnsupportedOperationException("This IntSet is not modifiable.");
+    }    
+    
+    public final IntIterator iterator() {
+        return UnmodifiableIntIterator.wrap(getProxiedSet().iterator());
+    }
+
+}
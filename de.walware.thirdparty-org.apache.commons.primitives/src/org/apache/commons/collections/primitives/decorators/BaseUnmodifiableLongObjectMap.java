@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.commons.collections.primitives.LongObjectMap;
+import org.apache.commons.collections.primitives.LongSet;
+
+/**
+ * Base class for unmodifiable views of a {@link LongObjectMap}: the
+ * mutators throw an {@link UnsupportedOperationException}, the views
+ * and iterators are unmodifiable too.
+ */
+abstract class BaseUnmodifiableLongObjectMap<V> extends BaseProxyLongObjectMap<V> {
+
+    public final V put(long key, V value) {
+        throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+    }
+
+    public final void putAll(LongObjectMap<? extends V> map) {
+        throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+    }
+
+    public final V remove(long key) {
+        throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+    }
+
+    public final void clear() {
+        throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+    }
+
+    public final LongSet keySet() {
+        return UnmodifiableLongSet.wrap(getProxiedMap().keySet());
+    }
+
+    public final Collection<V> values() {
+        return Collections.unmodifiableCollection(getProxiedMap().values());
+    }
+
+    public final LongObjectMap.EntryIterator<V> entryIterator() {
+        return new UnmodifiableEntryIterator<V>(getProxiedMap().entryIterator());
+    }
+
+    private static final class UnmodifiableEntryIterator<V> implements LongObjectMap.EntryIterator<V> {
+        UnmodifiableEntryIterator(LongObjectMap.EntryIterator<V> iterator) {
+            this.proxied = iterator;
+        }
+
+        public boolean hasNext() {
+            return proxied.hasNext();
+        }
+
+        public void next() {
+            proxied.next();
+        }
+
+        public long getKey() {
+            return proxied.getKey();
+        }
+
+        public V getValue() {
+            return proxied.getValue();
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("This LongObjectMap is not modifiable.");
+        }
+
+        private LongObjectMap.EntryIterator<V> proxied = null;
+    }
+
+}
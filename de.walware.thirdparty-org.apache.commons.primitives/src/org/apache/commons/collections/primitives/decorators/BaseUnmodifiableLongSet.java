@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.LongCollection;
+import org.apache.commons.collections.primitives.LongIterator;
+
+/**
+ * Base class for unmodifiable views of a {@link LongSet}: the
+ * mutators throw an {@link UnsupportedOperationException}, the views
+ * and iterators are unmodifiable too.
+ */
+abstract class BaseUnmodifiableLongSet extends BaseProxyLongSet {
+
+    public final boolean add(long element) {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }
+
+    public final boolean addAll(LongCollection c) {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }
+
+    public final void clear() {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }
+
+    public final boolean removeAll(LongCollection c) {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }
+
+    public final boolean removeElement(long element) {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }
+
+    public final boolean retainAll(LongCollection c) {
+        throw new UnsupportedOperationException("This LongSet is not modifiable.");
+    }    
+    
+    public final LongIterator iterator() {
+        return UnmodifiableLongIterator.wrap(getProxiedSet().iterator());
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import org.apache.commons.collections.primitives.LongObjectMap;
+
+/**
+ * Unmodifiable view of a {@link LongObjectMap}, which is not
+ * {@link java.io.Serializable serializable}.
+ */
+final class NonSerializableUnmodifiableLongObjectMap<V> extends BaseUnmodifiableLongObjectMap<V> {
+    NonSerializableUnmodifiableLongObjectMap(LongObjectMap<V> map) {
+        this.proxied = map;
+    }
+    
+    protected LongObjectMap<V> getProxiedMap() {
+        return proxied;
+    }
+
+    private LongObjectMap<V> proxied = null;
+}
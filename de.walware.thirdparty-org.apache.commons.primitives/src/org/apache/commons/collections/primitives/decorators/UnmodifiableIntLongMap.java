@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import java.io.Serializable;
+
+import org.apache.commons.collections.primitives.IntLongMap;
+
+/**
+ * Unmodifiable view of an {@link IntLongMap}.
+ * <p />
+ * Use {@link #wrap} to create the view; it is serializable if the
+ * proxied map is serializable.
+ */
+public final class UnmodifiableIntLongMap extends BaseUnmodifiableIntLongMap implements Serializable {
+    UnmodifiableIntLongMap(IntLongMap map) {
+        this.proxied = map;
+    }
+    
+    public static final IntLongMap wrap(IntLongMap map) {
+        if(null == map) {
+            return null; 
+        } else if(map instanceof UnmodifiableIntLongMap || map instanceof NonSerializableUnmodifiableIntLongMap) {
+            return map;
+        } else if(map instanceof Serializable) {
+            return new UnmodifiableIntLongMap(map);
+        } else {
+            return new NonSerializableUnmodifiableIntLongMap(map);
+        }
+    }
+
+    protected IntLongMap getProxiedMap() {
+        return proxied;
+    }
+
+    private IntLongMap proxied = null;
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import java.io.Serializable;
+
+import org.apache.commons.collections.primitives.IntSet;
+
+/**
+ * Unmodifiable view of an {@link IntSet}.
+ * <p />
+ * Use {@link #wrap} to create the view; it is serializable if the
+ * proxied set is serializable.
+ */
+public final class UnmodifiableIntSet extends BaseUnmodifiableIntSet implements Serializable {
+    UnmodifiableIntSet(IntSet set) {
+        this.proxied = set;
+    }
+    
+    public static final IntSet wrap(IntSet set) {
+        if(null == set) {
+            return null; 
+        } else if(set instanceof UnmodifiableIntSet || set instanceof NonSerializableUnmodifiableIntSet) {
+            return set;
+        } else if(set instanceof Serializable) {
+            return new UnmodifiableIntSet(set);
+        } else {
+            return new NonSerializableUnmodifiableIntSet(set);
+        }
+    }
+
+    protected IntSet getProxiedSet() {
+        return proxied;
+    }
+
+    private IntSet proxied = null;
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.collections.primitives.decorators;
+
+import java.io.Serializable;
+
+import org.apache.commons.collections.primitives.LongObjectMap;
+
+/**
+ * Unmodifiable view of a {@link LongObjectMap}.
+ * <p />
+ * Use {@link #wrap} to create the view; it is serializable if the
+ * proxied map is serializable.
+ */
+public final class UnmodifiableLongObjectMap<V> extends BaseUnmodifiableLongObjectMap<V> implements Serializable {
+    UnmodifiableLongObjectMap(LongObjectMap<V> map) {
+        this.proxied = map;
+    }
+    
+    public static final <V> LongObjectMap<V> wrap(LongObjectMap<V> map) {
+        if(null == map) {
+            return null; 
+        } else if(map instanceof UnmodifiableLongObjectMap || map instanceof NonSerializableUnmodifiableLongObjectMap) {
+            return map;
+        } else if(map instanceof Serializable) {
+            return new UnmodifiableLongObjectMap<V>(map);
+        } else {
+            return new NonSerializableUnmodifiableLongObjectMap<V>(map);
+        }
+    }
+
+    protected LongObjectMap<V> getProxiedMap() {
+        return proxied;
+    }
+
+    private LongObjectMap<V> proxied = null;
+}